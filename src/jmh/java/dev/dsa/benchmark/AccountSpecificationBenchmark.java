@@ -0,0 +1,118 @@
+package dev.dsa.benchmark;
+
+import dev.dsa.dto.AccountSearchRequest;
+import dev.dsa.entity.Account;
+import dev.dsa.service.AccountSearchIndex;
+import dev.dsa.service.SequenceIdAllocator;
+import dev.dsa.specification.AccountSpecification;
+import dev.dsa.specification.AccountTextMatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the account search predicate (with a real Hibernate CriteriaBuilder) and resolving
+ * text filters through the trigram search index, for different filter shapes and table sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccountSpecificationBenchmark {
+
+    @Param({"ref", "customer", "all"})
+    private String filter;
+
+    @Param({"1000", "100000"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private AccountSearchIndex searchIndex;
+    private AccountSearchRequest searchRequest;
+    private AccountTextMatch textMatch;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("app.search.index.enabled=true");
+        insertAccounts(context.getBean(JdbcTemplate.class), context.getBean(SequenceIdAllocator.class), accounts);
+        searchIndex = context.getBean(AccountSearchIndex.class);
+        searchIndex.rebuild();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+
+        searchRequest = switch (filter) {
+            case "ref" -> AccountSearchRequest.builder().accountRef("ench-12").build();
+            case "customer" -> AccountSearchRequest.builder().customerName("acme").build();
+            default -> AccountSearchRequest.builder()
+                .accountRef("ench-1")
+                .accountName("savings")
+                .currency("usd")
+                .customerName("corp")
+                .status(Account.AccountStatus.ACTIVE)
+                .accountIdFrom(1L)
+                .createdAtFrom(LocalDateTime.now().minusYears(1))
+                .build();
+        };
+        textMatch = searchIndex.resolve(searchRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Predicate buildLikePredicate() {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Account> query = criteriaBuilder.createQuery(Account.class);
+        Root<Account> root = query.from(Account.class);
+        return AccountSpecification.withSearchCriteria(searchRequest).toPredicate(root, query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate buildIndexedPredicate() {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Account> query = criteriaBuilder.createQuery(Account.class);
+        Root<Account> root = query.from(Account.class);
+        return AccountSpecification.withSearchCriteria(searchRequest, textMatch).toPredicate(root, query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public AccountTextMatch resolveTextFilters() {
+        return searchIndex.resolve(searchRequest);
+    }
+
+    private static void insertAccounts(JdbcTemplate jdbcTemplate, SequenceIdAllocator idAllocator, int count) {
+        Long customerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM customers", Long.class);
+        String[] names = {"Savings", "Checking", "Business", "Investment"};
+        String[] currencies = {"USD", "EUR", "GBP"};
+        List<Object[]> rows = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{idAllocator.nextId(Account.ID_SEQUENCE), "BENCH-" + i, names[i % names.length] + " " + i, currencies[i % currencies.length],
+                "ACTIVE", customerId, now, "bench"});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO accounts (id, account_ref, account_name, currency, status, customer_id, created_at, created_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
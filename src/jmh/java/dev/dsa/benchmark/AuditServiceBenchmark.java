@@ -0,0 +1,73 @@
+package dev.dsa.benchmark;
+
+import dev.dsa.entity.AuditLog;
+import dev.dsa.service.AuditService;
+import dev.dsa.service.SequenceIdAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuditService.logAction against an embedded H2 database, in sync and async writer modes,
+ * with an empty or pre-filled audit table
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuditServiceBenchmark {
+
+    @Param({"sync", "async"})
+    private String mode;
+
+    @Param({"0", "100000"})
+    private int existingRows;
+
+    private ConfigurableApplicationContext context;
+    private AuditService auditService;
+    private long entityId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("app.audit.mode=" + mode);
+        insertAuditRows(context.getBean(JdbcTemplate.class), context.getBean(SequenceIdAllocator.class), existingRows);
+        auditService = context.getBean(AuditService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        // Closing the context drains the async writer
+        context.close();
+    }
+
+    @Benchmark
+    public void logAction() {
+        long id = ++entityId;
+        auditService.logAction("UPDATE", "Account", id, "Updated account: BENCH-" + id,
+            "Account{id=" + id + ", status=ACTIVE}", "Account{id=" + id + ", status=SUSPENDED}");
+    }
+
+    private static void insertAuditRows(JdbcTemplate jdbcTemplate, SequenceIdAllocator idAllocator, int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{idAllocator.nextId(AuditLog.ID_SEQUENCE), "bench", "UPDATE", "Account", (long) i, "Seeded audit row " + i, now});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO audit_logs (id, username, action, entity_type, entity_id, details, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)",
+            rows);
+    }
+}
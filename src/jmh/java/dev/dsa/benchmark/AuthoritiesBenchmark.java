@@ -0,0 +1,147 @@
+package dev.dsa.benchmark;
+
+import dev.dsa.entity.Permission;
+import dev.dsa.entity.Role;
+import dev.dsa.entity.RoleProfile;
+import dev.dsa.entity.User;
+import dev.dsa.repository.UserRepository;
+import dev.dsa.security.RbacUserDetails;
+import dev.dsa.security.UserDetailsCache;
+import dev.dsa.service.CustomUserDetailsService;
+import dev.dsa.service.PermissionIndex;
+import dev.dsa.service.RbacService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a user with many roles and profiles and materializing / checking their authorities.
+ * The repository and RbacService are stubbed, so only the in-memory work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthoritiesBenchmark {
+
+    private static final String USERNAME = "bench";
+
+    private static final int PERMISSIONS_PER_ROLE = 8;
+
+    @Param({"5", "50"})
+    private int roleCount;
+
+    @Param({"2", "20"})
+    private int profileCount;
+
+    private User user;
+    private CustomUserDetailsService userDetailsService;
+    private RbacUserDetails userDetails;
+    private String lastPermission;
+
+    @Setup
+    public void setUp() {
+        List<Permission> permissions = new ArrayList<>();
+        List<Role> roles = new ArrayList<>();
+        Role parent = null;
+        for (int r = 0; r < roleCount; r++) {
+            Set<Permission> rolePermissions = new HashSet<>();
+            for (int p = 0; p < PERMISSIONS_PER_ROLE; p++) {
+                long id = (long) r * PERMISSIONS_PER_ROLE + p + 1;
+                Permission permission = Permission.builder().id(id).name("PERMISSION_" + id).active(true).build();
+                permissions.add(permission);
+                rolePermissions.add(permission);
+            }
+            // Every other role inherits from the previous one
+            Role role = Role.builder()
+                .id((long) r + 1)
+                .name("ROLE_" + r)
+                .active(true)
+                .parentRole(r % 2 == 1 ? parent : null)
+                .permissions(rolePermissions)
+                .build();
+            roles.add(role);
+            parent = role;
+        }
+        lastPermission = permissions.get(permissions.size() - 1).getName();
+
+        List<RoleProfile> profiles = new ArrayList<>();
+        for (int p = 0; p < profileCount; p++) {
+            Set<Role> profileRoles = new HashSet<>();
+            for (int r = p; r < roleCount; r += profileCount) {
+                profileRoles.add(roles.get(r));
+            }
+            profiles.add(RoleProfile.builder().id((long) p + 1).name("PROFILE_" + p).roles(profileRoles).build());
+        }
+
+        user = User.builder()
+            .id(1L)
+            .username(USERNAME)
+            .password("{noop}secret")
+            .enabled(true)
+            .accountNonExpired(true)
+            .accountNonLocked(true)
+            .credentialsNonExpired(true)
+            .roles(new HashSet<>(roles.subList(0, Math.max(1, roleCount / 2))))
+            .roleProfiles(new HashSet<>(profiles))
+            .build();
+
+        PermissionIndex index = PermissionIndex.empty().rebuild(permissions, roles, profiles);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByUsernameWithRoles(USERNAME)).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.findByIdWithRoleProfiles(1L)).thenReturn(Optional.of(user));
+        RbacService rbacService = Mockito.mock(RbacService.class);
+        Mockito.when(rbacService.getPermissionIndex()).thenReturn(index);
+        UserDetailsCache userDetailsCache = new UserDetailsCache(new ConcurrentMapCacheManager("users"), false, 10_000);
+
+        userDetailsService = new CustomUserDetailsService(userRepository, rbacService, userDetailsCache);
+        userDetails = (RbacUserDetails) userDetailsService.loadUserByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(USERNAME);
+    }
+
+    /**
+     * Authorities the way they were built before the permission index: walk every role's hierarchy
+     */
+    @Benchmark
+    public Set<GrantedAuthority> entityWalkAuthorities() {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (Role role : user.getAllRoles()) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
+            for (Permission permission : role.getAllPermissions()) {
+                authorities.add(new SimpleGrantedAuthority(permission.getName()));
+            }
+        }
+        return authorities;
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean hasAuthority() {
+        return userDetails.hasAuthority(lastPermission);
+    }
+}
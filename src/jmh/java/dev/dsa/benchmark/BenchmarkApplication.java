@@ -0,0 +1,53 @@
+package dev.dsa.benchmark;
+
+import dev.dsa.AppTemplateApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application (without the web server unless asked for) against a private in-memory
+ * H2 database for benchmarks that need real repositories and transactions
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Same, with the embedded web server on a random port (local.server.port)
+     */
+    static ConfigurableApplicationContext startWeb(String... properties) {
+        List<String> all = new ArrayList<>(List.of(properties));
+        all.add("server.port=0");
+        return start(WebApplicationType.SERVLET, all.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+            "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.format_sql=false",
+            "spring.jpa.properties.hibernate.use_sql_comments=false",
+            "logging.level.root=WARN",
+            "logging.level.dev.dsa=WARN",
+            "logging.level.org.springframework.security=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "app.audit.async.spill-file="
+        ));
+        all.addAll(List.of(properties));
+        // Passed as command line arguments so they take precedence over application.properties
+        return new SpringApplicationBuilder(AppTemplateApplication.class)
+            .web(webApplicationType)
+            .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,62 @@
+package dev.dsa.benchmark;
+
+import dev.dsa.util.KeysetCursor;
+import dev.dsa.util.PaginationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request pagination helpers: pageable construction and keyset cursor encoding
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaginationBenchmark {
+
+    private int page = 5000;
+    private Integer userPageSize = 25;
+    private Sort sort = Sort.by("accountRef").and(Sort.by("id"));
+    private KeysetCursor cursor;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cursor = new KeysetCursor(KeysetCursor.Direction.FORWARD, "createdAt", LocalDateTime.now(), 123456L);
+        token = cursor.encode();
+    }
+
+    @Benchmark
+    public Pageable createPageableWithUserPreference() {
+        return PaginationUtil.createPageableWithUserPreference(page, userPageSize, null);
+    }
+
+    @Benchmark
+    public Pageable createSortedPageable() {
+        return PaginationUtil.createPageable(page, userPageSize, sort);
+    }
+
+    @Benchmark
+    public int calculateTotalPages() {
+        return PaginationUtil.calculateTotalPages(2_000_000L + page, userPageSize);
+    }
+
+    @Benchmark
+    public String encodeKeysetCursor() {
+        return cursor.encode();
+    }
+
+    @Benchmark
+    public KeysetCursor decodeKeysetCursor() {
+        return KeysetCursor.decode(token);
+    }
+}
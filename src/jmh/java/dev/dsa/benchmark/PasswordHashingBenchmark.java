@@ -0,0 +1,61 @@
+package dev.dsa.benchmark;
+
+import dev.dsa.config.PasswordEncoderConfig;
+import dev.dsa.config.PasswordHashingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password verification cost per algorithm and cost setting. Runs on one thread, so the score is
+ * logins/second/core: the hashing pool sustains roughly score * app.security.password.hashing-threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"BCRYPT", "ARGON2", "PBKDF2"})
+    private PasswordHashingProperties.Algorithm algorithm;
+
+    // default = the application.properties defaults, strong = roughly 4x the work
+    @Param({"default", "strong"})
+    private String cost;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setAlgorithm(algorithm);
+        if ("strong".equals(cost)) {
+            properties.getBcrypt().setStrength(properties.getBcrypt().getStrength() + 2);
+            properties.getArgon2().setMemory(properties.getArgon2().getMemory() * 2);
+            properties.getArgon2().setIterations(properties.getArgon2().getIterations() * 2);
+            properties.getPbkdf2().setIterations(properties.getPbkdf2().getIterations() * 4);
+        }
+        encoder = PasswordEncoderConfig.delegatingEncoder(properties);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    /**
+     * What a login costs: verifying the password against its stored hash
+     */
+    @Benchmark
+    public boolean login() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
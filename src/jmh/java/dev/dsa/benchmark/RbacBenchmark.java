@@ -0,0 +1,88 @@
+package dev.dsa.benchmark;
+
+import dev.dsa.entity.Permission;
+import dev.dsa.entity.Role;
+import dev.dsa.service.PermissionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Effective permissions of the leaf of a role inheritance chain: the recursive entity walk
+ * (Role.getAllPermissions) against the precomputed PermissionIndex closure
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RbacBenchmark {
+
+    @Param({"4", "16", "64"})
+    private int depth;
+
+    @Param({"4", "32"})
+    private int permissionsPerRole;
+
+    private Role leaf;
+    private PermissionIndex index;
+    private Set<Long> leafRoleIds;
+
+    @Setup
+    public void setUp() {
+        List<Permission> permissions = new ArrayList<>();
+        List<Role> roles = new ArrayList<>();
+        long permissionId = 1;
+        Role parent = null;
+        for (int level = 0; level < depth; level++) {
+            Set<Permission> rolePermissions = new HashSet<>();
+            for (int i = 0; i < permissionsPerRole; i++) {
+                Permission permission = Permission.builder()
+                    .id(permissionId)
+                    .name("PERMISSION_" + permissionId)
+                    .active(true)
+                    .build();
+                permissionId++;
+                permissions.add(permission);
+                rolePermissions.add(permission);
+            }
+            Role role = Role.builder()
+                .id((long) level + 1)
+                .name("ROLE_LEVEL_" + level)
+                .active(true)
+                .parentRole(parent)
+                .permissions(rolePermissions)
+                .build();
+            roles.add(role);
+            parent = role;
+        }
+        leaf = parent;
+        leafRoleIds = Set.of(leaf.getId());
+        index = PermissionIndex.empty().rebuild(permissions, roles, List.of());
+    }
+
+    @Benchmark
+    public Set<Permission> roleGetAllPermissions() {
+        return leaf.getAllPermissions();
+    }
+
+    @Benchmark
+    public BitSet permissionIndexResolve() {
+        return index.resolve(leafRoleIds, Set.of());
+    }
+
+    @Benchmark
+    public PermissionIndex permissionIndexRebuild() {
+        return index.withRoles(List.of(leaf));
+    }
+}
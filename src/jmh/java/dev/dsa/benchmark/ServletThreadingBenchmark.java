@@ -0,0 +1,137 @@
+package dev.dsa.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test of the servlet stack on platform threads (the Tomcat pool) versus virtual threads.
+ *
+ * Each invocation is one wave of concurrent users, each requesting the account list (several
+ * JDBC statements) as a logged-in admin; the "requests" counter is reported as requests/second.
+ * The embedded H2 driver synchronizes internally and so pins virtual threads; for numbers that
+ * reflect production, compare the two modes against PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ServletThreadingBenchmark {
+
+    private static final Pattern CSRF_TOKEN = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"1000", "5000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private ExecutorService clients;
+    private URI accountsUri;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkApplication.startWeb("spring.threads.virtual.enabled=" + virtualThreads);
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        accountsUri = URI.create(baseUrl + "/accounts");
+        client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        login(baseUrl, "admin", "admin123");
+        // The simulated users, not the server, should never be the bottleneck
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        clients.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void concurrentUsers(Counters counters) throws InterruptedException {
+        List<Future<Integer>> responses = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            responses.add(clients.submit(() ->
+                client.send(HttpRequest.newBuilder(accountsUri).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode()));
+        }
+        for (Future<Integer> response : responses) {
+            try {
+                if (response.get() == 200) {
+                    counters.requests++;
+                } else {
+                    counters.failures++;
+                }
+            } catch (ExecutionException e) {
+                counters.failures++;
+            }
+        }
+    }
+
+    private void login(String baseUrl, String username, String password) throws IOException, InterruptedException {
+        String page = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).GET().build(),
+            HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF_TOKEN.matcher(page);
+        if (!csrf.find()) {
+            throw new IllegalStateException("No CSRF token on the login page");
+        }
+        String form = "username=" + encode(username) + "&password=" + encode(password) + "&_csrf=" + encode(csrf.group(1));
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(),
+            HttpResponse.BodyHandlers.discarding());
+        if (response.headers().firstValue("Location").map(location -> location.contains("error")).orElse(true)) {
+            throw new IllegalStateException("Benchmark login failed");
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Completed and failed requests, reported by JMH per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long requests;
+        public long failures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+            failures = 0;
+        }
+    }
+}
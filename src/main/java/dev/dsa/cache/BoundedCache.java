@@ -0,0 +1,289 @@
+package dev.dsa.cache;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded LRU cache with expire-after-write and refresh-ahead.
+ *
+ * - Keys are spread over up to 16 segments, each an access-ordered map behind its own lock,
+ *   so lookups of different keys rarely contend. LRU order and the size bound are kept per
+ *   segment (maxSize is divided between them), which approximates a global LRU.
+ * - Entries past the TTL are treated as missing.
+ * - Entries past refresh-after (but within the TTL) are served as-is while a single
+ *   background reload runs; this only applies to @Cacheable(sync = true) lookups,
+ *   which are the only ones that hand the cache a loader.
+ * - Concurrent misses on the same key through @Cacheable(sync = true) share one load.
+ */
+@Slf4j
+public class BoundedCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final long maxSize;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final Executor refreshExecutor;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final Map<Object, ReentrantLock> loadLocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public BoundedCache(String name, long maxSize, Duration ttl, Duration refreshAfter, Executor refreshExecutor) {
+        super(true);
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : Long.MAX_VALUE;
+        this.refreshAfterNanos = refreshAfter != null ? refreshAfter.toNanos() : Long.MAX_VALUE;
+        this.refreshExecutor = refreshExecutor;
+        // Enough entries per segment for LRU within a segment to be meaningful
+        int segmentCount = Integer.highestOneBit((int) Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MAX_SEGMENTS)));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread the remainder so the segment capacities add up to maxSize exactly
+            long capacity = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return segments;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Entry entry = getLiveEntry(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = getLiveEntry(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            if (System.nanoTime() - entry.writtenAt > refreshAfterNanos) {
+                scheduleRefresh(key, entry, valueLoader);
+            }
+            return (T) fromStoreValue(entry.value);
+        }
+
+        // One loader per key; other callers wait and then read the loaded value
+        ReentrantLock loadLock = loadLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        loadLock.lock();
+        try {
+            entry = getLiveEntry(key);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return (T) fromStoreValue(entry.value);
+            }
+            misses.incrementAndGet();
+            T value = load(key, valueLoader);
+            put(key, value);
+            return value;
+        } finally {
+            loadLock.unlock();
+            loadLocks.remove(key, loadLock);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Entry entry = new Entry(toStoreValue(value), System.nanoTime());
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.entries.put(key, entry);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            if (segment.entries.remove(key) != null) {
+                invalidations.incrementAndGet();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                invalidations.addAndGet(segment.entries.size());
+                segment.entries.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return Stats.builder()
+            .name(name)
+            .size(size)
+            .maxSize(maxSize)
+            .hits(hits.get())
+            .misses(misses.get())
+            .loads(loads.get())
+            .refreshes(refreshes.get())
+            .evictions(evictions.get())
+            .expirations(expirations.get())
+            .invalidations(invalidations.get())
+            .build();
+    }
+
+    private Entry getLiveEntry(Object key) {
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry entry = segment.entries.get(key);
+            if (entry != null && System.nanoTime() - entry.writtenAt > ttlNanos) {
+                segment.entries.remove(key);
+                expirations.incrementAndGet();
+                return null;
+            }
+            return entry;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private void scheduleRefresh(Object key, Entry entry, Callable<?> valueLoader) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                Object value = load(key, valueLoader);
+                Segment segment = segmentFor(key);
+                segment.lock.lock();
+                try {
+                    // Only replace the entry we refreshed; an eviction or newer put wins
+                    if (segment.entries.get(key) == entry) {
+                        segment.entries.put(key, new Entry(toStoreValue(value), System.nanoTime()));
+                        refreshes.incrementAndGet();
+                    }
+                } finally {
+                    segment.lock.unlock();
+                }
+            } catch (Exception e) {
+                log.warn("Refresh of cache '{}' key {} failed, keeping current value", name, key, e);
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        loads.incrementAndGet();
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * One lock stripe: an access-ordered map holding at most capacity entries
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Object, Entry> entries;
+
+        private Segment(long capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long writtenAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(Object value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Stats {
+        private final String name;
+        private final int size;
+        private final long maxSize;
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long refreshes;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dev.dsa.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * CacheManager for {@link BoundedCache} instances configured per cache name.
+ * Unknown cache names fall back to the default spec.
+ */
+public class BoundedCacheManager extends AbstractCacheManager implements DisposableBean {
+
+    private final Map<String, CacheSpec> specs;
+    private final CacheSpec defaultSpec;
+    private final ExecutorService refreshExecutor;
+
+    public BoundedCacheManager(Map<String, CacheSpec> specs, CacheSpec defaultSpec, int refreshThreads) {
+        this.specs = specs;
+        this.defaultSpec = defaultSpec;
+        this.refreshExecutor = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> caches = new ArrayList<>();
+        specs.forEach((name, spec) -> caches.add(createCache(name, spec)));
+        return caches;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name, defaultSpec);
+    }
+
+    public List<BoundedCache.Stats> getStats() {
+        List<BoundedCache.Stats> stats = new ArrayList<>();
+        for (String name : getCacheNames()) {
+            if (getCache(name) instanceof BoundedCache cache) {
+                stats.add(cache.getStats());
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private BoundedCache createCache(String name, CacheSpec spec) {
+        return new BoundedCache(name, spec.getMaxSize(), spec.getTtl(), spec.getRefreshAfter(), refreshExecutor);
+    }
+}
@@ -0,0 +1,20 @@
+package dev.dsa.cache;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Size and expiry settings for a single cache (app.cache.specs.&lt;name&gt;.*)
+ */
+@Data
+public class CacheSpec {
+
+    private long maxSize = 1000;
+
+    // Entries older than this are reloaded on next access
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // Entries older than this are served while being reloaded in the background (null = never)
+    private Duration refreshAfter;
+}
@@ -0,0 +1,9 @@
+package dev.dsa.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AuditPartitionProperties.class)
+public class AuditConfig {
+}
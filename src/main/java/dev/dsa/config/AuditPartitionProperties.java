@@ -0,0 +1,33 @@
+package dev.dsa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.audit.partitioning")
+public class AuditPartitionProperties {
+
+    // Monthly partitions on PostgreSQL, monthly rolled tables on H2; off = a single audit_logs table
+    private boolean enabled = true;
+
+    // Months kept online, including the current one
+    private int retentionMonths = 12;
+
+    // What happens to partitions older than the retention window
+    private RetentionAction retentionAction = RetentionAction.ARCHIVE;
+
+    // Expired partitions are written here as gzipped NDJSON before they are dropped
+    private String archiveDirectory = "audit-archive";
+
+    // PostgreSQL: partitions created ahead of the current month, so inserts never hit the default partition
+    private int precreateMonths = 2;
+
+    private Duration maintenanceInterval = Duration.ofHours(1);
+
+    public enum RetentionAction {
+        ARCHIVE,
+        DROP
+    }
+}
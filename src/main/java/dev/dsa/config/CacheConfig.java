@@ -1,17 +1,18 @@
 package dev.dsa.config;
 
-import org.springframework.cache.CacheManager;
+import dev.dsa.cache.BoundedCacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("roles", "permissions", "users");
+    public BoundedCacheManager cacheManager(CacheProperties properties) {
+        return new BoundedCacheManager(properties.getSpecs(), properties.getDefaults(), properties.getRefreshThreads());
     }
 }
@@ -0,0 +1,20 @@
+package dev.dsa.config;
+
+import dev.dsa.cache.CacheSpec;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    // Used for caches without their own entry in specs
+    private CacheSpec defaults = new CacheSpec();
+
+    private Map<String, CacheSpec> specs = new LinkedHashMap<>();
+
+    private int refreshThreads = 2;
+}
@@ -6,6 +6,7 @@ import dev.dsa.entity.Role;
 import dev.dsa.entity.RoleProfile;
 import dev.dsa.entity.User;
 import dev.dsa.repository.*;
+import dev.dsa.service.RbacService;
 import dev.dsa.service.UserProfileService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +29,7 @@ public class DataInitializer implements CommandLineRunner {
     private final CustomerRepository customerRepository;
     private final RoleProfileRepository roleProfileRepository;
     private final UserProfileService userProfileService;
+    private final RbacService rbacService;
     private final PasswordEncoder passwordEncoder;
 
     @Override
@@ -74,6 +76,7 @@ public class DataInitializer implements CommandLineRunner {
         roleRepository.save(adminRole);
 
         log.info("Created {} roles", roleRepository.count());
+        rbacService.rebuildRoleClosure();
 
         // Create Role Profiles (combining multiple roles)
         RoleProfile salesManagerProfile = createRoleProfile(
@@ -0,0 +1,40 @@
+package dev.dsa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.login-rate-limit")
+public class LoginRateLimitProperties {
+
+    // Off = every login reaches the password check and every failure is audited individually
+    private boolean enabled = true;
+
+    // Failures are counted over this sliding window
+    private Duration window = Duration.ofMinutes(5);
+
+    // Sub-windows the window slides by; more slots slide more smoothly but cost memory
+    private int slots = 10;
+
+    // Failed logins within the window after which further attempts are rejected
+    private int maxFailuresPerUsername = 5;
+    private int maxFailuresPerIp = 20;
+
+    // Counter table size per slot (rounded up to a power of two) and hash rows; memory per key type is
+    // slots * depth * width * 4 bytes. Colliding keys can only over-count, never let an attempt through;
+    // keep width well above the distinct usernames/addresses expected to fail within one slot
+    private int width = 16384;
+    private int depth = 4;
+
+    // Past max-load-factor * width failures within the window (e.g. a spray of distinct usernames), collisions
+    // would lock out unrelated users; that counter's limit is then not enforced until the load drops
+    private double maxLoadFactor = 1.0;
+
+    // Rejected attempts are audited as one summary row per username and address every interval
+    private Duration summaryInterval = Duration.ofMinutes(1);
+
+    // Distinct username/address pairs summarized per interval; the rest are audited as a single row
+    private int maxSummaryEntries = 1000;
+}
@@ -0,0 +1,51 @@
+package dev.dsa.config;
+
+import dev.dsa.metrics.HibernateLoadListener;
+import dev.dsa.metrics.RequestMetricsFilter;
+import dev.dsa.metrics.RequestMetricsRegistry;
+import dev.dsa.metrics.StatementCountingDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(MetricsProperties.class)
+public class MetricsConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(RequestMetricsRegistry registry) {
+        // Ahead of the security filter chain so authentication queries are counted too
+        FilterRegistrationBean<RequestMetricsFilter> registration =
+            new FilterRegistrationBean<>(new RequestMetricsFilter(registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public HibernateLoadListener hibernateLoadListener(EntityManagerFactory entityManagerFactory) {
+        return new HibernateLoadListener(entityManagerFactory);
+    }
+}
@@ -0,0 +1,27 @@
+package dev.dsa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.metrics")
+public class MetricsProperties {
+
+    // Wraps the DataSource and registers the request filter and Hibernate listeners
+    private boolean enabled = true;
+
+    // Requests at least this slow are kept in the slow request ring
+    private Duration slowRequestThreshold = Duration.ofMillis(500);
+
+    private int slowRequestCapacity = 200;
+
+    // A request is flagged as a possible N+1 above either threshold
+    private int statementThreshold = 20;
+
+    private int repeatedStatementThreshold = 10;
+
+    // Upper bound on distinct handlers tracked, so unmapped URLs cannot grow the registry
+    private int maxEndpoints = 500;
+}
@@ -0,0 +1,19 @@
+package dev.dsa.config;
+
+import dev.dsa.service.CountStrategy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.pagination")
+public class PaginationProperties {
+
+    // Used for listings without their own entry in count-strategies
+    private CountStrategy defaultCountStrategy = CountStrategy.EXACT;
+
+    // Per listing, e.g. app.pagination.count-strategies.accounts=cached
+    private Map<String, CountStrategy> countStrategies = new LinkedHashMap<>();
+}
@@ -1,15 +1,51 @@
 package dev.dsa.config;
 
+import dev.dsa.security.BoundedPasswordEncoder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
 public class PasswordEncoderConfig {
 
+    /**
+     * Hashes with the configured algorithm ({id}-prefixed) and verifies any of them, on the bounded hashing pool.
+     * DaoAuthenticationProvider re-hashes a password on login when upgradeEncoding says its stored hash is outdated.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        return new BoundedPasswordEncoder(delegatingEncoder(properties), properties.getHashingThreads(),
+            properties.getHashingQueueCapacity(), properties.getHashingTimeout());
+    }
+
+    /**
+     * The algorithm-selecting encoder without the hashing pool (also used by the benchmarks)
+     */
+    public static PasswordEncoder delegatingEncoder(PasswordHashingProperties properties) {
+        PasswordHashingProperties.Bcrypt bcrypt = properties.getBcrypt();
+        PasswordHashingProperties.Argon2 argon2 = properties.getArgon2();
+        PasswordHashingProperties.Pbkdf2 pbkdf2 = properties.getPbkdf2();
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        BCryptPasswordEncoder bcryptEncoder = new BCryptPasswordEncoder(bcrypt.getStrength());
+        encoders.put(PasswordHashingProperties.Algorithm.BCRYPT.getId(), bcryptEncoder);
+        encoders.put(PasswordHashingProperties.Algorithm.ARGON2.getId(), new Argon2PasswordEncoder(
+            argon2.getSaltLength(), argon2.getHashLength(), argon2.getParallelism(), argon2.getMemory(), argon2.getIterations()));
+        encoders.put(PasswordHashingProperties.Algorithm.PBKDF2.getId(), new Pbkdf2PasswordEncoder(
+            "", pbkdf2.getSaltLength(), pbkdf2.getIterations(), Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(properties.getAlgorithm().getId(), encoders);
+        // Hashes stored before the {id} prefix was introduced are plain bcrypt; they verify and are upgraded on login
+        encoder.setDefaultPasswordEncoderForMatches(bcryptEncoder);
+        return encoder;
     }
 }
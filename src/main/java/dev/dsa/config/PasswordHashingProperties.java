@@ -0,0 +1,69 @@
+package dev.dsa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.password")
+public class PasswordHashingProperties {
+
+    // Algorithm for new hashes. Stored hashes of another algorithm are re-hashed on login, bcrypt and Argon2
+    // hashes also when stored at a lower cost
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    private Bcrypt bcrypt = new Bcrypt();
+
+    private Argon2 argon2 = new Argon2();
+
+    private Pbkdf2 pbkdf2 = new Pbkdf2();
+
+    // Threads that hash and verify passwords; at most this many cores are spent on hashing at once
+    private int hashingThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    // Hashes waiting for a thread; beyond this a login is rejected instead of queued
+    private int hashingQueueCapacity = 200;
+
+    // How long a login waits for its hash before failing
+    private Duration hashingTimeout = Duration.ofSeconds(5);
+
+    public enum Algorithm {
+        BCRYPT("bcrypt"),
+        ARGON2("argon2"),
+        PBKDF2("pbkdf2");
+
+        // Prefix of stored hashes, e.g. {bcrypt}$2a$10$...
+        private final String id;
+
+        Algorithm(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    @Data
+    public static class Bcrypt {
+        // log2 of the number of rounds, 4-31
+        private int strength = 10;
+    }
+
+    @Data
+    public static class Argon2 {
+        private int saltLength = 16;
+        private int hashLength = 32;
+        private int parallelism = 1;
+        // Memory cost in KiB
+        private int memory = 19456;
+        private int iterations = 2;
+    }
+
+    @Data
+    public static class Pbkdf2 {
+        private int saltLength = 16;
+        private int iterations = 310000;
+    }
+}
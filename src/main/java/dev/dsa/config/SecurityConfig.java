@@ -1,36 +1,46 @@
 package dev.dsa.config;
 
+import dev.dsa.security.LoginRateLimitFilter;
+import dev.dsa.security.LoginRateLimiter;
+import dev.dsa.security.PermissionAuthenticationProvider;
+import dev.dsa.security.PermissionAuthorizationManager;
+import dev.dsa.security.PermissionMethodSecurityExpressionHandler;
+import dev.dsa.security.RbacUserDetails;
+import dev.dsa.security.UserDetailsCache;
 import dev.dsa.service.AuditService;
 import dev.dsa.service.CustomUserDetailsService;
-import dev.dsa.service.UserService;
-import jakarta.servlet.http.HttpServletRequest;
+import dev.dsa.service.LastLoginTracker;
+import dev.dsa.util.ClientIpResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true, securedEnabled = true)
+@EnableConfigurationProperties(LoginRateLimitProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final AuditService auditService;
-    private final UserService userService;
+    private final LastLoginTracker lastLoginTracker;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final LoginRateLimiter loginRateLimiter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -38,11 +48,13 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/h2-console/**").permitAll()
                 .requestMatchers("/login", "/logout").permitAll()
-                .requestMatchers("/admin/**").hasRole("ADMIN")
-                .requestMatchers("/customers/**").hasAnyAuthority("CUSTOMER_READ", "CUSTOMER_WRITE")
-                .requestMatchers("/accounts/**").hasAnyAuthority("ACCOUNT_READ", "ACCOUNT_WRITE")
+                .requestMatchers("/admin/**").access(PermissionAuthorizationManager.hasRole("ADMIN"))
+                .requestMatchers("/customers/**").access(PermissionAuthorizationManager.hasAnyAuthority("CUSTOMER_READ", "CUSTOMER_WRITE"))
+                .requestMatchers("/accounts/**").access(PermissionAuthorizationManager.hasAnyAuthority("ACCOUNT_READ", "ACCOUNT_WRITE"))
                 .anyRequest().authenticated()
             )
+            // Not a bean, so it only runs inside the security chain (after CSRF) and is not also registered as a servlet filter
+            .addFilterBefore(new LoginRateLimitFilter(loginRateLimiter), UsernamePasswordAuthenticationFilter.class)
             .formLogin(form -> form
                 .loginPage("/login")
                 .defaultSuccessUrl("/", true)
@@ -58,7 +70,7 @@ public class SecurityConfig {
                 .addLogoutHandler((request, response, authentication) -> {
                     if (authentication != null) {
                         String username = authentication.getName();
-                        String ipAddress = getClientIpAddress(request);
+                        String ipAddress = ClientIpResolver.resolve(request);
                         auditService.logLogout(username, ipAddress);
                     }
                 })
@@ -82,10 +94,12 @@ public class SecurityConfig {
     public AuthenticationSuccessHandler authenticationSuccessHandler() {
         return (request, response, authentication) -> {
             String username = authentication.getName();
-            String ipAddress = getClientIpAddress(request);
+            String ipAddress = ClientIpResolver.resolve(request);
 
             auditService.logLoginSuccess(username, ipAddress);
-            userService.updateLastLogin(username);
+            if (authentication.getPrincipal() instanceof RbacUserDetails user) {
+                lastLoginTracker.recordLogin(user.getUserId());
+            }
 
             response.sendRedirect("/");
         };
@@ -95,8 +109,10 @@ public class SecurityConfig {
     public AuthenticationFailureHandler authenticationFailureHandler() {
         return (request, response, exception) -> {
             String username = request.getParameter("username");
-            String ipAddress = getClientIpAddress(request);
+            String ipAddress = ClientIpResolver.resolve(request);
 
+            // Counted toward the rate limit; once over it, attempts are rejected by LoginRateLimitFilter and audited in summaries
+            loginRateLimiter.recordFailure(username, ipAddress);
             auditService.logLoginFailure(username, ipAddress, exception.getMessage());
 
             response.sendRedirect("/login?error");
@@ -105,28 +121,25 @@ public class SecurityConfig {
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new PermissionAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        // Re-hash passwords whose stored hash uses another algorithm or a lower cost
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        authProvider.setUserCache(userDetailsCache);
         return authProvider;
     }
 
+    /**
+     * Evaluate @PreAuthorize authority checks against the permission bitset
+     */
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new PermissionMethodSecurityExpressionHandler();
     }
 
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-
-        return request.getRemoteAddr();
+    @Bean
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
+        return config.getAuthenticationManager();
     }
 }
@@ -1,25 +1,39 @@
 package dev.dsa.controller;
 
+import dev.dsa.dto.AccountImportResult;
+import dev.dsa.dto.AccountListRow;
 import dev.dsa.dto.AccountSearchRequest;
 import dev.dsa.dto.AccountUpdateRequest;
+import dev.dsa.dto.KeysetPage;
 import dev.dsa.entity.Account;
 import dev.dsa.entity.Customer;
+import dev.dsa.repository.AccountFetchPlan;
+import dev.dsa.service.AccountExportService;
+import dev.dsa.service.AccountImportService;
 import dev.dsa.service.AccountService;
 import dev.dsa.service.CustomerService;
+import dev.dsa.service.ExportFormat;
 import dev.dsa.service.UserProfileService;
 import dev.dsa.util.PaginationUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Controller
@@ -29,30 +43,36 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final AccountExportService accountExportService;
+    private final AccountImportService accountImportService;
     private final CustomerService customerService;
     private final UserProfileService userProfileService;
 
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ACCOUNT_READ', 'ACCOUNT_WRITE')")
     public String listAccounts(@ModelAttribute AccountSearchRequest searchRequest,
-                               @RequestParam(defaultValue = "0") int page,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) String sort,
                                @RequestParam(required = false) Integer size,
+                               @RequestParam(defaultValue = "false") boolean count,
                                Model model) {
 
         // Get user's preferred page size
         int userPageSize = userProfileService.getCurrentUserPageSize();
 
-        // Create pageable (developer can override size here if needed - pass null to use user preference)
-        Pageable pageable = PaginationUtil.createPageableWithUserPreference(page, userPageSize, size);
+        // Resolve page size (developer can override size here if needed - pass null to use user preference)
+        int pageSize = PaginationUtil.createPageableWithUserPreference(0, userPageSize, size).getPageSize();
 
-        // Search with pagination
-        Page<Account> accountPage = accountService.searchAccountsWithPagination(searchRequest, pageable);
+        // Keyset search: navigation follows cursors, so deep pages cost the same as the first
+        KeysetPage<AccountListRow> accountPage = accountService.searchAccountsWithKeyset(searchRequest, cursor, sort, pageSize, count);
 
         model.addAttribute("accounts", accountPage.getContent());
-        model.addAttribute("page", accountPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", accountPage.getTotalPages());
-        model.addAttribute("totalElements", accountPage.getTotalElements());
+        model.addAttribute("keysetPage", accountPage);
+        model.addAttribute("firstUrl", pageUrl(null));
+        model.addAttribute("nextUrl", accountPage.getNextCursor() != null ? pageUrl(accountPage.getNextCursor()) : null);
+        model.addAttribute("previousUrl", accountPage.getPreviousCursor() != null ? pageUrl(accountPage.getPreviousCursor()) : null);
+        model.addAttribute("countUrl", ServletUriComponentsBuilder.fromCurrentRequest()
+            .replaceQueryParam("count", true).build().toUriString());
         model.addAttribute("searchRequest", searchRequest != null ? searchRequest : new AccountSearchRequest());
         model.addAttribute("statuses", Account.AccountStatus.values());
         return "accounts/list";
@@ -61,10 +81,80 @@ public class AccountController {
     @GetMapping("/search")
     @PreAuthorize("hasAnyAuthority('ACCOUNT_READ', 'ACCOUNT_WRITE')")
     public String searchAccounts(@ModelAttribute AccountSearchRequest searchRequest,
-                                 @RequestParam(defaultValue = "0") int page,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(required = false) String sort,
                                  @RequestParam(required = false) Integer size,
+                                 @RequestParam(defaultValue = "false") boolean count,
                                  Model model) {
-        return listAccounts(searchRequest, page, size, model);
+        return listAccounts(searchRequest, cursor, sort, size, count, model);
+    }
+
+    /**
+     * Stream every account matching the search filters as CSV or NDJSON, written directly to the response
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyAuthority('ACCOUNT_READ', 'ACCOUNT_WRITE')")
+    public void exportAccounts(@ModelAttribute AccountSearchRequest searchRequest,
+                               @RequestParam(defaultValue = "csv") String format,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        String filename = "accounts-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+            + "." + exportFormat.getExtension();
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(filename).build().toString());
+        accountExportService.exportAccounts(searchRequest, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/import")
+    @PreAuthorize("hasAuthority('ACCOUNT_WRITE')")
+    public String importForm() {
+        return "accounts/import";
+    }
+
+    @PostMapping("/import")
+    @PreAuthorize("hasAuthority('ACCOUNT_WRITE')")
+    public String importAccounts(@RequestParam MultipartFile file,
+                                 @RequestParam(required = false) String format,
+                                 Model model) throws IOException {
+        model.addAttribute("result", runImport(file, format));
+        return "accounts/import";
+    }
+
+    /**
+     * Same import for API clients (Accept: application/json), returning the summary as JSON
+     */
+    @PostMapping(value = "/import", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ACCOUNT_WRITE')")
+    @ResponseBody
+    public AccountImportResult importAccountsJson(@RequestParam MultipartFile file,
+                                                  @RequestParam(required = false) String format) throws IOException {
+        return runImport(file, format);
+    }
+
+    private AccountImportResult runImport(MultipartFile file, String format) throws IOException {
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload";
+        // Without an explicit format, .ndjson/.jsonl files are NDJSON and anything else is CSV
+        ExportFormat importFormat = format != null ? ExportFormat.from(format)
+            : filename.endsWith(".ndjson") || filename.endsWith(".jsonl") ? ExportFormat.NDJSON
+            : ExportFormat.CSV;
+        return accountImportService.importAccounts(file.getInputStream(), filename, importFormat);
+    }
+
+    /**
+     * Current request URL (keeping the search filters) positioned at the given cursor
+     */
+    private String pageUrl(String cursor) {
+        ServletUriComponentsBuilder builder = ServletUriComponentsBuilder.fromCurrentRequest();
+        builder.replaceQueryParam("page");
+        if (cursor != null) {
+            builder.replaceQueryParam("cursor", cursor);
+        } else {
+            builder.replaceQueryParam("cursor");
+        }
+        return builder.build().toUriString();
     }
 
     @GetMapping("/customer/{customerId}")
@@ -73,7 +163,7 @@ public class AccountController {
         Customer customer = customerService.getCustomerById(customerId)
             .orElseThrow(() -> new RuntimeException("Customer not found"));
         model.addAttribute("customer", customer);
-        model.addAttribute("accounts", accountService.getAccountsByCustomerId(customerId));
+        model.addAttribute("accounts", accountService.getAccountRowsByCustomerId(customerId));
         return "accounts/customer-accounts";
     }
 
@@ -115,7 +205,7 @@ public class AccountController {
     @GetMapping("/{id}/edit")
     @PreAuthorize("hasAuthority('ACCOUNT_WRITE')")
     public String editAccountForm(@PathVariable Long id, Model model) {
-        Account account = accountService.getAccountById(id)
+        Account account = accountService.getAccountById(id, AccountFetchPlan.WITH_CUSTOMER)
             .orElseThrow(() -> new RuntimeException("Account not found"));
 
         // Create DTO from existing account
@@ -139,7 +229,7 @@ public class AccountController {
                                Model model,
                                RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
-            Account account = accountService.getAccountById(id).orElseThrow();
+            Account account = accountService.getAccountById(id, AccountFetchPlan.WITH_CUSTOMER).orElseThrow();
             model.addAttribute("account", account);
             model.addAttribute("statuses", Account.AccountStatus.values());
             return "accounts/edit";
@@ -161,7 +251,7 @@ public class AccountController {
             return "redirect:/accounts/customer/" + existingAccount.getCustomer().getId();
         } catch (Exception e) {
             log.error("Error updating account", e);
-            Account account = accountService.getAccountById(id).orElse(null);
+            Account account = accountService.getAccountById(id, AccountFetchPlan.WITH_CUSTOMER).orElse(null);
             if (account != null) {
                 model.addAttribute("account", account);
                 model.addAttribute("statuses", Account.AccountStatus.values());
@@ -192,7 +282,7 @@ public class AccountController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('ACCOUNT_READ', 'ACCOUNT_WRITE')")
     public String viewAccount(@PathVariable Long id, Model model) {
-        Account account = accountService.getAccountById(id)
+        Account account = accountService.getAccountById(id, AccountFetchPlan.WITH_CUSTOMER)
             .orElseThrow(() -> new RuntimeException("Account not found"));
         model.addAttribute("account", account);
         return "accounts/view";
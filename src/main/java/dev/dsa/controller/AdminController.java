@@ -1,19 +1,36 @@
 package dev.dsa.controller;
 
+import dev.dsa.cache.BoundedCache;
+import dev.dsa.cache.BoundedCacheManager;
+import dev.dsa.dto.AuditHistoryEntry;
+import dev.dsa.dto.AuditLogSearchRequest;
+import dev.dsa.dto.KeysetPage;
+import dev.dsa.dto.PermissionHolders;
+import dev.dsa.entity.AuditLog;
 import dev.dsa.entity.Permission;
 import dev.dsa.entity.Role;
 import dev.dsa.entity.User;
+import dev.dsa.metrics.RequestMetricsRegistry;
+import dev.dsa.security.BoundedPasswordEncoder;
+import dev.dsa.security.LoginRateLimiter;
+import dev.dsa.service.AsyncAuditWriter;
+import dev.dsa.service.AuditPartitionManager;
 import dev.dsa.service.AuditService;
 import dev.dsa.service.RbacService;
 import dev.dsa.service.UserService;
+import dev.dsa.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+
 @Controller
 @RequestMapping("/admin")
 @RequiredArgsConstructor
@@ -21,9 +38,15 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
+    private static final int AUDIT_PAGE_SIZE = 50;
+
     private final UserService userService;
     private final RbacService rbacService;
     private final AuditService auditService;
+    private final BoundedCacheManager cacheManager;
+    private final RequestMetricsRegistry requestMetricsRegistry;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
 
     // User Management
     @GetMapping("/users")
@@ -59,7 +82,7 @@ public class AdminController {
 
     @GetMapping("/users/{id}/edit")
     public String editUserForm(@PathVariable Long id, Model model) {
-        User user = userService.getUserById(id)
+        User user = userService.getUserWithRoles(id)
             .orElseThrow(() -> new RuntimeException("User not found"));
         model.addAttribute("user", user);
         model.addAttribute("allRoles", rbacService.getAllRoles());
@@ -223,20 +246,116 @@ public class AdminController {
         return "redirect:/admin/permissions";
     }
 
+    /**
+     * Users effectively holding a permission (access reviews), a page at a time in username order
+     */
+    @GetMapping("/permissions/{name}/holders")
+    @ResponseBody
+    public PermissionHolders permissionHolders(@PathVariable String name,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "100") int size) {
+        Page<String> holders = rbacService.getPermissionHolders(name, PaginationUtil.createPageable(page, size));
+        return PermissionHolders.builder()
+            .permission(name)
+            .page(holders.getNumber())
+            .size(holders.getSize())
+            .totalElements(holders.getTotalElements())
+            .totalPages(holders.getTotalPages())
+            .usernames(holders.getContent())
+            .build();
+    }
+
+    // Cache Statistics
+    @GetMapping("/caches")
+    @ResponseBody
+    public List<BoundedCache.Stats> cacheStats() {
+        return cacheManager.getStats();
+    }
+
+    // Request Metrics
+    @GetMapping("/metrics/requests")
+    @ResponseBody
+    public List<RequestMetricsRegistry.EndpointStats> requestMetrics() {
+        return requestMetricsRegistry.getEndpointStats();
+    }
+
+    @GetMapping("/metrics/slow-requests")
+    @ResponseBody
+    public List<RequestMetricsRegistry.SlowRequest> slowRequests() {
+        return requestMetricsRegistry.getSlowRequests();
+    }
+
+    // Password Hashing
+    @GetMapping("/security/password-hashing")
+    @ResponseBody
+    public BoundedPasswordEncoder.Stats passwordHashingStats() {
+        return passwordEncoder.getStats();
+    }
+
+    // Login Rate Limit
+    @GetMapping("/security/login-rate-limit")
+    @ResponseBody
+    public LoginRateLimiter.Stats loginRateLimitStats() {
+        return loginRateLimiter.getStats();
+    }
+
     // Audit Logs
     @GetMapping("/audit")
-    public String auditLogs(Model model) {
-        model.addAttribute("logs", auditService.getRecentLogs(100));
+    public String auditLogs(@ModelAttribute AuditLogSearchRequest searchRequest,
+                            @RequestParam(required = false) String cursor,
+                            @RequestParam(required = false) Integer size,
+                            Model model) {
+        int pageSize = PaginationUtil.createPageable(0, size != null ? size : AUDIT_PAGE_SIZE).getPageSize();
+        KeysetPage<AuditLog> logPage = auditService.searchLogs(searchRequest, cursor, pageSize);
+        model.addAttribute("logs", logPage.getContent());
+        addKeysetNavigation(model, logPage);
+        model.addAttribute("searchRequest", searchRequest != null ? searchRequest : new AuditLogSearchRequest());
         return "admin/audit";
     }
 
+    @GetMapping("/audit/pipeline")
+    @ResponseBody
+    public AsyncAuditWriter.Stats auditPipelineStats() {
+        return auditService.getPipelineStats();
+    }
+
+    @GetMapping("/audit/partitions")
+    @ResponseBody
+    public AuditPartitionManager.Status auditPartitionStatus() {
+        return auditService.getPartitionStatus();
+    }
+
     @GetMapping("/audit/entity")
     public String entityAudit(@RequestParam String entityType,
                              @RequestParam Long entityId,
+                             @RequestParam(required = false) String cursor,
+                             @RequestParam(required = false) Integer size,
                              Model model) {
+        int pageSize = PaginationUtil.createPageable(0, size != null ? size : AUDIT_PAGE_SIZE).getPageSize();
+        KeysetPage<AuditHistoryEntry> historyPage = auditService.getEntityHistory(entityType, entityId, cursor, pageSize);
         model.addAttribute("entityType", entityType);
         model.addAttribute("entityId", entityId);
-        model.addAttribute("logs", auditService.getLogsByEntity(entityType, entityId));
+        model.addAttribute("entries", historyPage.getContent());
+        addKeysetNavigation(model, historyPage);
         return "admin/entity-audit";
     }
+
+    // Audit pages are never counted: totals over millions of rows cost more than the page itself
+    private void addKeysetNavigation(Model model, KeysetPage<?> page) {
+        model.addAttribute("keysetPage", page);
+        model.addAttribute("firstUrl", pageUrl(null));
+        model.addAttribute("nextUrl", page.getNextCursor() != null ? pageUrl(page.getNextCursor()) : null);
+        model.addAttribute("previousUrl", page.getPreviousCursor() != null ? pageUrl(page.getPreviousCursor()) : null);
+        model.addAttribute("countUrl", null);
+    }
+
+    private String pageUrl(String cursor) {
+        ServletUriComponentsBuilder builder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (cursor != null) {
+            builder.replaceQueryParam("cursor", cursor);
+        } else {
+            builder.replaceQueryParam("cursor");
+        }
+        return builder.build().toUriString();
+    }
 }
@@ -9,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -37,13 +38,16 @@ public class CustomerController {
         Pageable pageable = PaginationUtil.createPageableWithUserPreference(page, userPageSize, size);
 
         // Get customers with pagination
-        Page<Customer> customerPage = customerService.getAllCustomersWithPagination(pageable);
+        Slice<Customer> customerPage = customerService.getAllCustomersWithPagination(pageable);
 
         model.addAttribute("customers", customerPage.getContent());
         model.addAttribute("page", customerPage);
         model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", customerPage.getTotalPages());
-        model.addAttribute("totalElements", customerPage.getTotalElements());
+        // Totals are only known when the listing's count strategy is not NONE
+        if (customerPage instanceof Page<Customer> countedPage) {
+            model.addAttribute("totalPages", countedPage.getTotalPages());
+            model.addAttribute("totalElements", countedPage.getTotalElements());
+        }
         return "customers/list";
     }
 
@@ -0,0 +1,33 @@
+package dev.dsa.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk account import
+ */
+@Getter
+@Builder
+public class AccountImportResult {
+
+    private final String filename;
+    private final long totalRows;
+    private final long imported;
+    private final long rejected;
+    private final int batches;
+    private final int failedBatches;
+    private final long durationMs;
+
+    // Only the first app.import.max-reported-errors rejections are listed
+    private final List<RowError> errors;
+
+    @Getter
+    @Builder
+    public static class RowError {
+        private final long lineNumber;
+        private final String accountRef;
+        private final String message;
+    }
+}
@@ -0,0 +1,44 @@
+package dev.dsa.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One account record from a bulk import file (CSV header or NDJSON property names match the field names)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountImportRow {
+
+    @NotBlank(message = "Account reference is required")
+    @Size(max = 50, message = "Account reference must be at most 50 characters")
+    private String accountRef;
+
+    @NotBlank(message = "Account name is required")
+    @Size(max = 100, message = "Account name must be at most 100 characters")
+    private String accountName;
+
+    @NotBlank(message = "Currency is required")
+    @Size(max = 3, message = "Currency must be at most 3 characters")
+    private String currency;
+
+    // Defaults to ACTIVE when blank
+    @Pattern(regexp = "(?i)ACTIVE|INACTIVE|CLOSED|SUSPENDED", message = "Status must be ACTIVE, INACTIVE, CLOSED or SUSPENDED")
+    private String status;
+
+    @NotNull(message = "Customer ID is required")
+    private Long customerId;
+
+    // Line in the source file, for error reporting
+    @JsonIgnore
+    private long lineNumber;
+}
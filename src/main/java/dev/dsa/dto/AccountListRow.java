@@ -0,0 +1,26 @@
+package dev.dsa.dto;
+
+import dev.dsa.entity.Account;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an account for list views: exactly the columns the list pages
+ * render, including the customer's name, selected in the same statement as the page.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountListRow {
+
+    private final Long id;
+    private final String accountRef;
+    private final String accountName;
+    private final String currency;
+    private final Account.AccountStatus status;
+    private final String createdBy;
+    private final LocalDateTime createdAt;
+    private final Long customerId;
+    private final String customerName;
+}
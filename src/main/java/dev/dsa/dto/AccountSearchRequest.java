@@ -49,6 +49,34 @@ public class AccountSearchRequest {
                updatedAtFrom == null && updatedAtTo == null;
     }
 
+    /**
+     * Copy that compares equal for searches matching the same rows (text filters are
+     * case-insensitive and blank ones are ignored). Used as a cache key for page counts.
+     */
+    public AccountSearchRequest normalized() {
+        return AccountSearchRequest.builder()
+            .accountRef(normalizeText(accountRef))
+            .accountName(normalizeText(accountName))
+            .currency(normalizeText(currency))
+            .customerName(normalizeText(customerName))
+            .createdBy(normalizeText(createdBy))
+            .updatedBy(normalizeText(updatedBy))
+            .status(status)
+            .customerIdFrom(customerIdFrom)
+            .customerIdTo(customerIdTo)
+            .accountIdFrom(accountIdFrom)
+            .accountIdTo(accountIdTo)
+            .createdAtFrom(createdAtFrom)
+            .createdAtTo(createdAtTo)
+            .updatedAtFrom(updatedAtFrom)
+            .updatedAtTo(updatedAtTo)
+            .build();
+    }
+
+    private String normalizeText(String str) {
+        return isBlankOrNull(str) ? null : str.toLowerCase();
+    }
+
     private boolean isBlankOrNull(String str) {
         return str == null || str.trim().isEmpty();
     }
@@ -0,0 +1,39 @@
+package dev.dsa.dto;
+
+import dev.dsa.entity.AuditLog;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One audit event of an entity, with the entity's full state before and after it, rebuilt from the
+ * nearest CREATE or checkpoint change set
+ */
+@Getter
+@Builder
+public class AuditHistoryEntry {
+
+    private final AuditLog log;
+
+    // Empty for events logged as old/new value snapshots rather than as a change set
+    private final List<FieldState> fields;
+
+    // False when the CREATE or checkpoint to rebuild the state from is no longer online; fields then
+    // holds only the changed fields
+    private final boolean stateKnown;
+
+    public boolean isStructured() {
+        return log.getChanges() != null;
+    }
+
+    @Getter
+    @Builder
+    public static class FieldState {
+        private final String field;
+        // Null when the value was null
+        private final String before;
+        private final String after;
+        private final boolean changed;
+    }
+}
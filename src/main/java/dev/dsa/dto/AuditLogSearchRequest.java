@@ -0,0 +1,40 @@
+package dev.dsa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for browsing the audit log. Blank fields are not filtered on; the time range is half-open: [from, to).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogSearchRequest {
+
+    private String username;
+    private String action;
+
+    // Entity filter; entityId is ignored without entityType
+    private String entityType;
+    private Long entityId;
+
+    // The value format of <input type="datetime-local">, so th:field renders and binds it as the browser expects
+    @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm", fallbackPatterns = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+    @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm", fallbackPatterns = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to;
+
+    public boolean isEmpty() {
+        return isBlankOrNull(username) && isBlankOrNull(action) && isBlankOrNull(entityType) && from == null && to == null;
+    }
+
+    private static boolean isBlankOrNull(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,37 @@
+package dev.dsa.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated query.
+ *
+ * Navigation uses the opaque next/previous cursors rather than page numbers. The total
+ * is only populated when the caller asked for it, since counting is often more expensive
+ * than fetching the page itself.
+ */
+@Getter
+@Builder
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String sortField;
+    private final boolean hasNext;
+    private final boolean hasPrevious;
+    private final String nextCursor;
+    private final String previousCursor;
+
+    // Null when no count was requested
+    private final Long totalElements;
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public boolean isTotalKnown() {
+        return totalElements != null;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.dsa.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of the users effectively holding a permission
+ */
+@Getter
+@Builder
+public class PermissionHolders {
+
+    private final String permission;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+    private final List<String> usernames;
+}
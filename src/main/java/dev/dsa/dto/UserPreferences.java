@@ -0,0 +1,51 @@
+package dev.dsa.dto;
+
+import dev.dsa.entity.UserProfile;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of a user's display preferences, carried on the authenticated principal
+ * so requests can read them without loading the UserProfile
+ */
+@Getter
+@Builder
+public class UserPreferences implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final UserPreferences DEFAULTS = UserPreferences.builder()
+        .pageSize(11)
+        .timezone("UTC")
+        .language("en")
+        .dateFormat("yyyy-MM-dd")
+        .timeFormat("HH:mm:ss")
+        .theme("light")
+        .build();
+
+    private final int pageSize;
+    private final String timezone;
+    private final String language;
+    private final String dateFormat;
+    private final String timeFormat;
+    private final String theme;
+
+    /**
+     * Snapshot of a profile, with defaults for unset values; DEFAULTS when there is no profile
+     */
+    public static UserPreferences of(UserProfile profile) {
+        if (profile == null) {
+            return DEFAULTS;
+        }
+        return UserPreferences.builder()
+            .pageSize(profile.getPageSize() != null ? profile.getPageSize() : DEFAULTS.pageSize)
+            .timezone(profile.getTimezone() != null ? profile.getTimezone() : DEFAULTS.timezone)
+            .language(profile.getLanguage() != null ? profile.getLanguage() : DEFAULTS.language)
+            .dateFormat(profile.getDateFormat() != null ? profile.getDateFormat() : DEFAULTS.dateFormat)
+            .timeFormat(profile.getTimeFormat() != null ? profile.getTimeFormat() : DEFAULTS.timeFormat)
+            .theme(profile.getTheme() != null ? profile.getTheme() : DEFAULTS.theme)
+            .build();
+    }
+}
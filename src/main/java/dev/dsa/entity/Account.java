@@ -9,6 +9,7 @@ import lombok.*;
     @Index(name = "idx_account_ref", columnList = "accountRef"),
     @Index(name = "idx_customer_id", columnList = "customer_id")
 })
+@NamedEntityGraph(name = Account.GRAPH_WITH_CUSTOMER, attributeNodes = @NamedAttributeNode("customer"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,8 +17,13 @@ import lombok.*;
 @Builder
 public class Account extends Auditable {
 
+    public static final String ID_SEQUENCE = "accounts_seq";
+
+    // Entity graph loading the account together with its customer
+    public static final String GRAPH_WITH_CUSTOMER = "Account.withCustomer";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @NotBlank(message = "Account reference is required")
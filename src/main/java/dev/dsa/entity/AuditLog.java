@@ -6,10 +6,11 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+// Composite indexes match the keyset queries of AuditLogPartitionQueries: filter columns, then (timestamp, id)
 @Table(name = "audit_logs", indexes = {
-    @Index(name = "idx_entity_type", columnList = "entityType"),
-    @Index(name = "idx_username", columnList = "username"),
-    @Index(name = "idx_timestamp", columnList = "timestamp")
+    @Index(name = "idx_audit_entity_ts", columnList = "entity_type, entity_id, timestamp, id"),
+    @Index(name = "idx_audit_username_ts", columnList = "username, timestamp, id"),
+    @Index(name = "idx_timestamp", columnList = "timestamp, id")
 })
 @Getter
 @Setter
@@ -18,8 +19,10 @@ import java.time.LocalDateTime;
 @Builder
 public class AuditLog {
 
+    public static final String ID_SEQUENCE = "audit_logs_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @Column(nullable = false, length = 50)
@@ -43,6 +46,10 @@ public class AuditLog {
     @Column(name = "new_value", columnDefinition = "TEXT")
     private String newValue;
 
+    // Field-level change set (see AuditChangeSet); entity changes use this instead of old/new value snapshots
+    @Column(name = "changes", columnDefinition = "TEXT")
+    private String changes;
+
     @Column(name = "ip_address", length = 45)
     private String ipAddress;
 
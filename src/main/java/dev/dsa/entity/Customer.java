@@ -17,8 +17,10 @@ import java.util.List;
 @Builder
 public class Customer extends Auditable {
 
+    public static final String ID_SEQUENCE = "customers_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @NotBlank(message = "Customer name is required")
@@ -0,0 +1,36 @@
+package dev.dsa.entity;
+
+import java.util.Map;
+
+/**
+ * Entity ids come from one sequence per table (see {@link PooledSequence}), read through Hibernate's
+ * pooled-lo optimizer: each nextval reserves allocation-size ids starting at the returned value.
+ * Inserts therefore need one sequence call per block instead of an IDENTITY round trip per row,
+ * which lets Hibernate batch them.
+ *
+ * The allocation size is the Hibernate setting app.id.allocation-size (spring.jpa.properties.app.id.allocation-size),
+ * 50 by default; 1 reads one id per nextval. The optimizer is always pooled-lo: rows written with plain
+ * JDBC take their ids from SequenceIdAllocator, which relies on that scheme. The database sequences must
+ * be created with INCREMENT BY the allocation size; Hibernate refuses to start when they differ.
+ */
+public final class IdGeneration {
+
+    public static final String ALLOCATION_SIZE_SETTING = "app.id.allocation-size";
+
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private IdGeneration() {
+    }
+
+    /**
+     * Allocation size from the Hibernate settings
+     */
+    public static int allocationSize(Map<String, Object> settings) {
+        Object value = settings.get(ALLOCATION_SIZE_SETTING);
+        int allocationSize = value == null ? DEFAULT_ALLOCATION_SIZE : Integer.parseInt(value.toString().trim());
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException(ALLOCATION_SIZE_SETTING + " must be at least 1, but it is " + allocationSize);
+        }
+        return allocationSize;
+    }
+}
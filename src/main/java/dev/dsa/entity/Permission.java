@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 @Builder
 public class Permission {
 
+    public static final String ID_SEQUENCE = "permissions_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 100)
@@ -0,0 +1,37 @@
+package dev.dsa.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Sequence generator for {@link PooledSequence}: a standard SequenceStyleGenerator whose increment
+ * comes from the app.id.allocation-size setting instead of a compile-time annotation attribute.
+ *
+ * Hibernate does not configure generators created through an IdGeneratorType annotation, so the
+ * constructor does; schema export and initialization then work as for any sequence generator.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public PooledSequenceGenerator(PooledSequence sequence, Member member, CustomIdGeneratorCreationContext context) {
+        int allocationSize = IdGeneration.allocationSize(
+            context.getServiceRegistry().requireService(ConfigurationService.class).getSettings());
+
+        Properties parameters = new Properties();
+        parameters.put(SEQUENCE_PARAM, sequence.value());
+        parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        if (context.getDefaultCatalog() != null) {
+            parameters.put(CATALOG, context.getDefaultCatalog());
+        }
+        if (context.getDefaultSchema() != null) {
+            parameters.put(SCHEMA, context.getDefaultSchema());
+        }
+        configure(context.getProperty().getType(), parameters, context.getServiceRegistry());
+    }
+}
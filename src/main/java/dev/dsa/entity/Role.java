@@ -2,6 +2,7 @@ package dev.dsa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -14,10 +15,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@BatchSize(size = 50)
 public class Role {
 
+    public static final String ID_SEQUENCE = "roles_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -30,18 +34,20 @@ public class Role {
     private Boolean active = true;
 
     // Self-referential relationship for role inheritance
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_role_id")
     private Role parentRole;
 
     @OneToMany(mappedBy = "parentRole", cascade = CascadeType.ALL)
     private Set<Role> childRoles = new HashSet<>();
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @BatchSize(size = 50)
     @JoinTable(
         name = "role_permissions",
         joinColumns = @JoinColumn(name = "role_id"),
-        inverseJoinColumns = @JoinColumn(name = "permission_id")
+        inverseJoinColumns = @JoinColumn(name = "permission_id"),
+        indexes = @Index(name = "idx_role_permissions_permission", columnList = "permission_id")
     )
     private Set<Permission> permissions = new HashSet<>();
 
@@ -63,7 +69,8 @@ public class Role {
     }
 
     /**
-     * Get all permissions including inherited permissions from parent roles
+     * Get all permissions including inherited permissions from parent roles.
+     * Walks the loaded parent chain; RbacService answers the same from the role_closure table in one query.
      */
     public Set<Permission> getAllPermissions() {
         Set<Permission> allPermissions = new HashSet<>(permissions);
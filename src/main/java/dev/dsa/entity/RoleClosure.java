@@ -0,0 +1,43 @@
+package dev.dsa.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One row per (ancestor, descendant) pair of the role hierarchy, including each role paired
+ * with itself at depth 0. Maintained by RbacService whenever a role is created or re-parented,
+ * so hierarchy questions ("descendants of R", "roles inheriting permission X") are a single
+ * indexed lookup instead of a walk over parent_role_id.
+ */
+@Entity
+@Table(name = "role_closure", indexes = {
+    @Index(name = "idx_role_closure_descendant", columnList = "descendant_id, ancestor_id")
+})
+@IdClass(RoleClosure.Key.class)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    // Number of parent links between the two roles
+    @Column(nullable = false)
+    private int depth;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
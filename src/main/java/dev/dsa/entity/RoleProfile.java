@@ -2,6 +2,7 @@ package dev.dsa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -24,8 +25,10 @@ import java.util.Set;
 @Builder
 public class RoleProfile {
 
+    public static final String ID_SEQUENCE = "role_profiles_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 100)
@@ -38,11 +41,13 @@ public class RoleProfile {
     @Builder.Default
     private Boolean active = true;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @BatchSize(size = 50)
     @JoinTable(
         name = "profile_roles",
         joinColumns = @JoinColumn(name = "profile_id"),
-        inverseJoinColumns = @JoinColumn(name = "role_id")
+        inverseJoinColumns = @JoinColumn(name = "role_id"),
+        indexes = @Index(name = "idx_profile_roles_role", columnList = "role_id")
     )
     @Builder.Default
     private Set<Role> roles = new HashSet<>();
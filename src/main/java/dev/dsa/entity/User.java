@@ -2,6 +2,7 @@ package dev.dsa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -16,8 +17,10 @@ import java.util.Set;
 @Builder
 public class User {
 
+    public static final String ID_SEQUENCE = "users_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -47,19 +50,24 @@ public class User {
     @Column(name = "credentials_non_expired", nullable = false)
     private Boolean credentialsNonExpired = true;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    // Lazy: authentication and the admin pages fetch what they need in their own queries (see UserRepository)
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @BatchSize(size = 50)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "role_id")
+        inverseJoinColumns = @JoinColumn(name = "role_id"),
+        indexes = @Index(name = "idx_user_roles_role", columnList = "role_id")
     )
     private Set<Role> roles = new HashSet<>();
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @BatchSize(size = 50)
     @JoinTable(
         name = "user_role_profiles",
         joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "role_profile_id")
+        inverseJoinColumns = @JoinColumn(name = "role_profile_id"),
+        indexes = @Index(name = "idx_user_role_profiles_profile", columnList = "role_profile_id")
     )
     private Set<RoleProfile> roleProfiles = new HashSet<>();
 
@@ -72,7 +80,9 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @Column(name = "last_login")
+    // Written only by LastLoginTracker; left out of entity updates so saving a User loaded before a
+    // login does not overwrite it
+    @Column(name = "last_login", updatable = false)
     private LocalDateTime lastLogin;
 
     @PrePersist
@@ -12,8 +12,10 @@ import lombok.*;
 @Builder
 public class UserProfile extends Auditable {
 
+    public static final String ID_SEQUENCE = "user_profiles_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(ID_SEQUENCE)
     private Long id;
 
     @OneToOne
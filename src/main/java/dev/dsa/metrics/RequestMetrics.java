@@ -0,0 +1,84 @@
+package dev.dsa.metrics;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counters for the request being served on the current thread.
+ *
+ * Opened and closed by RequestMetricsFilter; the DataSource proxy and the Hibernate
+ * listeners only touch the thread-local, so work outside a request (startup, the audit
+ * writer, scheduled jobs) costs a single ThreadLocal lookup and is not counted.
+ */
+@Getter
+public final class RequestMetrics {
+
+    // Distinct statements tracked per request for repeat detection; enough for any sane page
+    private static final int MAX_TRACKED_STATEMENTS = 256;
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long jdbcNanos;
+    private int entityLoads;
+    private int collectionLoads;
+    private String mostRepeatedStatement;
+    private int mostRepeatedCount;
+
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+    private RequestMetrics() {
+    }
+
+    static RequestMetrics start() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    static void statementExecuted(String sql, long nanos) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics == null) {
+            return;
+        }
+        metrics.statements++;
+        metrics.jdbcNanos += nanos;
+        if (sql == null) {
+            return;
+        }
+        Integer previous = metrics.executionsBySql.get(sql);
+        if (previous == null && metrics.executionsBySql.size() >= MAX_TRACKED_STATEMENTS) {
+            return;
+        }
+        int count = previous == null ? 1 : previous + 1;
+        metrics.executionsBySql.put(sql, count);
+        if (count > metrics.mostRepeatedCount) {
+            metrics.mostRepeatedCount = count;
+            metrics.mostRepeatedStatement = sql;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.entityLoads++;
+        }
+    }
+
+    static void collectionLoaded() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.collectionLoads++;
+        }
+    }
+}
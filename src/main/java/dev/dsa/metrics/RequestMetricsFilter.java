@@ -0,0 +1,53 @@
+package dev.dsa.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a RequestMetrics context around the whole request, including the security
+ * filter chain and view rendering, and records it against the handler that served it
+ * (e.g. "AccountController.listAccounts").
+ */
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    // Requests that never reached a handler, e.g. redirected to the login page by security
+    static final String UNMAPPED_HANDLER = "[unmapped]";
+
+    private final RequestMetricsRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.start();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            long durationNanos = System.nanoTime() - start;
+            RequestMetrics.end();
+            registry.record(handlerName(request), request.getMethod(), request.getRequestURI(),
+                response.getStatus(), failed, durationNanos, metrics);
+        }
+    }
+
+    private static String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return handler != null ? handler.getClass().getSimpleName() : UNMAPPED_HANDLER;
+    }
+}
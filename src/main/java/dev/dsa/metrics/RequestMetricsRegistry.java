@@ -0,0 +1,186 @@
+package dev.dsa.metrics;
+
+import dev.dsa.config.MetricsProperties;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated request metrics per handler method plus a ring of recent slow requests.
+ *
+ * Recording is lock-free: counters are LongAdders, latencies go into a LatencyHistogram,
+ * and slow requests overwrite the oldest slot of a fixed-size ring.
+ */
+@Component
+@Slf4j
+public class RequestMetricsRegistry {
+
+    // Handlers past app.metrics.max-endpoints are folded into this entry
+    static final String OVERFLOW_HANDLER = "[other]";
+
+    private final MetricsProperties properties;
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowRequest> slowRequests;
+    private final AtomicLong slowRequestSequence = new AtomicLong();
+
+    public RequestMetricsRegistry(MetricsProperties properties) {
+        this.properties = properties;
+        this.slowRequests = new AtomicReferenceArray<>(Math.max(1, properties.getSlowRequestCapacity()));
+    }
+
+    void record(String handler, String method, String uri, int status, boolean failed,
+                long durationNanos, RequestMetrics metrics) {
+        EndpointMetrics endpoint = endpointFor(handler);
+        endpoint.latency.recordNanos(durationNanos);
+        endpoint.statements.add(metrics.getStatements());
+        endpoint.maxStatements.accumulateAndGet(metrics.getStatements(), Math::max);
+        endpoint.jdbcNanos.add(metrics.getJdbcNanos());
+        endpoint.entityLoads.add(metrics.getEntityLoads());
+        endpoint.collectionLoads.add(metrics.getCollectionLoads());
+        if (failed || status >= 500) {
+            endpoint.errors.increment();
+        }
+
+        boolean suspectedNPlusOne = metrics.getStatements() > properties.getStatementThreshold()
+            || metrics.getMostRepeatedCount() > properties.getRepeatedStatementThreshold();
+        if (suspectedNPlusOne) {
+            endpoint.suspectedNPlusOneRequests.increment();
+            log.warn("Possible N+1 in {} {} ({}): {} statements, most repeated {}x: {}",
+                method, uri, handler, metrics.getStatements(), metrics.getMostRepeatedCount(),
+                metrics.getMostRepeatedStatement());
+        }
+
+        long durationMs = durationNanos / 1_000_000;
+        if (suspectedNPlusOne || durationMs >= properties.getSlowRequestThreshold().toMillis()) {
+            SlowRequest slowRequest = SlowRequest.builder()
+                .timestamp(LocalDateTime.now())
+                .method(method)
+                .uri(uri)
+                .handler(handler)
+                .status(status)
+                .durationMs(durationMs)
+                .statements(metrics.getStatements())
+                .jdbcTimeMs(metrics.getJdbcNanos() / 1_000_000)
+                .entityLoads(metrics.getEntityLoads())
+                .collectionLoads(metrics.getCollectionLoads())
+                .mostRepeatedStatement(metrics.getMostRepeatedStatement())
+                .mostRepeatedCount(metrics.getMostRepeatedCount())
+                .suspectedNPlusOne(suspectedNPlusOne)
+                .build();
+            long sequence = slowRequestSequence.getAndIncrement();
+            slowRequests.set((int) (sequence % slowRequests.length()), slowRequest);
+        }
+    }
+
+    public List<EndpointStats> getEndpointStats() {
+        List<EndpointStats> stats = new ArrayList<>();
+        endpoints.forEach((handler, endpoint) -> stats.add(endpoint.toStats(handler)));
+        stats.sort(Comparator.comparing(EndpointStats::getHandler));
+        return stats;
+    }
+
+    /**
+     * Recent slow or N+1-suspect requests, newest first
+     */
+    public List<SlowRequest> getSlowRequests() {
+        List<SlowRequest> result = new ArrayList<>(slowRequests.length());
+        for (int i = 0; i < slowRequests.length(); i++) {
+            SlowRequest slowRequest = slowRequests.get(i);
+            if (slowRequest != null) {
+                result.add(slowRequest);
+            }
+        }
+        result.sort(Comparator.comparing(SlowRequest::getTimestamp).reversed());
+        return result;
+    }
+
+    private EndpointMetrics endpointFor(String handler) {
+        EndpointMetrics endpoint = endpoints.get(handler);
+        if (endpoint != null) {
+            return endpoint;
+        }
+        if (endpoints.size() >= properties.getMaxEndpoints()) {
+            return endpoints.computeIfAbsent(OVERFLOW_HANDLER, k -> new EndpointMetrics());
+        }
+        return endpoints.computeIfAbsent(handler, k -> new EndpointMetrics());
+    }
+
+    private static final class EndpointMetrics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final LongAdder jdbcNanos = new LongAdder();
+        private final LongAdder entityLoads = new LongAdder();
+        private final LongAdder collectionLoads = new LongAdder();
+        private final LongAdder suspectedNPlusOneRequests = new LongAdder();
+
+        EndpointStats toStats(String handler) {
+            long count = latency.getCount();
+            return EndpointStats.builder()
+                .handler(handler)
+                .requests(count)
+                .errors(errors.sum())
+                .meanMs(latency.getMeanMicros() / 1000.0)
+                .p50Ms(latency.getValueAtPercentile(50.0) / 1000.0)
+                .p99Ms(latency.getValueAtPercentile(99.0) / 1000.0)
+                .p999Ms(latency.getValueAtPercentile(99.9) / 1000.0)
+                .maxMs(latency.getMaxMicros() / 1000.0)
+                .avgStatements(count == 0 ? 0.0 : (double) statements.sum() / count)
+                .maxStatements(maxStatements.get())
+                .avgJdbcTimeMs(count == 0 ? 0.0 : jdbcNanos.sum() / 1_000_000.0 / count)
+                .avgEntityLoads(count == 0 ? 0.0 : (double) entityLoads.sum() / count)
+                .avgCollectionLoads(count == 0 ? 0.0 : (double) collectionLoads.sum() / count)
+                .suspectedNPlusOneRequests(suspectedNPlusOneRequests.sum())
+                .build();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class EndpointStats {
+        private final String handler;
+        private final long requests;
+        private final long errors;
+        private final double meanMs;
+        private final double p50Ms;
+        private final double p99Ms;
+        private final double p999Ms;
+        private final double maxMs;
+        private final double avgStatements;
+        private final long maxStatements;
+        private final double avgJdbcTimeMs;
+        private final double avgEntityLoads;
+        private final double avgCollectionLoads;
+        private final long suspectedNPlusOneRequests;
+    }
+
+    @Getter
+    @Builder
+    public static class SlowRequest {
+        private final LocalDateTime timestamp;
+        private final String method;
+        private final String uri;
+        private final String handler;
+        private final int status;
+        private final long durationMs;
+        private final int statements;
+        private final long jdbcTimeMs;
+        private final int entityLoads;
+        private final int collectionLoads;
+        private final String mostRepeatedStatement;
+        private final int mostRepeatedCount;
+        private final boolean suspectedNPlusOne;
+    }
+}
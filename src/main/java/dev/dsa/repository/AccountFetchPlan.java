@@ -0,0 +1,33 @@
+package dev.dsa.repository;
+
+import dev.dsa.entity.Account;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.SpecHints;
+
+import java.util.Map;
+
+/**
+ * Which associations an account query loads along with the account itself.
+ *
+ * Each plan other than ACCOUNT_ONLY maps to a named entity graph on {@link Account}, applied
+ * as a fetch graph so the associations come back in the same statement instead of one lazy
+ * select per row.
+ */
+public enum AccountFetchPlan {
+    ACCOUNT_ONLY(null),
+    WITH_CUSTOMER(Account.GRAPH_WITH_CUSTOMER);
+
+    private final String entityGraph;
+
+    AccountFetchPlan(String entityGraph) {
+        this.entityGraph = entityGraph;
+    }
+
+    /**
+     * Query hints applying this plan
+     */
+    Map<String, Object> hints(EntityManager entityManager) {
+        return entityGraph == null ? Map.of()
+            : Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(entityGraph));
+    }
+}
@@ -0,0 +1,24 @@
+package dev.dsa.repository;
+
+import dev.dsa.dto.AccountListRow;
+import dev.dsa.entity.Account;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Account queries with an explicit fetch plan or projection, mixed into {@link AccountRepository}
+ */
+public interface AccountQueries {
+
+    Optional<Account> findById(Long id, AccountFetchPlan fetchPlan);
+
+    List<Account> findAll(Specification<Account> specification, Sort sort, AccountFetchPlan fetchPlan);
+
+    /**
+     * List rows matching the specification, at most limit of them, in one statement joined to the customer
+     */
+    List<AccountListRow> findListRows(Specification<Account> specification, Sort sort, int limit);
+}
@@ -0,0 +1,100 @@
+package dev.dsa.repository;
+
+import dev.dsa.dto.AccountListRow;
+import dev.dsa.entity.Account;
+import dev.dsa.entity.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.NullPrecedence;
+import org.hibernate.query.criteria.JpaOrder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class AccountQueriesImpl implements AccountQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Account> findById(Long id, AccountFetchPlan fetchPlan) {
+        return Optional.ofNullable(entityManager.find(Account.class, id, fetchPlan.hints(entityManager)));
+    }
+
+    @Override
+    public List<Account> findAll(Specification<Account> specification, Sort sort, AccountFetchPlan fetchPlan) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Account> query = cb.createQuery(Account.class);
+        Root<Account> root = query.from(Account.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+
+        TypedQuery<Account> typedQuery = entityManager.createQuery(query);
+        fetchPlan.hints(entityManager).forEach(typedQuery::setHint);
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<AccountListRow> findListRows(Specification<Account> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AccountListRow> query = cb.createQuery(AccountListRow.class);
+        Root<Account> root = query.from(Account.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        Join<Account, Customer> customer = customerJoin(root);
+        query.select(cb.construct(AccountListRow.class,
+            root.get("id"),
+            root.get("accountRef"),
+            root.get("accountName"),
+            root.get("currency"),
+            root.get("status"),
+            root.get("createdBy"),
+            root.get("createdAt"),
+            customer.get("id"),
+            customer.get("name")));
+        query.orderBy(toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    // Reuse the customer join the specification added for customer filters, rather than joining twice
+    @SuppressWarnings("unchecked")
+    private static Join<Account, Customer> customerJoin(Root<Account> root) {
+        return root.getJoins().stream()
+            .filter(join -> "customer".equals(join.getAttribute().getName()))
+            .map(join -> (Join<Account, Customer>) join)
+            .findFirst()
+            .orElseGet(() -> root.join("customer"));
+    }
+
+    // QueryUtils drops Sort null handling for criteria queries; carry it over to Hibernate's order
+    private static List<Order> toOrders(Sort sort, Root<Account> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            JpaOrder jpaOrder = (JpaOrder) QueryUtils.toOrders(Sort.by(order), root, cb).get(0);
+            orders.add(switch (order.getNullHandling()) {
+                case NULLS_FIRST -> jpaOrder.nullPrecedence(NullPrecedence.FIRST);
+                case NULLS_LAST -> jpaOrder.nullPrecedence(NullPrecedence.LAST);
+                case NATIVE -> jpaOrder;
+            });
+        }
+        return orders;
+    }
+}
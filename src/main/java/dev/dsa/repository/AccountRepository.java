@@ -1,23 +1,36 @@
 package dev.dsa.repository;
 
+import dev.dsa.dto.AccountListRow;
 import dev.dsa.entity.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpecificationExecutor<Account> {
+public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpecificationExecutor<Account>,
+        AccountQueries {
 
     Optional<Account> findByAccountRef(String accountRef);
 
     List<Account> findByCustomerId(Long customerId);
 
+    @Query("SELECT new dev.dsa.dto.AccountListRow(a.id, a.accountRef, a.accountName, a.currency, a.status, " +
+           "a.createdBy, a.createdAt, c.id, c.name) FROM Account a JOIN a.customer c " +
+           "WHERE c.id = :customerId ORDER BY a.id")
+    List<AccountListRow> findListRowsByCustomerId(Long customerId);
+
     List<Account> findByStatus(Account.AccountStatus status);
 
     List<Account> findByCurrency(String currency);
 
     boolean existsByAccountRef(String accountRef);
+
+    @Query("SELECT a.accountRef FROM Account a WHERE a.accountRef IN :accountRefs")
+    Set<String> findExistingAccountRefs(Collection<String> accountRefs);
 }
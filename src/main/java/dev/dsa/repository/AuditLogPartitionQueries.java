@@ -0,0 +1,162 @@
+package dev.dsa.repository;
+
+import dev.dsa.entity.AuditLog;
+import dev.dsa.util.KeysetCursor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads audit rows from one physical audit table: the audit_logs parent, a monthly partition or a
+ * rolled monthly table (see AuditPartitionManager). Which tables a query needs is decided by the caller.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogPartitionQueries {
+
+    public static final String COLUMNS =
+        "id, username, action, entity_type, entity_id, details, old_value, new_value, changes, ip_address, timestamp";
+
+    private static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> AuditLog.builder()
+        .id(rs.getLong("id"))
+        .username(rs.getString("username"))
+        .action(rs.getString("action"))
+        .entityType(rs.getString("entity_type"))
+        .entityId(rs.getObject("entity_id", Long.class))
+        .details(rs.getString("details"))
+        .oldValue(rs.getString("old_value"))
+        .newValue(rs.getString("new_value"))
+        .changes(rs.getString("changes"))
+        .ipAddress(rs.getString("ip_address"))
+        .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+        .build();
+
+    private static final String CHANGE_SET_COLUMNS = "id, action, changes, timestamp";
+
+    private static final RowMapper<AuditLog> CHANGE_SET_ROW_MAPPER = (rs, rowNum) -> AuditLog.builder()
+        .id(rs.getLong("id"))
+        .action(rs.getString("action"))
+        .changes(rs.getString("changes"))
+        .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+        .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Matching rows of one table, newest first, or oldest first when the criteria's cursor pages backward
+     *
+     * @param limit maximum rows returned, or 0 for all
+     */
+    public List<AuditLog> find(String table, Criteria criteria, int limit) {
+        return query(table, COLUMNS, ROW_MAPPER, criteria, false, limit);
+    }
+
+    /**
+     * Like {@link #find} but only rows with a change set, and only what replaying them needs (id, action,
+     * changes, timestamp)
+     */
+    public List<AuditLog> findChangeSets(String table, Criteria criteria, int limit) {
+        return query(table, CHANGE_SET_COLUMNS, CHANGE_SET_ROW_MAPPER, criteria, true, limit);
+    }
+
+    private List<AuditLog> query(String table, String columns, RowMapper<AuditLog> rowMapper, Criteria criteria,
+                                 boolean changeSetsOnly, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM ").append(table).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (changeSetsOnly) {
+            sql.append(" AND changes IS NOT NULL");
+        }
+        if (criteria.getFrom() != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.valueOf(criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            sql.append(" AND timestamp < ?");
+            args.add(Timestamp.valueOf(criteria.getTo()));
+        }
+        if (criteria.getUsername() != null) {
+            sql.append(" AND username = ?");
+            args.add(criteria.getUsername());
+        }
+        if (criteria.getEntityType() != null) {
+            sql.append(" AND entity_type = ?");
+            args.add(criteria.getEntityType());
+            if (criteria.getEntityId() != null) {
+                sql.append(" AND entity_id = ?");
+                args.add(criteria.getEntityId());
+            }
+        }
+        if (criteria.getAction() != null) {
+            sql.append(" AND action = ?");
+            args.add(criteria.getAction());
+        }
+
+        // Seek past the cursor row; with the (..., timestamp, id) indexes this is a range scan, not an OFFSET
+        KeysetCursor position = criteria.getPosition();
+        boolean backward = criteria.isBackward();
+        if (position != null) {
+            sql.append(backward ? " AND (timestamp, id) > (?, ?)" : " AND (timestamp, id) < (?, ?)");
+            args.add(Timestamp.valueOf((LocalDateTime) position.getSortValue()));
+            args.add(position.getId());
+        }
+        sql.append(backward ? " ORDER BY timestamp, id" : " ORDER BY timestamp DESC, id DESC");
+        if (limit > 0) {
+            sql.append(" FETCH FIRST ").append(limit).append(" ROWS ONLY");
+        }
+        return jdbcTemplate.query(sql.toString(), rowMapper, args.toArray());
+    }
+
+    /**
+     * Stream the rows of a table older than before (every row when before is null), e.g. to archive them
+     */
+    public void forEach(String table, LocalDateTime before, Consumer<AuditLog> action) {
+        RowCallbackHandler handler = rs -> action.accept(ROW_MAPPER.mapRow(rs, rs.getRow()));
+        if (before == null) {
+            jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + table + " ORDER BY timestamp, id", handler);
+        } else {
+            jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + table + " WHERE timestamp < ? ORDER BY timestamp, id",
+                handler, Timestamp.valueOf(before));
+        }
+    }
+
+    /**
+     * Number of rows of a table older than before (every row when before is null)
+     */
+    public long count(String table, LocalDateTime before) {
+        Long count = before == null
+            ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class)
+            : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE timestamp < ?", Long.class,
+                Timestamp.valueOf(before));
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Filters for an audit query; null fields are not filtered on. The time range is half-open: [from, to).
+     * position is a "timestamp" keyset cursor: rows older than it when paging forward, newer when paging backward.
+     */
+    @Getter
+    @Builder(toBuilder = true)
+    public static class Criteria {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final String username;
+        private final String action;
+        private final String entityType;
+        private final Long entityId;
+        private final KeysetCursor position;
+
+        public boolean isBackward() {
+            return position != null && position.getDirection() == KeysetCursor.Direction.BACKWARD;
+        }
+    }
+}
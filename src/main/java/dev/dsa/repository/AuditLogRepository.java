@@ -4,17 +4,10 @@ import dev.dsa.entity.AuditLog;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
+/**
+ * Writes audit events. Reads go through AuditLogPartitionQueries, since audit rows may live in
+ * monthly tables as well as in audit_logs (see AuditPartitionManager).
+ */
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-
-    List<AuditLog> findByUsername(String username);
-
-    List<AuditLog> findByEntityTypeAndEntityId(String entityType, Long entityId);
-
-    List<AuditLog> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
-
-    List<AuditLog> findTop100ByOrderByTimestampDesc();
 }
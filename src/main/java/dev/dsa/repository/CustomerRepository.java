@@ -4,13 +4,17 @@ import dev.dsa.entity.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
 
     Optional<Customer> findByEmail(String email);
 
@@ -19,4 +23,7 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Page<Customer> findByActive(Boolean active, Pageable pageable);
 
     List<Customer> findByNameContainingIgnoreCase(String name);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,59 @@
+package dev.dsa.repository;
+
+import dev.dsa.entity.Permission;
+import dev.dsa.entity.RoleClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RoleClosureRepository extends JpaRepository<RoleClosure, RoleClosure.Key> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    @Query("SELECT c.descendantId FROM RoleClosure c WHERE c.ancestorId = :roleId AND c.depth > 0")
+    List<Long> findDescendantIds(Long roleId);
+
+    // The role itself plus every role inheriting from it
+    @Query("SELECT c.descendantId FROM RoleClosure c WHERE c.ancestorId = :roleId")
+    List<Long> findSubtreeIds(Long roleId);
+
+    @Query("SELECT DISTINCT p FROM RoleClosure c JOIN Role a ON a.id = c.ancestorId JOIN a.permissions p " +
+           "WHERE c.descendantId = :roleId")
+    List<Permission> findEffectivePermissions(Long roleId);
+
+    // Roles holding the permission directly or through inheritance
+    @Query("SELECT c.descendantId FROM RoleClosure c JOIN Role a ON a.id = c.ancestorId JOIN a.permissions p " +
+           "WHERE p.name = :permissionName AND p.active = true")
+    List<Long> findRoleIdsGranting(String permissionName);
+
+    @Modifying
+    @Query("INSERT INTO RoleClosure (ancestorId, descendantId, depth) VALUES (:roleId, :roleId, 0)")
+    void insertSelf(Long roleId);
+
+    /**
+     * Link a subtree (the role and its descendants) under a new parent: every ancestor of the
+     * parent becomes an ancestor of every role in the subtree
+     */
+    @Modifying
+    @Query("INSERT INTO RoleClosure (ancestorId, descendantId, depth) " +
+           "SELECT up.ancestorId, down.descendantId, up.depth + down.depth + 1 " +
+           "FROM RoleClosure up, RoleClosure down WHERE up.descendantId = :parentId AND down.ancestorId = :roleId")
+    void attachSubtree(Long roleId, Long parentId);
+
+    /**
+     * Unlink a subtree from its current ancestors, keeping the links inside the subtree
+     */
+    @Modifying
+    @Query("DELETE FROM RoleClosure c " +
+           "WHERE c.descendantId IN (SELECT s.descendantId FROM RoleClosure s WHERE s.ancestorId = :roleId) " +
+           "AND c.ancestorId NOT IN (SELECT s.descendantId FROM RoleClosure s WHERE s.ancestorId = :roleId)")
+    void detachSubtree(Long roleId);
+
+    @Modifying
+    @Query("DELETE FROM RoleClosure c")
+    void deleteAllRows();
+}
@@ -19,4 +19,10 @@ public interface RoleProfileRepository extends JpaRepository<RoleProfile, Long>
     List<RoleProfile> searchByKeyword(String keyword);
 
     boolean existsByName(String name);
+
+    @Query("SELECT rp FROM RoleProfile rp LEFT JOIN FETCH rp.roles WHERE rp.id = :id")
+    Optional<RoleProfile> findByIdWithRoles(Long id);
+
+    @Query("SELECT rp FROM RoleProfile rp LEFT JOIN FETCH rp.roles ORDER BY rp.id")
+    List<RoleProfile> findAllWithRoles();
 }
@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,6 +16,14 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
 
     boolean existsByName(String name);
 
-    @Query("SELECT r FROM Role r LEFT JOIN FETCH r.permissions WHERE r.id = :id")
+    @Query("SELECT r FROM Role r LEFT JOIN FETCH r.permissions LEFT JOIN FETCH r.parentRole WHERE r.id = :id")
     Optional<Role> findByIdWithPermissions(Long id);
+
+    @Query("SELECT DISTINCT r FROM Role r LEFT JOIN FETCH r.permissions LEFT JOIN FETCH r.parentRole WHERE r.id IN :ids")
+    List<Role> findAllByIdWithPermissions(Collection<Long> ids);
+
+    // Every role with its permissions and parent; parents are in the same result, so the whole
+    // hierarchy is initialized and the list can be cached and read after the session is gone
+    @Query("SELECT r FROM Role r LEFT JOIN FETCH r.permissions LEFT JOIN FETCH r.parentRole ORDER BY r.id")
+    List<Role> findAllWithPermissions();
 }
@@ -2,9 +2,12 @@ package dev.dsa.repository;
 
 import dev.dsa.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,6 +21,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
-    @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.username = :username")
+    // Re-hash on login: one column, without loading the user
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(String username, String password);
+
+    // What authentication reads, with findByIdWithRoleProfiles: direct roles and preferences. The two
+    // collection paths go in separate statements, so neither multiplies the rows of the other
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles LEFT JOIN FETCH u.profile WHERE u.username = :username")
     Optional<User> findByUsernameWithRoles(String username);
+
+    // Initializes the role profiles and their roles of a user already in the persistence context
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roleProfiles p LEFT JOIN FETCH p.roles WHERE u.id = :id")
+    Optional<User> findByIdWithRoleProfiles(Long id);
+
+    // Admin user list: users with their direct roles (role permissions stay lazy)
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles LEFT JOIN FETCH u.profile ORDER BY u.id")
+    List<User> findAllWithRoles();
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles LEFT JOIN FETCH u.profile WHERE u.id = :id")
+    Optional<User> findByIdWithRoles(Long id);
+
+    @Query("SELECT DISTINCT u.username FROM User u LEFT JOIN u.roles r LEFT JOIN u.roleProfiles p LEFT JOIN p.roles pr " +
+           "WHERE r.id IN :roleIds OR pr.id IN :roleIds")
+    List<String> findUsernamesWithAnyRole(Collection<Long> roleIds);
+
+    // Users holding the permission through a direct or profile role, inherited permissions included
+    @Query("SELECT u.username FROM User u WHERE " +
+           "u.id IN (SELECT ur.id FROM User ur JOIN ur.roles r JOIN RoleClosure c ON c.descendantId = r.id " +
+           "JOIN Role a ON a.id = c.ancestorId JOIN a.permissions p WHERE p.name = :permissionName AND p.active = true) " +
+           "OR u.id IN (SELECT up.id FROM User up JOIN up.roleProfiles rp JOIN rp.roles r JOIN RoleClosure c ON c.descendantId = r.id " +
+           "JOIN Role a ON a.id = c.ancestorId JOIN a.permissions p WHERE p.name = :permissionName AND p.active = true) " +
+           "ORDER BY u.username")
+    List<String> findUsernamesWithPermission(String permissionName);
+
+    @Query("SELECT u.username FROM User u JOIN u.roleProfiles p WHERE p.id = :profileId")
+    List<String> findUsernamesWithProfile(Long profileId);
+
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(Long id);
+
+    @Query("SELECT u.username AS username, r.id AS targetId FROM User u JOIN u.roles r")
+    List<Assignment> findRoleAssignments();
+
+    @Query("SELECT u.username AS username, p.id AS targetId FROM User u JOIN u.roleProfiles p")
+    List<Assignment> findProfileAssignments();
+
+    /**
+     * A user assigned to a role or role profile
+     */
+    interface Assignment {
+        String getUsername();
+
+        Long getTargetId();
+    }
 }
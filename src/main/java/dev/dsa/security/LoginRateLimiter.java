@@ -0,0 +1,223 @@
+package dev.dsa.security;
+
+import dev.dsa.config.LoginRateLimitProperties;
+import dev.dsa.service.AuditService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding-window limit on failed logins per username and per client address.
+ *
+ * Failures are counted in fixed-size lock-free counters (see SlidingWindowCounter). Once a username
+ * or an address reaches its limit, further login attempts for it are rejected before the password
+ * check, so a credential-stuffing burst costs neither hashing time nor an audit row per attempt:
+ * rejected attempts are tallied in memory and audited as one summary row per username and address
+ * every summary interval.
+ *
+ * A counter that has taken more failures than its width supports fails open: its limit is skipped
+ * until enough slots slide out, rather than rejecting every user whose key collides with the flood.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginRateLimiter {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final LoginRateLimitProperties properties;
+    private final AuditService auditService;
+
+    private SlidingWindowCounter usernameFailures;
+    private SlidingWindowCounter ipFailures;
+
+    private final Map<Source, Long> rejectedSinceSummary = new ConcurrentHashMap<>();
+    private final LongAdder overflowSinceSummary = new LongAdder();
+    private volatile LocalDateTime summaryPeriodStart = LocalDateTime.now();
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    // Checks that skipped a saturated counter
+    private final LongAdder failedOpen = new LongAdder();
+    private final AtomicLong summariesWritten = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        usernameFailures = new SlidingWindowCounter(properties.getWindow(), properties.getSlots(),
+            properties.getDepth(), properties.getWidth(), properties.getMaxLoadFactor());
+        ipFailures = new SlidingWindowCounter(properties.getWindow(), properties.getSlots(),
+            properties.getDepth(), properties.getWidth(), properties.getMaxLoadFactor());
+
+        long intervalMs = properties.getSummaryInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-rate-limit-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduledSummary, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Login rate limit started ({} failures per username, {} per address in {}; {} KiB of counters)",
+            properties.getMaxFailuresPerUsername(), properties.getMaxFailuresPerIp(), properties.getWindow(),
+            (usernameFailures.memoryBytes() + ipFailures.memoryBytes()) / 1024);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeSummaries();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Whether the username or the address has used up its failures for the current window
+     */
+    public boolean isBlocked(String username, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        String user = normalize(username);
+        if (user != null && isOverLimit(usernameFailures, user, properties.getMaxFailuresPerUsername())) {
+            return true;
+        }
+        return ipAddress != null && isOverLimit(ipFailures, ipAddress, properties.getMaxFailuresPerIp());
+    }
+
+    /**
+     * Count a failed password check against the username and the address
+     */
+    public void recordFailure(String username, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        failures.increment();
+        String user = normalize(username);
+        if (user != null) {
+            usernameFailures.increment(user);
+        }
+        if (ipAddress != null) {
+            ipFailures.increment(ipAddress);
+        }
+    }
+
+    /**
+     * Tally an attempt rejected by isBlocked; audited in the next summary
+     */
+    public void recordRejected(String username, String ipAddress) {
+        rejected.increment();
+        // The username is whatever the client posted; clip both to the audit_logs column sizes
+        Source source = new Source(clip(username != null && !username.isBlank() ? username.trim() : UNKNOWN, 50),
+            clip(ipAddress != null ? ipAddress : UNKNOWN, 45));
+        if (rejectedSinceSummary.size() >= properties.getMaxSummaryEntries() && !rejectedSinceSummary.containsKey(source)) {
+            overflowSinceSummary.increment();
+            return;
+        }
+        rejectedSinceSummary.merge(source, 1L, Long::sum);
+    }
+
+    /**
+     * Audit the rejected attempts tallied since the last summary
+     */
+    public void writeSummaries() {
+        LocalDateTime periodStart = summaryPeriodStart;
+        summaryPeriodStart = LocalDateTime.now();
+
+        for (Source source : rejectedSinceSummary.keySet()) {
+            Long attempts = rejectedSinceSummary.remove(source);
+            if (attempts != null) {
+                auditService.logLoginThrottled(source.username(), source.ipAddress(), attempts, periodStart);
+                summariesWritten.incrementAndGet();
+            }
+        }
+        long overflow = overflowSinceSummary.sumThenReset();
+        if (overflow > 0) {
+            auditService.logLoginThrottled(UNKNOWN, UNKNOWN, overflow, periodStart);
+            summariesWritten.incrementAndGet();
+        }
+    }
+
+    public Stats getStats() {
+        return Stats.builder()
+            .enabled(properties.isEnabled())
+            .failures(failures.sum())
+            .rejected(rejected.sum())
+            .failedOpen(failedOpen.sum())
+            .pendingSummaries(rejectedSinceSummary.size() + (overflowSinceSummary.sum() > 0 ? 1 : 0))
+            .summariesWritten(summariesWritten.get())
+            .counterMemoryBytes(usernameFailures != null ? usernameFailures.memoryBytes() + ipFailures.memoryBytes() : 0)
+            .build();
+    }
+
+    private boolean isOverLimit(SlidingWindowCounter counter, String key, int limit) {
+        if (counter.estimate(key) < limit) {
+            return false;
+        }
+        if (counter.isSaturated()) {
+            failedOpen.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void runScheduledSummary() {
+        try {
+            writeSummaries();
+        } catch (Exception e) {
+            log.error("Could not audit rejected login attempts", e);
+        }
+    }
+
+    // Usernames are counted case-insensitively so case variants share one limit
+    private static String normalize(String username) {
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String clip(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private record Source(String username, String ipAddress) {
+    }
+
+    @Getter
+    @Builder
+    public static class Stats {
+        private final boolean enabled;
+        private final long failures;
+        private final long rejected;
+        private final long failedOpen;
+        private final int pendingSummaries;
+        private final long summariesWritten;
+        private final long counterMemoryBytes;
+    }
+}
@@ -0,0 +1,23 @@
+package dev.dsa.security;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * DaoAuthenticationProvider that issues a {@link PermissionAuthenticationToken} for
+ * {@link RbacUserDetails} principals instead of a token holding a copied authority list.
+ */
+public class PermissionAuthenticationProvider extends DaoAuthenticationProvider {
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        // Let the parent handle password encoding upgrades first
+        Authentication result = super.createSuccessAuthentication(principal, authentication, user);
+        if (result.getPrincipal() instanceof RbacUserDetails rbacUser) {
+            return new PermissionAuthenticationToken(rbacUser, authentication.getDetails());
+        }
+        return result;
+    }
+}
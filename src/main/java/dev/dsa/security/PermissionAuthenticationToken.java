@@ -0,0 +1,82 @@
+package dev.dsa.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Authenticated token backed by an {@link RbacUserDetails} principal.
+ *
+ * Does not keep its own copy of the authority list; authorities are delegated to the principal.
+ * Equality compares the principal and its role names and permission bits directly, rather than
+ * the inherited comparison of materialized authority lists.
+ */
+public class PermissionAuthenticationToken extends AbstractAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RbacUserDetails principal;
+
+    public PermissionAuthenticationToken(RbacUserDetails principal, Object details) {
+        super(AuthorityUtils.NO_AUTHORITIES);
+        this.principal = principal;
+        setDetails(details);
+        super.setAuthenticated(true);
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return new ArrayList<>(principal.getAuthorities());
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public RbacUserDetails getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("Cannot mark this token as trusted after creation");
+        }
+        super.setAuthenticated(false);
+    }
+
+    public boolean hasAuthority(String authority) {
+        return principal.hasAuthority(authority);
+    }
+
+    public boolean hasRoleAuthority(String roleAuthority) {
+        return principal.hasRoleAuthority(roleAuthority);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PermissionAuthenticationToken other)) {
+            return false;
+        }
+        return principal.equals(other.principal)
+            && principal.getRoleAuthorities().equals(other.principal.getRoleAuthorities())
+            && Arrays.equals(principal.getPermissionBits(), other.principal.getPermissionBits())
+            && Objects.equals(getDetails(), other.getDetails())
+            && isAuthenticated() == other.isAuthenticated();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(principal, principal.getRoleAuthorities(), Arrays.hashCode(principal.getPermissionBits()));
+    }
+}
@@ -0,0 +1,45 @@
+package dev.dsa.security;
+
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.function.Supplier;
+
+/**
+ * URL authorization rule that checks the permission bitset of a {@link PermissionAuthenticationToken},
+ * falling back to the standard authority scan for any other authentication.
+ */
+public final class PermissionAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private final String[] authorities;
+    private final AuthorizationManager<RequestAuthorizationContext> fallback;
+
+    private PermissionAuthorizationManager(String[] authorities) {
+        this.authorities = authorities;
+        this.fallback = AuthorityAuthorizationManager.hasAnyAuthority(authorities);
+    }
+
+    public static PermissionAuthorizationManager hasAnyAuthority(String... authorities) {
+        return new PermissionAuthorizationManager(authorities);
+    }
+
+    public static PermissionAuthorizationManager hasRole(String role) {
+        return new PermissionAuthorizationManager(new String[] { PermissionSecurityExpressionRoot.withRolePrefix(role) });
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        if (authentication.get() instanceof PermissionAuthenticationToken token) {
+            for (String authority : authorities) {
+                if (token.hasAuthority(authority)) {
+                    return new AuthorizationDecision(true);
+                }
+            }
+            return new AuthorizationDecision(false);
+        }
+        return fallback.check(authentication, context);
+    }
+}
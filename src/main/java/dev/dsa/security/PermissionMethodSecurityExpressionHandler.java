@@ -0,0 +1,24 @@
+package dev.dsa.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Installs {@link PermissionSecurityExpressionRoot} as the root object for @PreAuthorize expressions.
+ */
+public class PermissionMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        StandardEvaluationContext context = (StandardEvaluationContext) super.createEvaluationContext(authentication, mi);
+        MethodSecurityExpressionOperations defaultRoot = (MethodSecurityExpressionOperations) context.getRootObject().getValue();
+        context.setRootObject(new PermissionSecurityExpressionRoot(defaultRoot));
+        return context;
+    }
+}
@@ -0,0 +1,49 @@
+package dev.dsa.security;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable mapping between permission names and the ordinals of a PermissionIndex.
+ *
+ * Each RbacUserDetails holds the instance of the index its permission bitset was resolved
+ * against, so checking or listing its authorities needs no global state. Instances are shared
+ * between principals built from the same index and are only replaced when permissions change.
+ */
+public final class PermissionOrdinals implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final PermissionOrdinals EMPTY = new PermissionOrdinals(List.of(), Map.of());
+
+    private final List<String> names;
+    private final Map<String, Integer> ordinalByName;
+
+    public PermissionOrdinals(List<String> names, Map<String, Integer> ordinalByName) {
+        this.names = List.copyOf(names);
+        this.ordinalByName = Map.copyOf(ordinalByName);
+    }
+
+    public static PermissionOrdinals empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Ordinal of a permission name, or -1 if it is not a known permission
+     */
+    public int ordinalOf(String permissionName) {
+        Integer ordinal = ordinalByName.get(permissionName);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public String nameOf(int ordinal) {
+        return names.get(ordinal);
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,144 @@
+package dev.dsa.security;
+
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Method security expression root that answers hasAuthority/hasRole checks from the
+ * permission bitset of a {@link PermissionAuthenticationToken}.
+ *
+ * SecurityExpressionRoot's checks are final, so this wraps the default root and only
+ * takes over the authority checks; everything else is delegated.
+ */
+public class PermissionSecurityExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final MethodSecurityExpressionOperations delegate;
+
+    public PermissionSecurityExpressionRoot(MethodSecurityExpressionOperations delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        if (getAuthentication() instanceof PermissionAuthenticationToken token) {
+            return token.hasAuthority(authority);
+        }
+        return delegate.hasAuthority(authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        if (getAuthentication() instanceof PermissionAuthenticationToken token) {
+            for (String authority : authorities) {
+                if (token.hasAuthority(authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return delegate.hasAnyAuthority(authorities);
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        if (getAuthentication() instanceof PermissionAuthenticationToken token) {
+            return token.hasRoleAuthority(withRolePrefix(role));
+        }
+        return delegate.hasRole(role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        if (getAuthentication() instanceof PermissionAuthenticationToken token) {
+            for (String role : roles) {
+                if (token.hasRoleAuthority(withRolePrefix(role))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return delegate.hasAnyRole(roles);
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return delegate.getAuthentication();
+    }
+
+    @Override
+    public boolean permitAll() {
+        return delegate.permitAll();
+    }
+
+    @Override
+    public boolean denyAll() {
+        return delegate.denyAll();
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        delegate.setFilterObject(filterObject);
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return delegate.getFilterObject();
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        delegate.setReturnObject(returnObject);
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return delegate.getReturnObject();
+    }
+
+    @Override
+    public Object getThis() {
+        return delegate.getThis();
+    }
+
+    // Also used by SpEL to resolve the 'principal' variable
+    public Object getPrincipal() {
+        Authentication authentication = getAuthentication();
+        return authentication != null ? authentication.getPrincipal() : null;
+    }
+
+    static String withRolePrefix(String role) {
+        return role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role;
+    }
+}
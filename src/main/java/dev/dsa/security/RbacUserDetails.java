@@ -0,0 +1,157 @@
+package dev.dsa.security;
+
+import dev.dsa.dto.UserPreferences;
+import dev.dsa.service.PermissionIndex;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * UserDetails that keeps permissions as a bitset of {@link PermissionIndex} ordinals
+ * instead of a set of GrantedAuthority strings.
+ *
+ * Role authorities (ROLE_*) are kept by name. {@link #getAuthorities()} materializes the
+ * full authority list on demand for callers that need it (UI, default Spring checks);
+ * the hot authorization paths use {@link #hasAuthority(String)} instead.
+ */
+@Getter
+public class RbacUserDetails implements UserDetails, CredentialsContainer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final String username;
+    private String password;
+    private final boolean enabled;
+    private final boolean accountNonExpired;
+    private final boolean accountNonLocked;
+    private final boolean credentialsNonExpired;
+    private final Set<String> roleAuthorities;
+    private final long[] permissionBits;
+
+    // Names of the permission ordinals, from the index the bitset was resolved against
+    private final PermissionOrdinals permissionOrdinals;
+
+    // UserDetailsCache version of this user when it was loaded
+    private final long securityVersion;
+
+    // Snapshot of the user's profile at securityVersion; see UserProfileService.getCurrentUserPreferences
+    private final UserPreferences preferences;
+
+    public RbacUserDetails(Long userId, String username, String password, boolean enabled, boolean accountNonExpired,
+                           boolean accountNonLocked, boolean credentialsNonExpired,
+                           Set<String> roleAuthorities, BitSet permissions, PermissionOrdinals permissionOrdinals,
+                           long securityVersion,
+                           UserPreferences preferences) {
+        this.userId = userId;
+        this.username = username;
+        this.password = password;
+        this.enabled = enabled;
+        this.accountNonExpired = accountNonExpired;
+        this.accountNonLocked = accountNonLocked;
+        this.credentialsNonExpired = credentialsNonExpired;
+        this.roleAuthorities = Set.copyOf(roleAuthorities);
+        this.permissionBits = permissions.toLongArray();
+        this.permissionOrdinals = permissionOrdinals;
+        this.securityVersion = securityVersion;
+        this.preferences = preferences;
+    }
+
+    private RbacUserDetails(RbacUserDetails source) {
+        this.userId = source.userId;
+        this.username = source.username;
+        this.password = source.password;
+        this.enabled = source.enabled;
+        this.accountNonExpired = source.accountNonExpired;
+        this.accountNonLocked = source.accountNonLocked;
+        this.credentialsNonExpired = source.credentialsNonExpired;
+        this.roleAuthorities = source.roleAuthorities;
+        this.permissionBits = source.permissionBits;
+        this.permissionOrdinals = source.permissionOrdinals;
+        this.securityVersion = source.securityVersion;
+        this.preferences = source.preferences;
+    }
+
+    /**
+     * Copy that can have its credentials erased independently (the bitset and roles are shared, never modified)
+     */
+    public RbacUserDetails copy() {
+        return new RbacUserDetails(this);
+    }
+
+    /**
+     * Copy with a re-hashed password (after DaoAuthenticationProvider upgraded the stored hash)
+     */
+    public RbacUserDetails withPassword(String newPassword) {
+        RbacUserDetails copy = new RbacUserDetails(this);
+        copy.password = newPassword;
+        return copy;
+    }
+
+    /**
+     * Check a single permission ordinal
+     */
+    public boolean hasPermission(int ordinal) {
+        if (ordinal < 0) {
+            return false;
+        }
+        int word = ordinal >>> 6;
+        return word < permissionBits.length && (permissionBits[word] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Check a role (ROLE_*) or permission authority by name
+     */
+    public boolean hasAuthority(String authority) {
+        return roleAuthorities.contains(authority) || hasPermission(permissionOrdinals.ordinalOf(authority));
+    }
+
+    public boolean hasRoleAuthority(String roleAuthority) {
+        return roleAuthorities.contains(roleAuthority);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        BitSet permissions = BitSet.valueOf(permissionBits);
+        List<GrantedAuthority> authorities = new ArrayList<>(roleAuthorities.size() + permissions.cardinality());
+        roleAuthorities.forEach(role -> authorities.add(new SimpleGrantedAuthority(role)));
+        for (int ordinal = permissions.nextSetBit(0); ordinal >= 0; ordinal = permissions.nextSetBit(ordinal + 1)) {
+            authorities.add(new SimpleGrantedAuthority(permissionOrdinals.nameOf(ordinal)));
+        }
+        return authorities;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+
+    // Identity is the username, as with Spring's User (used by the session registry)
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RbacUserDetails other && username.equals(other.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RbacUserDetails{" +
+                "username='" + username + '\'' +
+                ", enabled=" + enabled +
+                ", roles=" + roleAuthorities +
+                ", permissions=" + BitSet.valueOf(permissionBits).cardinality() +
+                '}';
+    }
+}
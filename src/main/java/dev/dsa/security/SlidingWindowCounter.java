@@ -0,0 +1,141 @@
+package dev.dsa.security;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key event counts over a sliding time window, in fixed memory.
+ *
+ * The window is split into slots; each slot is a count-min sketch (depth rows of width atomic
+ * counters) and a key's count is the sum over the live slots of its smallest counter. Counting is
+ * lock-free and allocates nothing, however many distinct keys arrive. Hash collisions only inflate
+ * a count, so a key is never under-counted except for increments racing the reset of a recycled slot.
+ *
+ * The more increments a slot takes relative to its width, the more every key is over-counted; past
+ * maxLoadFactor * width increments within the window the counter reports itself saturated, and its
+ * estimates should not be relied on.
+ */
+final class SlidingWindowCounter {
+
+    private final int slots;
+    private final long slotNanos;
+    private final int depth;
+    private final int width;
+    private final long maxLoad;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final LongSupplier nanoTime;
+    private final long origin;
+
+    private final AtomicIntegerArray[] counts;
+    // Increments each slot has taken since it was last cleared
+    private final AtomicIntegerArray increments;
+    // Slot number (time / slot length) each slot currently counts for
+    private final AtomicLongArray slotNumbers;
+
+    SlidingWindowCounter(Duration window, int slots, int depth, int width, double maxLoadFactor) {
+        this(window, slots, depth, width, maxLoadFactor, System::nanoTime);
+    }
+
+    SlidingWindowCounter(Duration window, int slots, int depth, int width, double maxLoadFactor, LongSupplier nanoTime) {
+        this.slots = slots;
+        this.slotNanos = Math.max(1, window.toNanos() / slots);
+        this.depth = depth;
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.maxLoad = (long) (this.width * maxLoadFactor);
+        this.nanoTime = nanoTime;
+        this.origin = nanoTime.getAsLong();
+        this.counts = new AtomicIntegerArray[slots];
+        this.increments = new AtomicIntegerArray(slots);
+        this.slotNumbers = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            counts[i] = new AtomicIntegerArray(depth * this.width);
+            slotNumbers.set(i, -1);
+        }
+    }
+
+    void increment(String key) {
+        long slotNumber = currentSlotNumber();
+        int slot = (int) (slotNumber % slots);
+        long held = slotNumbers.get(slot);
+        if (held < slotNumber && slotNumbers.compareAndSet(slot, held, slotNumber)) {
+            // This slot last counted a window that has slid past; the CAS winner clears it
+            AtomicIntegerArray table = counts[slot];
+            for (int i = 0; i < table.length(); i++) {
+                table.set(i, 0);
+            }
+            increments.set(slot, 0);
+        }
+        increments.incrementAndGet(slot);
+
+        // Conservative update: only raise the key's counters to its new estimate, which keeps keys that
+        // merely share a counter with a busy one from inflating along with it
+        AtomicIntegerArray table = counts[slot];
+        long hash = hash(key);
+        int estimate = min(table, hash) + 1;
+        for (int row = 0; row < depth; row++) {
+            table.accumulateAndGet(index(hash, row), estimate, Math::max);
+        }
+    }
+
+    int estimate(String key) {
+        long slotNumber = currentSlotNumber();
+        long hash = hash(key);
+        int total = 0;
+        for (long n = slotNumber; n > slotNumber - slots && n >= 0; n--) {
+            int slot = (int) (n % slots);
+            if (slotNumbers.get(slot) != n) {
+                continue;
+            }
+            total += min(counts[slot], hash);
+        }
+        return total;
+    }
+
+    /**
+     * Whether the live slots have taken more increments than the sketch width supports
+     */
+    boolean isSaturated() {
+        long slotNumber = currentSlotNumber();
+        long load = 0;
+        for (long n = slotNumber; n > slotNumber - slots && n >= 0; n--) {
+            int slot = (int) (n % slots);
+            if (slotNumbers.get(slot) == n) {
+                load += increments.get(slot);
+            }
+        }
+        return load > maxLoad;
+    }
+
+    long memoryBytes() {
+        return (long) slots * depth * width * Integer.BYTES;
+    }
+
+    private int min(AtomicIntegerArray table, long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table.get(index(hash, row)));
+        }
+        return min;
+    }
+
+    private long currentSlotNumber() {
+        return (nanoTime.getAsLong() - origin) / slotNanos;
+    }
+
+    // Row indexes by double hashing: h1 + row * h2, from one seeded 64-bit mix of the key
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    private long hash(String key) {
+        long h = key.hashCode() ^ seed;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
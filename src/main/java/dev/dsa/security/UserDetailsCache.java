@@ -0,0 +1,153 @@
+package dev.dsa.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UserCache for DaoAuthenticationProvider, stored in the "users" cache and keyed by username.
+ *
+ * Each user has a security version that is bumped (after commit) whenever something that
+ * affects their authentication changes: password, enabled flag, role assignments, or the
+ * roles, permissions and profiles they inherit from. Preference changes bump it too, since
+ * the cached details carry a preferences snapshot. A cached entry is only used when it
+ * was loaded at the current version, so a load racing with a change is never served.
+ *
+ * Versions come from one global counter, and users without a tracked version are at the base
+ * version. At most maxTrackedVersions users are tracked: beyond that the base moves past every
+ * version issued so far and the tracked versions and cached entries are dropped together, so the
+ * map stays bounded without a stale load ever matching a forgotten version.
+ */
+@Component
+@Slf4j
+public class UserDetailsCache implements UserCache {
+
+    private final Cache cache;
+    private final boolean enabled;
+    private final int maxTrackedVersions;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final ReentrantLock resetLock = new ReentrantLock();
+    private volatile long baseVersion;
+
+    public UserDetailsCache(CacheManager cacheManager,
+                            @Value("${app.security.user-cache.enabled:false}") boolean enabled,
+                            @Value("${app.security.user-cache.max-tracked-versions:10000}") int maxTrackedVersions) {
+        this.cache = cacheManager.getCache("users");
+        this.enabled = enabled;
+        this.maxTrackedVersions = maxTrackedVersions;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Version to stamp on a user that is about to be loaded
+     */
+    public long currentVersion(String username) {
+        Long version = versions.get(username);
+        return version != null ? version : baseVersion;
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        if (!enabled) {
+            return null;
+        }
+        RbacUserDetails cached = cache.get(username, RbacUserDetails.class);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.getSecurityVersion() != currentVersion(username)) {
+            cache.evict(username);
+            return null;
+        }
+        // Hand out a copy; the provider erases credentials on the principal it returns
+        return cached.copy();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (enabled && user instanceof RbacUserDetails rbacUser && rbacUser.getPassword() != null
+                && rbacUser.getSecurityVersion() == currentVersion(rbacUser.getUsername())) {
+            cache.put(rbacUser.getUsername(), rbacUser.copy());
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.evict(username);
+    }
+
+    /**
+     * Invalidate a user once the current transaction commits
+     */
+    public void invalidate(String username) {
+        invalidate(List.of(username));
+    }
+
+    /**
+     * Invalidate users once the current transaction commits
+     */
+    public void invalidate(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return;
+        }
+        List<String> snapshot = List.copyOf(usernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersions(snapshot);
+                }
+            });
+        } else {
+            bumpVersions(snapshot);
+        }
+    }
+
+    private void bumpVersions(List<String> usernames) {
+        for (String username : usernames) {
+            versions.put(username, versionCounter.incrementAndGet());
+            cache.evict(username);
+        }
+        log.debug("Invalidated cached user details for {}", usernames);
+        if (versions.size() > maxTrackedVersions) {
+            resetVersions();
+        }
+    }
+
+    private void resetVersions() {
+        resetLock.lock();
+        try {
+            if (versions.size() <= maxTrackedVersions) {
+                return;
+            }
+            // Raise the base before forgetting the tracked versions, so no user is ever seen at an old version
+            baseVersion = versionCounter.incrementAndGet();
+            versions.clear();
+            cache.clear();
+            log.info("Reset user details versions after tracking more than {} users", maxTrackedVersions);
+        } finally {
+            resetLock.unlock();
+        }
+    }
+
+    int getTrackedVersionCount() {
+        return versions.size();
+    }
+}
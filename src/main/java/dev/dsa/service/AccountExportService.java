@@ -0,0 +1,249 @@
+package dev.dsa.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dsa.dto.AccountSearchRequest;
+import dev.dsa.entity.Account;
+import dev.dsa.specification.AccountSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Streams account search results to an output stream with constant memory.
+ *
+ * Rows are read through a forward-only cursor (fetch size app.export.fetch-size) with the
+ * customer fetch-joined, and the persistence context is cleared every app.export.clear-interval
+ * rows so loaded entities do not accumulate. Output is flushed at the same interval, so the
+ * client starts receiving data straight away.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountExportService {
+
+    private static final String[] COLUMNS = {
+        "id", "accountRef", "accountName", "currency", "status", "customerId", "customerName",
+        "createdAt", "createdBy", "updatedAt", "updatedBy"
+    };
+
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final AccountSearchIndex accountSearchIndex;
+    private final AuditService auditService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${app.export.clear-interval:1000}")
+    private int clearInterval;
+
+    /**
+     * Write every account matching the search request, ordered by id, and return the row count.
+     * The stream is flushed but not closed.
+     */
+    public long exportAccounts(AccountSearchRequest searchRequest, ExportFormat format, OutputStream outputStream) {
+        log.info("Exporting accounts as {} with criteria: {}", format, searchRequest);
+
+        // The export itself is read-only; the audit record is written after it, outside that transaction
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long rows = Objects.requireNonNull(readOnly.execute(status -> {
+            try {
+                return streamAccounts(searchRequest, format, outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+
+        auditService.logAction("EXPORT", "Account", null,
+            "Exported " + rows + " accounts as " + format.getExtension() +
+                (searchRequest == null || searchRequest.isEmpty() ? "" : " with criteria: " + searchRequest),
+            null, null);
+        return rows;
+    }
+
+    private long streamAccounts(AccountSearchRequest searchRequest, ExportFormat format, OutputStream outputStream)
+            throws IOException {
+        AccountSearchRequest criteria = searchRequest == null || searchRequest.isEmpty()
+            ? new AccountSearchRequest() : searchRequest.normalized();
+        Specification<Account> specification = AccountSpecification.withSearchCriteria(criteria,
+            accountSearchIndex.resolve(criteria));
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Account> query = criteriaBuilder.createQuery(Account.class);
+        Root<Account> root = query.from(Account.class);
+        // Fetch the customer with the row instead of one lazy load per account
+        root.fetch("customer", JoinType.INNER);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        query.select(root).where(predicate).orderBy(criteriaBuilder.asc(root.get("id")));
+
+        Session session = entityManager.unwrap(Session.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == ExportFormat.NDJSON ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer);
+
+        long rows = 0;
+        try (ScrollableResults<Account> results = session.createQuery(query)
+                .setReadOnly(true)
+                .setFetchSize(fetchSize)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            rowWriter.writeHeader();
+            while (results.next()) {
+                rowWriter.writeRow(results.get());
+                if (++rows % clearInterval == 0) {
+                    session.clear();
+                    rowWriter.flush();
+                }
+            }
+        }
+        rowWriter.flush();
+        log.info("Exported {} accounts as {}", rows, format);
+        return rows;
+    }
+
+    private static Object[] values(Account account) {
+        return new Object[]{
+            account.getId(),
+            account.getAccountRef(),
+            account.getAccountName(),
+            account.getCurrency(),
+            account.getStatus(),
+            account.getCustomer().getId(),
+            account.getCustomer().getName(),
+            account.getCreatedAt(),
+            account.getCreatedBy(),
+            account.getUpdatedAt(),
+            account.getUpdatedBy()
+        };
+    }
+
+    private interface RowWriter {
+        void writeHeader() throws IOException;
+
+        void writeRow(Account account) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    /**
+     * RFC 4180 CSV: fields containing a separator, quote or line break are quoted
+     */
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writeLine(COLUMNS);
+        }
+
+        @Override
+        public void writeRow(Account account) throws IOException {
+            writeLine(values(account));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeLine(Object[] fields) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (fields[i] != null) {
+                    writeField(fields[i].toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    /**
+     * One JSON object per line, written with a streaming generator so no row objects are built
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            // Lines are separated explicitly, not by the generator's default root separator
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void writeHeader() {
+        }
+
+        @Override
+        public void writeRow(Account account) throws IOException {
+            Object[] values = values(account);
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                generator.writeFieldName(COLUMNS[i]);
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package dev.dsa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dsa.dto.AccountImportResult;
+import dev.dsa.dto.AccountImportRow;
+import dev.dsa.entity.Account;
+import dev.dsa.entity.Customer;
+import dev.dsa.exception.BusinessException;
+import dev.dsa.repository.AccountRepository;
+import dev.dsa.repository.CustomerRepository;
+import dev.dsa.util.CsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk account import from a streamed CSV or NDJSON file.
+ *
+ * The file is read one record at a time and processed in batches of app.import.batch-size rows.
+ * Each batch runs in its own transaction:
+ * - rows are validated in parallel,
+ * - duplicate references and unknown customers are rejected with one set-based query each,
+ * - the remaining rows get ids from the account sequence and are written with a single JDBC batch insert,
+ * - one summarized IMPORT audit record is written for the batch, plus a CREATE change set per account
+ *   so the entity history of an imported account starts from its full state.
+ * A batch that fails to insert is rolled back and reported; earlier batches stay committed. References
+ * count as seen by later batches only once their batch has committed, so a row repeated after a
+ * rolled back batch can still be imported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountImportService {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO accounts (id, account_ref, account_name, currency, status, customer_id, created_at, created_by, updated_at, updated_by) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("accountRef", "accountName", "currency", "customerId");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final AccountRepository accountRepository;
+    private final CustomerRepository customerRepository;
+    private final AccountSearchIndex accountSearchIndex;
+    private final AuditService auditService;
+    private final SequenceIdAllocator sequenceIdAllocator;
+    private final AuditorAware<String> auditorProvider;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    public AccountImportResult importAccounts(InputStream inputStream, String filename, ExportFormat format) {
+        log.info("Importing accounts from {} as {}", filename, format);
+        long start = System.nanoTime();
+
+        ImportRun run = new ImportRun(auditorProvider.getCurrentAuditor().orElse("system"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<AccountImportRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            RowSource source = format == ExportFormat.NDJSON ? new NdjsonRowSource(reader, run) : new CsvRowSource(reader, run);
+            AccountImportRow row;
+            while ((row = source.next()) != null) {
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    importBatch(batch, filename, run, transactionTemplate);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, filename, run, transactionTemplate);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("Could not read import file after " + run.imported + " imported rows: " + e.getMessage());
+        }
+
+        AccountImportResult result = AccountImportResult.builder()
+            .filename(filename)
+            .totalRows(run.totalRows)
+            .imported(run.imported)
+            .rejected(run.rejected)
+            .batches(run.batches)
+            .failedBatches(run.failedBatches)
+            .durationMs((System.nanoTime() - start) / 1_000_000)
+            .errors(run.errors)
+            .build();
+        log.info("Imported {} of {} accounts from {} in {}ms ({} rejected, {} batches, {} failed)",
+            result.getImported(), result.getTotalRows(), filename, result.getDurationMs(),
+            result.getRejected(), result.getBatches(), result.getFailedBatches());
+        return result;
+    }
+
+    private void importBatch(List<AccountImportRow> rows, String filename, ImportRun run,
+                             TransactionTemplate transactionTemplate) {
+        run.batches++;
+
+        // Bean validation is CPU-bound and independent per row
+        List<String> violations = rows.parallelStream().map(this::validate).toList();
+
+        List<AccountImportRow> valid = new ArrayList<>(rows.size());
+        Set<String> batchRefs = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            AccountImportRow row = rows.get(i);
+            if (violations.get(i) != null) {
+                run.reject(row, violations.get(i));
+            } else if (run.seenRefs.contains(row.getAccountRef()) || !batchRefs.add(row.getAccountRef())) {
+                run.reject(row, "Duplicate account reference in file");
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        long rejectedBefore = run.rejected;
+        try {
+            List<AccountImportRow> imported = transactionTemplate.execute(status -> insertBatch(valid, rows.size(), filename, run));
+            // Counted once committed, so a rolled back batch neither counts as imported nor claims its references
+            run.imported += imported.size();
+            imported.forEach(row -> run.seenRefs.add(row.getAccountRef()));
+        } catch (RuntimeException e) {
+            log.error("Account import batch {} from {} failed", run.batches, filename, e);
+            run.failedBatches++;
+            // Every row that reached the transaction is rejected, including any it had already rejected
+            run.rejected = rejectedBefore + valid.size();
+            run.addError(valid.get(0).getLineNumber(), null,
+                "Batch of " + valid.size() + " rows (lines " + valid.get(0).getLineNumber() + "-" +
+                    valid.get(valid.size() - 1).getLineNumber() + ") was rolled back: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Insert the rows that pass the database checks and return them
+     */
+    private List<AccountImportRow> insertBatch(List<AccountImportRow> rows, int batchRows, String filename, ImportRun run) {
+        Set<String> refs = rows.stream().map(AccountImportRow::getAccountRef).collect(Collectors.toSet());
+        Set<Long> customerIds = rows.stream().map(AccountImportRow::getCustomerId).collect(Collectors.toSet());
+        Set<String> existingRefs = accountRepository.findExistingAccountRefs(refs);
+        Set<Long> existingCustomers = customerRepository.findExistingIds(customerIds);
+
+        List<AccountImportRow> accepted = new ArrayList<>(rows.size());
+        for (AccountImportRow row : rows) {
+            if (existingRefs.contains(row.getAccountRef())) {
+                run.reject(row, "Account reference already exists");
+            } else if (!existingCustomers.contains(row.getCustomerId())) {
+                run.reject(row, "Customer not found: " + row.getCustomerId());
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Account> accounts = new ArrayList<>(accepted.size());
+        for (AccountImportRow row : accepted) {
+            Account account = Account.builder()
+                .id(sequenceIdAllocator.nextId(Account.ID_SEQUENCE))
+                .accountRef(row.getAccountRef())
+                .accountName(row.getAccountName())
+                .currency(row.getCurrency())
+                .status(Account.AccountStatus.valueOf(row.getStatus()))
+                .customer(Customer.builder().id(row.getCustomerId()).build())
+                .build();
+            account.setCreatedAt(now);
+            account.setCreatedBy(run.username);
+            account.setUpdatedAt(now);
+            account.setUpdatedBy(run.username);
+            accounts.add(account);
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_SQL, accounts, accounts.size(), (ps, account) -> {
+            ps.setLong(1, account.getId());
+            ps.setString(2, account.getAccountRef());
+            ps.setString(3, account.getAccountName());
+            ps.setString(4, account.getCurrency());
+            ps.setString(5, account.getStatus().name());
+            ps.setLong(6, account.getCustomer().getId());
+            ps.setTimestamp(7, timestamp);
+            ps.setString(8, account.getCreatedBy());
+            ps.setTimestamp(9, timestamp);
+            ps.setString(10, account.getUpdatedBy());
+        });
+        accountSearchIndex.indexAllAfterCommit(accounts);
+
+        // One summary row per batch rather than a CREATE per account; the id range ties the accounts to it.
+        // Their first change is audited as a checkpoint (see AuditCheckpoints), which starts their history.
+        auditService.logAction("IMPORT", "Account", null,
+            "Imported " + accepted.size() + " accounts from " + filename + " (batch " + run.batches + ", lines " +
+                accepted.get(0).getLineNumber() + "-" + accepted.get(accepted.size() - 1).getLineNumber() +
+ ", " + (batchRows - accepted.size()) + " rejected): " + accepted.get(0).getAccountRef() + " .. " +
+                accepted.get(accepted.size() - 1).getAccountRef() + ", ids " + accounts.get(0).getId() + "-" +
+                accounts.get(accounts.size() - 1).getId(),
+            null, null);
+
+        return accepted;
+    }
+
+    /**
+     * Normalize the row in place and return its violations, or null when it is valid
+     */
+    private String validate(AccountImportRow row) {
+        row.setAccountRef(trimToNull(row.getAccountRef()));
+        row.setAccountName(trimToNull(row.getAccountName()));
+        row.setCurrency(trimToNull(row.getCurrency()));
+        String status = trimToNull(row.getStatus());
+        row.setStatus(status != null ? status.toUpperCase(Locale.ROOT) : Account.AccountStatus.ACTIVE.name());
+
+        Set<ConstraintViolation<AccountImportRow>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Counters and error list for one import
+     */
+    private final class ImportRun {
+        private final String username;
+        private final Set<String> seenRefs = new HashSet<>();
+        private final List<AccountImportResult.RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long rejected;
+        private int batches;
+        private int failedBatches;
+
+        ImportRun(String username) {
+            this.username = username;
+        }
+
+        void reject(AccountImportRow row, String message) {
+            rejected++;
+            addError(row.getLineNumber(), row.getAccountRef(), message);
+        }
+
+        void addError(long lineNumber, String accountRef, String message) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(AccountImportResult.RowError.builder()
+                    .lineNumber(lineNumber)
+                    .accountRef(accountRef)
+                    .message(message)
+                    .build());
+            }
+        }
+    }
+
+    private interface RowSource {
+        /**
+         * Next parsed row, or null at end of input. Rows that cannot be parsed are rejected and skipped.
+         */
+        AccountImportRow next() throws IOException;
+    }
+
+    private static final class CsvRowSource implements RowSource {
+        private final CsvReader csvReader;
+        private final ImportRun run;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRowSource(BufferedReader reader, ImportRun run) throws IOException {
+            this.csvReader = new CsvReader(reader);
+            this.run = run;
+            List<String> header = csvReader.readRecord();
+            if (header == null) {
+                throw new BusinessException("Import file is empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column.toLowerCase(Locale.ROOT)))
+                .toList();
+            if (!missing.isEmpty()) {
+                throw new BusinessException("Import file is missing required columns: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        public AccountImportRow next() throws IOException {
+            List<String> record;
+            while ((record = csvReader.readRecord()) != null) {
+                run.totalRows++;
+                AccountImportRow row = AccountImportRow.builder()
+                    .accountRef(field(record, "accountRef"))
+                    .accountName(field(record, "accountName"))
+                    .currency(field(record, "currency"))
+                    .status(field(record, "status"))
+                    .lineNumber(csvReader.getRecordLine())
+                    .build();
+                String customerId = field(record, "customerId");
+                try {
+                    row.setCustomerId(customerId == null || customerId.isBlank() ? null : Long.valueOf(customerId.trim()));
+                } catch (NumberFormatException e) {
+                    run.reject(row, "Invalid customer ID: " + customerId);
+                    continue;
+                }
+                return row;
+            }
+            return null;
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+            return index != null && index < record.size() ? record.get(index) : null;
+        }
+    }
+
+    private final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private final ImportRun run;
+        private long lineNumber;
+
+        NdjsonRowSource(BufferedReader reader, ImportRun run) {
+            this.reader = reader;
+            this.run = run;
+        }
+
+        @Override
+        public AccountImportRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.totalRows++;
+                try {
+                    AccountImportRow row = objectMapper.readValue(line, AccountImportRow.class);
+                    row.setLineNumber(lineNumber);
+                    return row;
+                } catch (JsonProcessingException e) {
+                    run.reject(AccountImportRow.builder().lineNumber(lineNumber).build(),
+                        "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package dev.dsa.service;
+
+import dev.dsa.dto.AccountSearchRequest;
+import dev.dsa.entity.Account;
+import dev.dsa.entity.Customer;
+import dev.dsa.specification.AccountTextMatch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory trigram index over the account search text fields.
+ *
+ * Substring filters (accountRef, accountName, currency, createdBy, updatedBy and the
+ * customer name) are resolved to exact id sets here, so the database query gets an
+ * id restriction instead of a leading-wildcard LIKE that has to scan the table.
+ * Candidates from the trigram postings are verified against the stored value, so a
+ * resolved filter matches exactly the rows the LIKE would.
+ *
+ * The index is built from the database in the background once the application is
+ * ready and maintained from AccountService and CustomerService after each commit.
+ * Filters that cannot be resolved (shorter than a trigram, containing LIKE wildcards,
+ * too many matches, or the index is still building) fall back to the LIKE predicate.
+ *
+ * Rows are indexed under dense ordinals rather than their database ids, which pooled id
+ * allocation leaves sparse, and postings are sorted ordinal arrays: memory grows with
+ * the indexed text, not with the highest id.
+ */
+@Component
+@Slf4j
+public class AccountSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    enum Field {
+        ACCOUNT_REF("accountRef", AccountSearchRequest::getAccountRef),
+        ACCOUNT_NAME("accountName", AccountSearchRequest::getAccountName),
+        CURRENCY("currency", AccountSearchRequest::getCurrency),
+        CREATED_BY("createdBy", AccountSearchRequest::getCreatedBy),
+        UPDATED_BY("updatedBy", AccountSearchRequest::getUpdatedBy);
+
+        private final String property;
+        private final Function<AccountSearchRequest, String> criterion;
+
+        Field(String property, Function<AccountSearchRequest, String> criterion) {
+            this.property = property;
+            this.criterion = criterion;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    // Above this many matches an IN list stops paying off and the LIKE is used instead
+    @Value("${app.search.index.max-candidates:1000}")
+    private int maxCandidates;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private State state = new State();
+    private volatile boolean ready;
+
+    // Changes committed while the initial build is loading, replayed onto the new state
+    private List<Consumer<State>> pending;
+
+    public AccountSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "account-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Load the whole index from the database, then swap it in. Rebuilds are serialized.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            try {
+                long start = System.currentTimeMillis();
+                State fresh = new State();
+                jdbcTemplate.query("SELECT id, name FROM customers",
+                    rs -> { fresh.putCustomer(rs.getLong("id"), rs.getString("name")); });
+                jdbcTemplate.query(
+                    "SELECT id, account_ref, account_name, currency, created_by, updated_by, customer_id FROM accounts",
+                    rs -> {
+                        Map<Field, String> values = new EnumMap<>(Field.class);
+                        values.put(Field.ACCOUNT_REF, rs.getString("account_ref"));
+                        values.put(Field.ACCOUNT_NAME, rs.getString("account_name"));
+                        values.put(Field.CURRENCY, rs.getString("currency"));
+                        values.put(Field.CREATED_BY, rs.getString("created_by"));
+                        values.put(Field.UPDATED_BY, rs.getString("updated_by"));
+                        fresh.putAccount(rs.getLong("id"), values, rs.getLong("customer_id"));
+                    });
+
+                lock.writeLock().lock();
+                try {
+                    pending.forEach(change -> change.accept(fresh));
+                    pending = null;
+                    state = fresh;
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.info("Built account search index with {} accounts and {} customers in {}ms",
+                    fresh.customerByAccount.size(), fresh.customerNames.values.size(), System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                    ready = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.error("Could not build account search index, text search will use LIKE", e);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Resolve the text filters of a search to id sets. Unresolvable filters are left to the database.
+     */
+    public AccountTextMatch resolve(AccountSearchRequest searchRequest) {
+        if (!isReady() || searchRequest == null) {
+            return AccountTextMatch.none();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<String> resolved = new HashSet<>();
+            int[] accounts = null;
+            for (Field field : Field.values()) {
+                int[] matches = state.fields.get(field).match(field.criterion.apply(searchRequest));
+                if (matches != null) {
+                    accounts = accounts == null ? matches : intersect(accounts, accounts.length, matches, matches.length);
+                    resolved.add(field.property);
+                }
+            }
+            if (accounts != null && accounts.length > maxCandidates) {
+                resolved.clear();
+                accounts = null;
+            }
+
+            int[] customers = state.customerNames.match(searchRequest.getCustomerName());
+            if (customers != null && customers.length <= maxCandidates) {
+                resolved.add("customerName");
+            } else {
+                customers = null;
+            }
+
+            if (resolved.isEmpty()) {
+                return AccountTextMatch.none();
+            }
+            return new AccountTextMatch(resolved, state.accountOrdinals.toIds(accounts), state.customerOrdinals.toIds(customers));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index an account (created or updated) once the current transaction commits.
+     * Values are read after commit, when auditing has filled in createdBy/updatedBy.
+     */
+    public void indexAfterCommit(Account account) {
+        afterCommit(() -> {
+            Map<Field, String> values = textValues(account);
+            Long accountId = account.getId();
+            Long customerId = account.getCustomer().getId();
+            apply(state -> state.putAccount(accountId, values, customerId));
+        });
+    }
+
+    /**
+     * Index a batch of new accounts under a single write lock once the current transaction commits
+     */
+    public void indexAllAfterCommit(Collection<Account> accounts) {
+        afterCommit(() -> apply(state -> {
+            for (Account account : accounts) {
+                state.putAccount(account.getId(), textValues(account), account.getCustomer().getId());
+            }
+        }));
+    }
+
+    public void removeAfterCommit(Long accountId) {
+        afterCommit(() -> apply(state -> state.removeAccount(accountId)));
+    }
+
+    public void indexCustomerAfterCommit(Customer customer) {
+        afterCommit(() -> {
+            Long customerId = customer.getId();
+            String name = customer.getName();
+            apply(state -> state.putCustomer(customerId, name));
+        });
+    }
+
+    /**
+     * Remove a deleted customer and, since accounts are cascaded, all of their accounts
+     */
+    public void removeCustomerAfterCommit(Long customerId) {
+        afterCommit(() -> apply(state -> state.removeCustomer(customerId)));
+    }
+
+    private void apply(Consumer<State> change) {
+        if (!enabled) {
+            return;
+        }
+        boolean failed = false;
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            change.accept(state);
+        } catch (RuntimeException e) {
+            // Runs after the commit: do not fail the caller's write, but stop answering from an index missing it
+            log.error("Could not update account search index, text search will use LIKE until it is rebuilt", e);
+            ready = false;
+            failed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (failed) {
+            buildInBackground();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Map<Field, String> textValues(Account account) {
+        Map<Field, String> values = new EnumMap<>(Field.class);
+        values.put(Field.ACCOUNT_REF, account.getAccountRef());
+        values.put(Field.ACCOUNT_NAME, account.getAccountName());
+        values.put(Field.CURRENCY, account.getCurrency());
+        values.put(Field.CREATED_BY, account.getCreatedBy());
+        values.put(Field.UPDATED_BY, account.getUpdatedBy());
+        return values;
+    }
+
+    // Ordinals in both sorted arrays (the first leftLength and rightLength entries)
+    private static int[] intersect(int[] left, int leftLength, int[] right, int rightLength) {
+        int[] result = new int[Math.min(leftLength, rightLength)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < leftLength && j < rightLength) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Mutable index contents, guarded by the outer lock
+     */
+    private static final class State {
+        private final Map<Field, TextIndex> fields = new EnumMap<>(Field.class);
+        private final TextIndex customerNames = new TextIndex();
+        private final Ordinals accountOrdinals = new Ordinals();
+        private final Ordinals customerOrdinals = new Ordinals();
+        private final Map<Long, Long> customerByAccount = new HashMap<>();
+
+        State() {
+            for (Field field : Field.values()) {
+                fields.put(field, new TextIndex());
+            }
+        }
+
+        void putAccount(Long accountId, Map<Field, String> values, Long customerId) {
+            int ordinal = accountOrdinals.acquire(accountId);
+            values.forEach((field, value) -> fields.get(field).put(ordinal, value));
+            customerByAccount.put(accountId, customerId);
+        }
+
+        void removeAccount(Long accountId) {
+            Integer ordinal = accountOrdinals.find(accountId);
+            if (ordinal != null) {
+                fields.values().forEach(index -> index.remove(ordinal));
+                accountOrdinals.release(accountId);
+            }
+            customerByAccount.remove(accountId);
+        }
+
+        void putCustomer(Long customerId, String name) {
+            customerNames.put(customerOrdinals.acquire(customerId), name);
+        }
+
+        void removeCustomer(Long customerId) {
+            Integer ordinal = customerOrdinals.find(customerId);
+            if (ordinal != null) {
+                customerNames.remove(ordinal);
+                customerOrdinals.release(customerId);
+            }
+            List<Long> accountIds = new ArrayList<>();
+            customerByAccount.forEach((accountId, owner) -> {
+                if (customerId.equals(owner)) {
+                    accountIds.add(accountId);
+                }
+            });
+            accountIds.forEach(this::removeAccount);
+        }
+    }
+
+    /**
+     * Dense ordinals for database ids; ordinals of removed rows are reused before new ones are issued
+     */
+    private static final class Ordinals {
+        private final Map<Long, Integer> ordinalById = new HashMap<>();
+        private long[] idByOrdinal = new long[64];
+        private int nextOrdinal;
+        private int[] free = new int[16];
+        private int freeCount;
+
+        int acquire(Long id) {
+            Integer existing = ordinalById.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            int ordinal;
+            if (freeCount > 0) {
+                ordinal = free[--freeCount];
+            } else {
+                ordinal = nextOrdinal++;
+                if (ordinal == idByOrdinal.length) {
+                    idByOrdinal = Arrays.copyOf(idByOrdinal, ordinal * 2);
+                }
+            }
+            idByOrdinal[ordinal] = id;
+            ordinalById.put(id, ordinal);
+            return ordinal;
+        }
+
+        Integer find(Long id) {
+            return ordinalById.get(id);
+        }
+
+        void release(Long id) {
+            Integer ordinal = ordinalById.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++] = ordinal;
+        }
+
+        List<Long> toIds(int[] ordinals) {
+            if (ordinals == null) {
+                return null;
+            }
+            List<Long> ids = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                ids.add(idByOrdinal[ordinal]);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Sorted, distinct ordinals of the rows containing one trigram
+     */
+    private static final class Posting {
+        private int[] ordinals = new int[2];
+        private int size;
+
+        void add(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+            ordinals[index] = ordinal;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            size--;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /**
+     * Trigram postings plus the lowercased value of every indexed row, for verification
+     */
+    private static final class TextIndex {
+        private final Map<String, Posting> postings = new HashMap<>();
+        private final Map<Integer, String> values = new HashMap<>();
+
+        void put(int ordinal, String value) {
+            remove(ordinal);
+            if (value == null) {
+                return;
+            }
+            String normalized = value.toLowerCase(Locale.ROOT);
+            values.put(ordinal, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, k -> new Posting()).add(ordinal);
+            }
+        }
+
+        void remove(int ordinal) {
+            String previous = values.remove(ordinal);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : grams(previous)) {
+                Posting posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(ordinal);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Sorted ordinals whose value contains the text (case-insensitive), or null if the text cannot be answered here
+         */
+        int[] match(String text) {
+            if (text == null || text.trim().isEmpty()) {
+                return null;
+            }
+            String query = text.toLowerCase(Locale.ROOT);
+            // LIKE treats % and _ as wildcards; leave those to the database
+            if (query.length() < GRAM_LENGTH || query.indexOf('%') >= 0 || query.indexOf('_') >= 0) {
+                return null;
+            }
+
+            // Intersect postings, smallest first
+            List<Posting> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Posting posting = postings.get(gram);
+                if (posting == null) {
+                    return new int[0];
+                }
+                lists.add(posting);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+            int[] candidates = Arrays.copyOf(lists.get(0).ordinals, lists.get(0).size);
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, candidates.length, lists.get(i).ordinals, lists.get(i).size);
+            }
+
+            // Trigrams can match out of order, so confirm the substring
+            int size = 0;
+            for (int ordinal : candidates) {
+                if (values.get(ordinal).contains(query)) {
+                    candidates[size++] = ordinal;
+                }
+            }
+            return size == candidates.length ? candidates : Arrays.copyOf(candidates, size);
+        }
+
+        private static Set<String> grams(String value) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM_LENGTH));
+            }
+            return grams;
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package dev.dsa.service;
 
+import dev.dsa.dto.AccountListRow;
 import dev.dsa.dto.AccountSearchRequest;
+import dev.dsa.dto.KeysetPage;
 import dev.dsa.entity.Account;
 import dev.dsa.entity.Customer;
 import dev.dsa.exception.BusinessException;
 import dev.dsa.exception.ResourceNotFoundException;
+import dev.dsa.repository.AccountFetchPlan;
 import dev.dsa.repository.AccountRepository;
 import dev.dsa.repository.CustomerRepository;
 import dev.dsa.specification.AccountSpecification;
+import dev.dsa.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +36,18 @@ public class AccountService {
     private final AccountRepository accountRepository;
     private final CustomerRepository customerRepository;
     private final AuditService auditService;
+    private final PageCountService pageCountService;
+    private final AccountSearchIndex accountSearchIndex;
+
+    private static final String ACCOUNTS_LISTING = "accounts";
+
+    // Fields the keyset search can sort by, with the accessor for the cursor key
+    private static final Map<String, Function<AccountListRow, Object>> KEYSET_SORT_FIELDS = Map.of(
+        "id", AccountListRow::getId,
+        "accountRef", AccountListRow::getAccountRef,
+        "accountName", AccountListRow::getAccountName,
+        "createdAt", AccountListRow::getCreatedAt
+    );
 
     @Transactional
     public Account createAccount(Account account, Long customerId) {
@@ -41,10 +62,11 @@ public class AccountService {
 
         account.setCustomer(customer);
         Account savedAccount = accountRepository.save(account);
+        accountSearchIndex.indexAfterCommit(savedAccount);
 
-        auditService.logAction("CREATE", "Account", savedAccount.getId(),
+        auditService.logChanges("CREATE", "Account", savedAccount.getId(),
             "Created account: " + savedAccount.getAccountRef() + " for customer: " + customer.getName(),
-            null, savedAccount.toString());
+            null, auditService.snapshot(savedAccount));
 
         return savedAccount;
     }
@@ -56,17 +78,18 @@ public class AccountService {
         Account account = accountRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Account", id));
 
-        String oldValue = account.toString();
+        Map<String, String> before = auditService.snapshot(account);
 
         account.setAccountName(accountDetails.getAccountName());
         account.setCurrency(accountDetails.getCurrency());
         account.setStatus(accountDetails.getStatus());
 
         Account updatedAccount = accountRepository.save(account);
+        accountSearchIndex.indexAfterCommit(updatedAccount);
 
-        auditService.logAction("UPDATE", "Account", updatedAccount.getId(),
+        auditService.logChanges("UPDATE", "Account", updatedAccount.getId(),
             "Updated account: " + updatedAccount.getAccountRef(),
-            oldValue, updatedAccount.toString());
+            before, auditService.snapshot(updatedAccount));
 
         return updatedAccount;
     }
@@ -80,9 +103,10 @@ public class AccountService {
 
         String accountRef = account.getAccountRef();
         accountRepository.delete(account);
+        accountSearchIndex.removeAfterCommit(id);
 
-        auditService.logAction("DELETE", "Account", id,
-            "Deleted account: " + accountRef, account.toString(), null);
+        auditService.logChanges("DELETE", "Account", id,
+            "Deleted account: " + accountRef, auditService.snapshot(account), null);
     }
 
     @Transactional(readOnly = true)
@@ -95,11 +119,24 @@ public class AccountService {
         return accountRepository.findById(id);
     }
 
+    /**
+     * Load an account with the associations the caller is going to render
+     */
+    @Transactional(readOnly = true)
+    public Optional<Account> getAccountById(Long id, AccountFetchPlan fetchPlan) {
+        return accountRepository.findById(id, fetchPlan);
+    }
+
     @Transactional(readOnly = true)
     public List<Account> getAccountsByCustomerId(Long customerId) {
         return accountRepository.findByCustomerId(customerId);
     }
 
+    @Transactional(readOnly = true)
+    public List<AccountListRow> getAccountRowsByCustomerId(Long customerId) {
+        return accountRepository.findListRowsByCustomerId(customerId);
+    }
+
     @Transactional(readOnly = true)
     public List<Account> getAccountsByStatus(Account.AccountStatus status) {
         return accountRepository.findByStatus(status);
@@ -112,25 +149,110 @@ public class AccountService {
 
     @Transactional(readOnly = true)
     public List<Account> searchAccounts(AccountSearchRequest searchRequest) {
-        log.info("Searching accounts with criteria: {}", searchRequest);
+        return searchAccounts(searchRequest, AccountFetchPlan.ACCOUNT_ONLY);
+    }
 
-        if (searchRequest == null || searchRequest.isEmpty()) {
-            return getAllAccounts();
-        }
+    @Transactional(readOnly = true)
+    public List<Account> searchAccounts(AccountSearchRequest searchRequest, AccountFetchPlan fetchPlan) {
+        log.info("Searching accounts with criteria: {} (fetch: {})", searchRequest, fetchPlan);
+
+        Specification<Account> specification = searchRequest != null && !searchRequest.isEmpty()
+            ? AccountSpecification.withSearchCriteria(searchRequest, accountSearchIndex.resolve(searchRequest))
+            : AccountSpecification.withSearchCriteria(new AccountSearchRequest());
+        return accountRepository.findAll(specification, Sort.unsorted(), fetchPlan);
+    }
+
+    /**
+     * Offset paginated search. The total is obtained with the count strategy configured for
+     * the "accounts" listing; with NONE the result is a Slice without a total.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Account> searchAccountsWithPagination(AccountSearchRequest searchRequest, Pageable pageable) {
+        return searchAccountsWithPagination(searchRequest, pageable, pageCountService.strategyFor(ACCOUNTS_LISTING));
+    }
 
-        Specification<Account> specification = AccountSpecification.withSearchCriteria(searchRequest);
-        return accountRepository.findAll(specification);
+    @Transactional(readOnly = true)
+    public Slice<Account> searchAccountsWithPagination(AccountSearchRequest searchRequest, Pageable pageable,
+                                                       CountStrategy countStrategy) {
+        log.info("Searching accounts with criteria: {} and pagination: {} (count: {})", searchRequest, pageable, countStrategy);
+
+        AccountSearchRequest criteria = searchRequest == null || searchRequest.isEmpty() ? null : searchRequest.normalized();
+        Specification<Account> specification = criteria != null
+            ? AccountSpecification.withSearchCriteria(criteria, accountSearchIndex.resolve(criteria))
+            : AccountSpecification.withSearchCriteria(new AccountSearchRequest());
+        return pageCountService.findPage(accountRepository, specification, pageable, countStrategy, "accounts", criteria);
     }
 
+    /**
+     * Keyset (seek) paginated search. Each page continues from the row identified by the cursor,
+     * so deep pages cost the same as the first one. The total is only counted when includeCount is set.
+     * Rows are list projections joined to the customer, so a page is a single statement.
+     */
     @Transactional(readOnly = true)
-    public Page<Account> searchAccountsWithPagination(AccountSearchRequest searchRequest, Pageable pageable) {
-        log.info("Searching accounts with criteria: {} and pagination: {}", searchRequest, pageable);
+    public KeysetPage<AccountListRow> searchAccountsWithKeyset(AccountSearchRequest searchRequest, String cursor,
+                                                        String sortField, int size, boolean includeCount) {
+        log.info("Searching accounts with criteria: {} and cursor: {}", searchRequest, cursor);
+
+        KeysetCursor position = cursor != null && !cursor.isBlank() ? KeysetCursor.decode(cursor) : null;
+        String sortBy = position != null ? position.getSortField() : sortField;
+        if (sortBy == null || sortBy.isBlank()) {
+            sortBy = "id";
+        }
+        if (!KEYSET_SORT_FIELDS.containsKey(sortBy)) {
+            throw new BusinessException("Unsupported sort field: " + sortBy);
+        }
+
+        Specification<Account> specification = searchRequest != null
+            ? AccountSpecification.withSearchCriteria(searchRequest, accountSearchIndex.resolve(searchRequest))
+            : AccountSpecification.withSearchCriteria(new AccountSearchRequest());
+        Specification<Account> pageSpecification = position != null
+            ? specification.and(position.toSpecification()) : specification;
+
+        // A backward page is read in reverse order towards the start, then flipped back;
+        // one extra row tells whether there is more beyond this page
+        boolean backward = position != null && position.getDirection() == KeysetCursor.Direction.BACKWARD;
+        List<AccountListRow> content = new ArrayList<>(
+            accountRepository.findListRows(pageSpecification, KeysetCursor.sort(sortBy, backward), size + 1));
+        boolean hasMore = content.size() > size;
+        if (hasMore) {
+            content.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(content);
+        }
 
-        if (searchRequest == null || searchRequest.isEmpty()) {
-            return accountRepository.findAll(pageable);
+        boolean hasPrevious = backward ? hasMore : position != null;
+        boolean hasNext = backward || hasMore;
+
+        Function<AccountListRow, Object> sortKey = KEYSET_SORT_FIELDS.get(sortBy);
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!content.isEmpty()) {
+            AccountListRow first = content.get(0);
+            AccountListRow last = content.get(content.size() - 1);
+            if (hasNext) {
+                nextCursor = new KeysetCursor(KeysetCursor.Direction.FORWARD, sortBy, sortKey.apply(last), last.getId()).encode();
+            }
+            if (hasPrevious) {
+                previousCursor = new KeysetCursor(KeysetCursor.Direction.BACKWARD, sortBy, sortKey.apply(first), first.getId()).encode();
+            }
         }
 
-        Specification<Account> specification = AccountSpecification.withSearchCriteria(searchRequest);
-        return accountRepository.findAll(specification, pageable);
+        return KeysetPage.<AccountListRow>builder()
+            .content(content)
+            .size(size)
+            .sortField(sortBy)
+            .hasNext(hasNext)
+            .hasPrevious(hasPrevious)
+            .nextCursor(nextCursor)
+            .previousCursor(previousCursor)
+            .totalElements(includeCount ? countAccounts(searchRequest, specification) : null)
+            .build();
+    }
+
+    private long countAccounts(AccountSearchRequest searchRequest, Specification<Account> specification) {
+        CountStrategy strategy = pageCountService.strategyFor(ACCOUNTS_LISTING);
+        AccountSearchRequest criteria = searchRequest == null || searchRequest.isEmpty() ? null : searchRequest.normalized();
+        return pageCountService.count(strategy, "accounts", criteria, () -> accountRepository.count(specification));
     }
 }
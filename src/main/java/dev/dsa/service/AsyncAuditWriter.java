@@ -0,0 +1,339 @@
+package dev.dsa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dsa.entity.AuditLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background writer for audit events when app.audit.mode=async.
+ *
+ * Events are queued in a bounded buffer and written by a single daemon thread
+ * using JDBC batch inserts. When the buffer is full, events are appended to a
+ * local spill file (if configured) and replayed once the buffer drains.
+ * Remaining events are flushed on shutdown.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncAuditWriter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO audit_logs (id, username, action, entity_type, entity_id, details, old_value, new_value, changes, ip_address, timestamp) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    @Value("${app.audit.mode:sync}")
+    private String mode;
+
+    @Value("${app.audit.async.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${app.audit.async.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.async.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.async.spill-file:}")
+    private String spillFile;
+
+    private BlockingQueue<AuditLog> buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // Serializes spill file appends against replay
+    private final ReentrantLock spillLock = new ReentrantLock();
+
+    // Backpressure metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong highWaterMark = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Async audit writer started (capacity: {}, batch size: {}, flush interval: {}ms, spill file: {})",
+            bufferCapacity, batchSize, flushIntervalMs, spillFile.isBlank() ? "disabled" : spillFile);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        // The writer wakes up at least every flush interval, so no interrupt is needed
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Drain anything the writer thread did not get to
+        flushAll();
+        log.info("Async audit writer stopped - {}", getStats());
+    }
+
+    public boolean isEnabled() {
+        return "async".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Queue an audit event. Never blocks the caller: if the buffer is full the
+     * event goes to the spill file, or is dropped when no spill file is configured.
+     */
+    public void submit(AuditLog auditLog) {
+        if (buffer.offer(auditLog)) {
+            enqueued.incrementAndGet();
+            highWaterMark.accumulateAndGet(buffer.size(), Math::max);
+            return;
+        }
+        if (!spillFile.isBlank() && spill(auditLog)) {
+            spilled.incrementAndGet();
+            return;
+        }
+        dropped.incrementAndGet();
+        log.warn("Audit buffer full, dropped event - User: {}, Action: {}", auditLog.getUsername(), auditLog.getAction());
+    }
+
+    public Stats getStats() {
+        return Stats.builder()
+            .mode(mode)
+            .queueDepth(buffer != null ? buffer.size() : 0)
+            .capacity(bufferCapacity)
+            .highWaterMark(highWaterMark.get())
+            .enqueued(enqueued.get())
+            .written(written.get())
+            .batches(batches.get())
+            .spilled(spilled.get())
+            .replayed(replayed.get())
+            .dropped(dropped.get())
+            .rejected(rejected.get())
+            .failed(failed.get())
+            .build();
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditLog first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                if (buffer.isEmpty()) {
+                    replaySpillFile();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Unexpected error in audit writer", e);
+            }
+        }
+    }
+
+    private void flushAll() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, auditLog) -> {
+                // Ids are allocated per attempt, so a batch that failed and was spilled gets fresh ones on replay
+                ps.setLong(1, sequenceIdAllocator.nextId(AuditLog.ID_SEQUENCE));
+                ps.setString(2, auditLog.getUsername());
+                ps.setString(3, auditLog.getAction());
+                ps.setString(4, auditLog.getEntityType());
+                if (auditLog.getEntityId() != null) {
+                    ps.setLong(5, auditLog.getEntityId());
+                } else {
+                    ps.setNull(5, Types.BIGINT);
+                }
+                ps.setString(6, auditLog.getDetails());
+                ps.setString(7, auditLog.getOldValue());
+                ps.setString(8, auditLog.getNewValue());
+                ps.setString(9, auditLog.getChanges());
+                ps.setString(10, auditLog.getIpAddress());
+                ps.setTimestamp(11, Timestamp.valueOf(auditLog.getTimestamp()));
+            });
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Failed to write audit batch of {} events", batch.size(), e);
+            // Keep the events if we have somewhere to put them
+            for (AuditLog auditLog : batch) {
+                if (spillFile.isBlank() || !spill(auditLog)) {
+                    failed.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private boolean spill(AuditLog auditLog) {
+        spillLock.lock();
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(spillFile), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(objectMapper.writeValueAsString(auditLog));
+            writer.newLine();
+            return true;
+        } catch (IOException e) {
+            log.error("Could not spill audit event to {}", spillFile, e);
+            return false;
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Replay spilled events. A replay file left behind by an earlier, interrupted replay is finished
+     * first; the spill file is only rotated once no replay file exists, so it never overwrites one.
+     * Lines that do not parse (e.g. torn by a crash mid-append) go to the rejected file and are skipped.
+     */
+    void replaySpillFile() {
+        if (spillFile.isBlank()) {
+            return;
+        }
+        Path spillPath = Paths.get(spillFile);
+        Path replayPath = Paths.get(spillFile + ".replay");
+
+        spillLock.lock();
+        try {
+            if (!Files.exists(replayPath)) {
+                if (!Files.exists(spillPath)) {
+                    return;
+                }
+                Files.move(spillPath, replayPath);
+            }
+        } catch (IOException e) {
+            log.error("Could not rotate audit spill file {}", spillFile, e);
+            return;
+        } finally {
+            spillLock.unlock();
+        }
+
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                AuditLog auditLog = parseSpilledEvent(line);
+                if (auditLog == null) {
+                    continue;
+                }
+                batch.add(auditLog);
+                if (batch.size() >= batchSize) {
+                    replayed.addAndGet(batch.size());
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                replayed.addAndGet(batch.size());
+                writeBatch(batch);
+            }
+            Files.delete(replayPath);
+            log.info("Replayed audit spill file {}", spillFile);
+        } catch (IOException e) {
+            log.error("Could not replay audit spill file {}, retrying on the next drain", replayPath, e);
+        }
+    }
+
+    private AuditLog parseSpilledEvent(String line) {
+        try {
+            return objectMapper.readValue(line, AuditLog.class);
+        } catch (IOException e) {
+            rejected.incrementAndGet();
+            log.warn("Skipping unreadable audit spill line, kept in {}.rejected: {}", spillFile, e.getMessage());
+            try {
+                Files.writeString(Paths.get(spillFile + ".rejected"), line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException writeError) {
+                log.error("Could not keep unreadable audit spill line in {}.rejected", spillFile, writeError);
+            }
+            return null;
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Stats {
+        private final String mode;
+        private final int queueDepth;
+        private final int capacity;
+        private final long highWaterMark;
+        private final long enqueued;
+        private final long written;
+        private final long batches;
+        private final long spilled;
+        private final long replayed;
+        private final long dropped;
+        // Spilled lines that could not be parsed on replay
+        private final long rejected;
+        private final long failed;
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "mode='" + mode + '\'' +
+                    ", queueDepth=" + queueDepth +
+                    ", written=" + written +
+                    ", batches=" + batches +
+                    ", spilled=" + spilled +
+                    ", dropped=" + dropped +
+                    ", rejected=" + rejected +
+                    ", failed=" + failed +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dev.dsa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Field-level changes of one audited entity change: field name to [before, after], unchanged fields
+ * left out. A CREATE has only "after" values and a DELETE only "before" values. A checkpoint change set
+ * also carries the values of the unchanged fields, so the entity's full state can be rebuilt from it
+ * without replaying older change sets.
+ *
+ * Stored in AuditLog.changes as compact JSON, e.g. {"changes":{"status":["ACTIVE","CLOSED"]}}, with an
+ * additional "unchanged" object on checkpoints. Larger change sets are deflated and Base64 encoded
+ * behind a "z:" prefix when that comes out shorter.
+ */
+public final class AuditChangeSet {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<TreeMap<String, String[]>> CHANGES_TYPE = new TypeReference<>() {};
+    private static final TypeReference<TreeMap<String, String>> UNCHANGED_TYPE = new TypeReference<>() {};
+
+    private static final String CHANGES = "changes";
+    private static final String UNCHANGED = "unchanged";
+
+    private static final String DEFLATED_PREFIX = "z:";
+
+    // Below this many bytes of JSON, deflate plus Base64 never pays off
+    private static final int COMPRESSION_THRESHOLD = 128;
+
+    private final Map<String, String[]> changes;
+    // Only kept on checkpoints
+    private final Map<String, String> unchanged;
+
+    private AuditChangeSet(Map<String, String[]> changes, Map<String, String> unchanged) {
+        this.changes = changes;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * Changes between two snapshots; either may be null (CREATE, DELETE)
+     */
+    public static AuditChangeSet between(Map<String, String> before, Map<String, String> after) {
+        return diff(before, after, null);
+    }
+
+    /**
+     * Changes between two snapshots that also keep the unchanged values, see stateBefore and stateAfter
+     */
+    public static AuditChangeSet checkpoint(Map<String, String> before, Map<String, String> after) {
+        return diff(before, after, new TreeMap<>());
+    }
+
+    public static AuditChangeSet decode(String encoded) {
+        try {
+            String json = encoded.startsWith(DEFLATED_PREFIX)
+                ? inflate(Base64.getDecoder().decode(encoded.substring(DEFLATED_PREFIX.length())))
+                : encoded;
+            JsonNode root = JSON.readTree(json);
+            if (!root.path(CHANGES).isObject()) {
+                throw new IllegalArgumentException("No changes object");
+            }
+            return new AuditChangeSet(JSON.convertValue(root.get(CHANGES), CHANGES_TYPE),
+                root.has(UNCHANGED) ? JSON.convertValue(root.get(UNCHANGED), UNCHANGED_TYPE) : null);
+        } catch (JsonProcessingException | IllegalArgumentException | DataFormatException e) {
+            throw new IllegalArgumentException("Malformed audit change set", e);
+        }
+    }
+
+    public String encode() {
+        String json;
+        try {
+            Map<String, Object> root = new LinkedHashMap<>();
+            root.put(CHANGES, changes);
+            if (unchanged != null) {
+                root.put(UNCHANGED, unchanged);
+            }
+            json = JSON.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize audit change set", e);
+        }
+        if (json.length() < COMPRESSION_THRESHOLD) {
+            return json;
+        }
+        String deflated = DEFLATED_PREFIX + Base64.getEncoder().withoutPadding()
+            .encodeToString(deflate(json.getBytes(StandardCharsets.UTF_8)));
+        return deflated.length() < json.length() ? deflated : json;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public boolean contains(String field) {
+        return changes.containsKey(field);
+    }
+
+    /**
+     * Field name to [before, after], in field name order
+     */
+    public Map<String, String[]> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * Whether this change set carries the entity's full state (see stateBefore and stateAfter)
+     */
+    public boolean isCheckpoint() {
+        return unchanged != null;
+    }
+
+    /**
+     * Full entity state before this change, or null unless this is a checkpoint
+     */
+    public Map<String, String> stateBefore() {
+        return state(0);
+    }
+
+    /**
+     * Full entity state after this change, or null unless this is a checkpoint
+     */
+    public Map<String, String> stateAfter() {
+        return state(1);
+    }
+
+    /**
+     * Roll a reconstructed entity state forward over this change
+     */
+    public void applyTo(Map<String, String> state) {
+        changes.forEach((field, values) -> state.put(field, values[1]));
+    }
+
+    private Map<String, String> state(int side) {
+        if (unchanged == null) {
+            return null;
+        }
+        Map<String, String> state = new TreeMap<>(unchanged);
+        changes.forEach((field, values) -> {
+            if (values[side] != null) {
+                state.put(field, values[side]);
+            }
+        });
+        return state;
+    }
+
+    private static AuditChangeSet diff(Map<String, String> before, Map<String, String> after,
+                                       Map<String, String> unchanged) {
+        Map<String, String> from = before != null ? before : Map.of();
+        Map<String, String> to = after != null ? after : Map.of();
+        Map<String, String[]> changes = new TreeMap<>();
+        for (String field : union(from, to)) {
+            String oldValue = from.get(field);
+            String newValue = to.get(field);
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.put(field, new String[] {oldValue, newValue});
+            } else if (unchanged != null && from.containsKey(field) && to.containsKey(field)) {
+                unchanged.put(field, newValue);
+            }
+        }
+        return new AuditChangeSet(changes, unchanged);
+    }
+
+    private static Iterable<String> union(Map<String, String> first, Map<String, String> second) {
+        TreeMap<String, Boolean> fields = new TreeMap<>();
+        first.keySet().forEach(field -> fields.put(field, Boolean.TRUE));
+        second.keySet().forEach(field -> fields.put(field, Boolean.TRUE));
+        return fields.keySet();
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated audit change set");
+                }
+                output.write(buffer, 0, length);
+            }
+            return output.toString(StandardCharsets.UTF_8);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.dsa.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decides which change sets are written as checkpoints (see AuditChangeSet.checkpoint), so an entity's
+ * history is rebuilt from its nearest checkpoint or CREATE instead of from all of its change sets.
+ *
+ * The change sets logged since each entity's last checkpoint are counted in the auditCheckpoints cache.
+ * An entity without a count (first change since startup, evicted, or bulk imported without a CREATE)
+ * gets a checkpoint, so losing a count only brings the next checkpoint forward. Counts are updated once
+ * the audited transaction commits, so a rolled back checkpoint is not taken for a written one.
+ */
+@Component
+public class AuditCheckpoints {
+
+    private static final String CHECKPOINT_CACHE = "auditCheckpoints";
+
+    private final Cache counts;
+    private final int interval;
+
+    public AuditCheckpoints(CacheManager cacheManager, @Value("${app.audit.checkpoint-interval:20}") int interval) {
+        this.counts = cacheManager.getCache(CHECKPOINT_CACHE);
+        this.interval = Math.max(1, interval);
+    }
+
+    /**
+     * Change sets between two checkpoints of an entity, as configured; a history replay reads about this many
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Whether the next UPDATE change set of the entity should carry its full state
+     */
+    public boolean isDue(String entityType, Long entityId) {
+        Integer count = counts.get(key(entityType, entityId), Integer.class);
+        return count == null || count + 1 >= interval;
+    }
+
+    /**
+     * Count a change set of the entity; base is true for a checkpoint or CREATE, which restarts the count
+     */
+    public void record(String entityType, Long entityId, boolean base) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(entityType, entityId, base);
+                }
+            });
+        } else {
+            count(entityType, entityId, base);
+        }
+    }
+
+    /**
+     * Forget the entity, e.g. after its DELETE
+     */
+    public void forget(String entityType, Long entityId) {
+        counts.evict(key(entityType, entityId));
+    }
+
+    private void count(String entityType, Long entityId, boolean base) {
+        String key = key(entityType, entityId);
+        Integer count = counts.get(key, Integer.class);
+        if (base) {
+            counts.put(key, 0);
+        } else if (count != null) {
+            counts.put(key, count + 1);
+        }
+    }
+
+    private static String key(String entityType, Long entityId) {
+        return entityType + ":" + entityId;
+    }
+}
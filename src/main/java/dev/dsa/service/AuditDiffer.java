@@ -0,0 +1,122 @@
+package dev.dsa.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Flattens any JPA entity (Auditable or not) into field name to value strings for AuditChangeSet.
+ *
+ * Basic attributes are rendered as strings, to-one associations as the referenced id and owning
+ * to-many associations as the sorted referenced ids. The id, inverse collections (they can be
+ * large and are audited on their owning side) and the last-modified bookkeeping fields (already
+ * on every audit row as username and timestamp) are left out.
+ */
+@Component
+public class AuditDiffer {
+
+    private static final Set<String> IGNORED_FIELDS = Set.of("updatedAt", "updatedBy");
+
+    private final Metamodel metamodel;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final Map<Class<?>, List<Property>> properties = new ConcurrentHashMap<>();
+
+    public AuditDiffer(EntityManagerFactory entityManagerFactory) {
+        this.metamodel = entityManagerFactory.getMetamodel();
+        this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+    }
+
+    /**
+     * Current state of an entity; take it before modifying the entity to audit an update
+     */
+    public Map<String, String> snapshot(Object entity) {
+        Object target = Hibernate.unproxy(entity);
+        Map<String, String> snapshot = new TreeMap<>();
+        for (Property property : properties.computeIfAbsent(target.getClass(), this::describe)) {
+            Object value = ReflectionUtils.getField(property.field(), target);
+            snapshot.put(property.name(), render(property.kind(), value));
+        }
+        return snapshot;
+    }
+
+    private String render(Kind kind, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (kind) {
+            case BASIC -> value instanceof Enum<?> constant ? constant.name() : value.toString();
+            case REFERENCE -> String.valueOf(persistenceUnitUtil.getIdentifier(value));
+            case REFERENCES -> {
+                // Ids are comparable (Long), so the rendering does not depend on collection order
+                Set<Object> ids = new TreeSet<>();
+                for (Object element : (Collection<?>) value) {
+                    ids.add(persistenceUnitUtil.getIdentifier(element));
+                }
+                yield ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+            }
+        };
+    }
+
+    private List<Property> describe(Class<?> entityClass) {
+        EntityType<?> type = metamodel.entity(entityClass);
+        List<Property> described = new ArrayList<>();
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            if (IGNORED_FIELDS.contains(attribute.getName()) || !(attribute.getJavaMember() instanceof Field field)) {
+                continue;
+            }
+            if (attribute instanceof SingularAttribute<?, ?> singular && singular.isId()) {
+                continue;
+            }
+            Kind kind;
+            if (attribute.isCollection()) {
+                if (!isOwningSide(field)) {
+                    continue;
+                }
+                kind = Kind.REFERENCES;
+            } else if (attribute.isAssociation()) {
+                kind = Kind.REFERENCE;
+            } else {
+                kind = Kind.BASIC;
+            }
+            ReflectionUtils.makeAccessible(field);
+            described.add(new Property(attribute.getName(), field, kind));
+        }
+        return List.copyOf(described);
+    }
+
+    private static boolean isOwningSide(Field field) {
+        OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+        ManyToMany manyToMany = field.getAnnotation(ManyToMany.class);
+        String mappedBy = oneToMany != null ? oneToMany.mappedBy() : manyToMany != null ? manyToMany.mappedBy() : null;
+        // Element collections and other plural attributes are not associations to other entities
+        return mappedBy != null && mappedBy.isEmpty();
+    }
+
+    private enum Kind {
+        BASIC,
+        REFERENCE,
+        REFERENCES
+    }
+
+    private record Property(String name, Field field, Kind kind) {
+    }
+}
@@ -0,0 +1,485 @@
+package dev.dsa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dsa.config.AuditPartitionProperties;
+import dev.dsa.repository.AuditLogPartitionQueries;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Time-based storage for the audit log.
+ *
+ * On PostgreSQL audit_logs is range partitioned by month (db/postgresql/audit-partitioning.sql):
+ * partitions are created ahead of time and the planner prunes them by timestamp. H2 has no
+ * partitioning, so there audit_logs is the hot table and closed months are rolled into
+ * audit_logs_yyyyMM tables, which queries are routed to by time range. Either way, months older
+ * than the retention window are archived to gzipped NDJSON files (optional) and dropped, and on
+ * PostgreSQL expired rows in the default partition are archived and deleted the same way.
+ */
+@Component
+@Slf4j
+public class AuditPartitionManager {
+
+    public static final String PARENT_TABLE = "audit_logs";
+
+    // PostgreSQL: catches rows outside every monthly partition (db/postgresql/audit-partitioning.sql)
+    private static final String DEFAULT_PARTITION = "audit_logs_default";
+
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern MONTHLY_TABLE = Pattern.compile("(?i)audit_logs_(\\d{6})");
+
+    private final AuditPartitionProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditLogPartitionQueries partitionQueries;
+    private final ObjectMapper objectMapper;
+
+    // Serializes scheduled and manually triggered maintenance
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    private volatile Mode mode = Mode.SINGLE_TABLE;
+
+    // Monthly tables currently online, oldest first; replaced, never modified
+    private volatile List<YearMonth> months = List.of();
+
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong rolledRows = new AtomicLong();
+    private final AtomicLong archivedPartitions = new AtomicLong();
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private volatile LocalDateTime lastMaintenance;
+    private volatile String lastError;
+
+    public AuditPartitionManager(AuditPartitionProperties properties, JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate, AuditLogPartitionQueries partitionQueries,
+                                 ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.partitionQueries = partitionQueries;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        mode = detectMode();
+        if (mode == Mode.SINGLE_TABLE) {
+            return;
+        }
+        months = discoverMonths();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = properties.getMaintenanceInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runScheduledMaintenance, 0, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Audit partitioning started (mode: {}, months online: {}, retention: {} months, expired partitions: {})",
+            mode, months.size(), properties.getRetentionMonths(), properties.getRetentionAction());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Physical tables that can hold rows in [from, to), newest first; either bound may be null.
+     * The first entry is always audit_logs itself: on PostgreSQL the partitioned parent (the planner
+     * prunes partitions outside the range), on H2 the hot table, which may also hold late rows
+     * for months that were already rolled.
+     */
+    public List<Partition> partitionsCovering(LocalDateTime from, LocalDateTime to) {
+        List<Partition> partitions = new ArrayList<>();
+        partitions.add(new Partition(PARENT_TABLE, null));
+        if (mode != Mode.ROLLING) {
+            return partitions;
+        }
+        List<YearMonth> online = months;
+        for (int i = online.size() - 1; i >= 0; i--) {
+            YearMonth month = online.get(i);
+            if ((to == null || startOf(month).isBefore(to)) && (from == null || startOf(month.plusMonths(1)).isAfter(from))) {
+                partitions.add(new Partition(tableName(month), month));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Roll closed months out of the hot table (H2) or create upcoming partitions (PostgreSQL),
+     * then archive and drop months past the retention window
+     */
+    public void runMaintenance() {
+        if (mode == Mode.SINGLE_TABLE) {
+            return;
+        }
+        maintenanceLock.lock();
+        try {
+            lastError = null;
+            if (mode == Mode.ROLLING) {
+                rollOver();
+            } else {
+                createUpcomingPartitions();
+                months = discoverMonths();
+            }
+            expire();
+            lastMaintenance = LocalDateTime.now();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    public Status getStatus() {
+        return Status.builder()
+            .mode(mode)
+            .months(months.stream().map(MONTH_SUFFIX::format).toList())
+            .retentionMonths(properties.getRetentionMonths())
+            .retentionAction(properties.getRetentionAction())
+            .rolledRows(rolledRows.get())
+            .archivedPartitions(archivedPartitions.get())
+            .droppedPartitions(droppedPartitions.get())
+            .lastMaintenance(lastMaintenance)
+            .lastError(lastError)
+            .build();
+    }
+
+    private void runScheduledMaintenance() {
+        try {
+            runMaintenance();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("Audit partition maintenance failed", e);
+        }
+    }
+
+    private Mode detectMode() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if ("H2".equals(product)) {
+            return Mode.ROLLING;
+        }
+        if ("PostgreSQL".equals(product)) {
+            String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, PARENT_TABLE);
+            if ("p".equals(kind)) {
+                return Mode.PARTITIONED;
+            }
+            log.warn("{} is not partitioned; run db/postgresql/audit-partitioning.sql to enable partitioning and retention",
+                PARENT_TABLE);
+        }
+        return Mode.SINGLE_TABLE;
+    }
+
+    private List<YearMonth> discoverMonths() {
+        List<String> tables = mode == Mode.PARTITIONED
+            ? jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)",
+                String.class, PARENT_TABLE)
+            : jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME LIKE 'AUDIT_LOGS_%'",
+                String.class);
+        List<YearMonth> found = new ArrayList<>();
+        for (String table : tables) {
+            Matcher matcher = MONTHLY_TABLE.matcher(table);
+            if (matcher.matches()) {
+                found.add(YearMonth.parse(matcher.group(1), MONTH_SUFFIX));
+            }
+        }
+        found.sort(null);
+        return List.copyOf(found);
+    }
+
+    // H2: move every closed month out of the hot table
+    private void rollOver() {
+        YearMonth current = YearMonth.now();
+        Timestamp oldest = jdbcTemplate.queryForObject(
+            "SELECT MIN(timestamp) FROM " + PARENT_TABLE + " WHERE timestamp < ?",
+            Timestamp.class, Timestamp.valueOf(startOf(current)));
+        if (oldest == null) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); month.isBefore(current); month = month.plusMonths(1)) {
+            rollOver(month);
+        }
+    }
+
+    private void rollOver(YearMonth month) {
+        Timestamp start = Timestamp.valueOf(startOf(month));
+        Timestamp end = Timestamp.valueOf(startOf(month.plusMonths(1)));
+        Long pending = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + PARENT_TABLE + " WHERE timestamp >= ? AND timestamp < ?", Long.class, start, end);
+        if (pending == null || pending == 0) {
+            return;
+        }
+
+        String table = tableName(month);
+        if (!months.contains(month)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " AS SELECT " + AuditLogPartitionQueries.COLUMNS +
+                " FROM " + PARENT_TABLE + " WITH NO DATA");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET NOT NULL");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT IF NOT EXISTS pk_" + table + " PRIMARY KEY (id)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_timestamp ON " + table + " (timestamp)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_username_ts ON " + table + " (username, timestamp, id)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_entity_ts ON " + table + " (entity_type, entity_id, timestamp, id)");
+            // Publish the (still empty) table first, so queries see the rows as soon as the move commits
+            months = withMonth(month);
+        }
+
+        // Only rows that made it into the monthly table are deleted; anything the audit writer
+        // commits in the meantime stays in the hot table until the next run
+        Integer moved = transactionTemplate.execute(status -> {
+            int copied = jdbcTemplate.update(
+                "INSERT INTO " + table + " (" + AuditLogPartitionQueries.COLUMNS + ") " +
+                "SELECT " + AuditLogPartitionQueries.COLUMNS + " FROM " + PARENT_TABLE + " a " +
+                "WHERE a.timestamp >= ? AND a.timestamp < ? AND NOT EXISTS (SELECT 1 FROM " + table + " r WHERE r.id = a.id)",
+                start, end);
+            jdbcTemplate.update(
+                "DELETE FROM " + PARENT_TABLE + " a " +
+                "WHERE a.timestamp >= ? AND a.timestamp < ? AND EXISTS (SELECT 1 FROM " + table + " r WHERE r.id = a.id)",
+                start, end);
+            return copied;
+        });
+        rolledRows.addAndGet(moved != null ? moved : 0);
+        log.info("Rolled {} audit rows into {}", moved, table);
+    }
+
+    // PostgreSQL: partitions for the current and the next few months
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= properties.getPrecreateMonths(); i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!months.contains(month)) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + tableName(month) + " PARTITION OF " + PARENT_TABLE +
+                    " FOR VALUES FROM ('" + Timestamp.valueOf(startOf(month)) + "') TO ('" +
+                    Timestamp.valueOf(startOf(month.plusMonths(1))) + "')");
+                log.info("Created audit partition {}", tableName(month));
+            }
+        }
+    }
+
+    private void expire() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(Math.max(1, properties.getRetentionMonths()) - 1);
+        for (YearMonth month : months) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            String table = tableName(month);
+            boolean dropped = expireRows(table, null, table, () -> {
+                // Stop routing queries to the table before it goes away
+                months = withoutMonth(month);
+                if (mode == Mode.PARTITIONED) {
+                    jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + table);
+                }
+                jdbcTemplate.execute("DROP TABLE " + table);
+            });
+            if (!dropped) {
+                continue;
+            }
+            droppedPartitions.incrementAndGet();
+            log.info("Dropped expired audit partition {}", table);
+        }
+
+        if (mode == Mode.PARTITIONED) {
+            expireDefaultPartition(startOf(oldestKept));
+        }
+    }
+
+    // PostgreSQL: rows outside every monthly partition land in the default partition and expire row by row
+    private void expireDefaultPartition(LocalDateTime cutoff) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, DEFAULT_PARTITION);
+        if (!Boolean.TRUE.equals(exists) || partitionQueries.count(DEFAULT_PARTITION, cutoff) == 0) {
+            return;
+        }
+        String archiveName = DEFAULT_PARTITION + "_before_" + MONTH_SUFFIX.format(YearMonth.from(cutoff));
+        AtomicLong deleted = new AtomicLong();
+        boolean expired = expireRows(DEFAULT_PARTITION, cutoff, archiveName, () -> deleted.set(
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?", Timestamp.valueOf(cutoff))));
+        if (expired) {
+            log.info("Deleted {} expired audit rows from {}", deleted.get(), DEFAULT_PARTITION);
+        }
+    }
+
+    /**
+     * Archive (with the archive retention action) and then remove the rows of a table older than before,
+     * or all of them when before is null. Removal runs in a transaction that first blocks inserts into
+     * the table and re-counts its rows: a late row committed after the archive was streamed would
+     * otherwise be removed without being archived. Returns false, leaving the rows in place for the next
+     * run, when archiving fails or late rows turn up.
+     */
+    private boolean expireRows(String table, LocalDateTime before, String archiveName, Runnable remove) {
+        Archive archive = null;
+        if (properties.getRetentionAction() == AuditPartitionProperties.RetentionAction.ARCHIVE) {
+            try {
+                archive = archive(table, before, archiveName);
+            } catch (IOException | UncheckedIOException e) {
+                // Keep the rows online rather than lose them
+                lastError = "Could not archive " + table + ": " + e.getMessage();
+                log.error("Could not archive audit partition {}, not dropping it", table, e);
+                return false;
+            }
+        }
+
+        Archive archived = archive;
+        Boolean removed = transactionTemplate.execute(status -> {
+            if (mode == Mode.PARTITIONED) {
+                // Blocks inserts, not reads, until the rows are gone. On H2 only maintenance writes rolled tables
+                jdbcTemplate.execute("LOCK TABLE " + table + " IN SHARE MODE");
+            }
+            if (archived != null && partitionQueries.count(table, before) != archived.rows()) {
+                return false;
+            }
+            remove.run();
+            return true;
+        });
+        if (!Boolean.TRUE.equals(removed)) {
+            // The archive is incomplete; the next run writes a complete one
+            try {
+                Files.deleteIfExists(archived.file());
+            } catch (IOException e) {
+                log.warn("Could not delete incomplete audit archive {}", archived.file(), e);
+            }
+            lastError = "Rows were added to " + table + " while it was archived; retrying on the next run";
+            log.warn("Rows were added to audit partition {} while it was archived, keeping it until the next run", table);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write the rows of a table older than before (all rows when null) to archive-directory/name.ndjson.gz
+     * (one AuditLog JSON per line, the same format as the audit spill file). A name archived twice gets
+     * a numbered second file.
+     */
+    private Archive archive(String table, LocalDateTime before, String name) throws IOException {
+        Path directory = Paths.get(properties.getArchiveDirectory());
+        Files.createDirectories(directory);
+        Path target = directory.resolve(name + ".ndjson.gz");
+        for (int i = 2; Files.exists(target); i++) {
+            target = directory.resolve(name + "-" + i + ".ndjson.gz");
+        }
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        AtomicLong rows = new AtomicLong();
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            partitionQueries.forEach(table, before, auditLog -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(auditLog));
+                    writer.newLine();
+                    rows.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        archivedPartitions.incrementAndGet();
+        log.info("Archived {} audit rows from {} to {}", rows.get(), table, target);
+        return new Archive(target, rows.get());
+    }
+
+    private List<YearMonth> withMonth(YearMonth month) {
+        List<YearMonth> updated = new ArrayList<>(months);
+        updated.add(month);
+        updated.sort(null);
+        return List.copyOf(updated);
+    }
+
+    private List<YearMonth> withoutMonth(YearMonth month) {
+        List<YearMonth> updated = new ArrayList<>(months);
+        updated.remove(month);
+        return List.copyOf(updated);
+    }
+
+    private static String tableName(YearMonth month) {
+        return PARENT_TABLE + "_" + MONTH_SUFFIX.format(month);
+    }
+
+    private static LocalDateTime startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    private record Archive(Path file, long rows) {
+    }
+
+    public enum Mode {
+        // PostgreSQL with a partitioned audit_logs
+        PARTITIONED,
+        // H2: hot table plus rolled monthly tables
+        ROLLING,
+        // Partitioning disabled or not set up
+        SINGLE_TABLE
+    }
+
+    /**
+     * One physical audit table. month is null for audit_logs itself, which may hold rows of any month.
+     */
+    public record Partition(String table, YearMonth month) {
+
+        /**
+         * Inclusive lower bound of the timestamps the table can hold, or null when unbounded
+         */
+        public LocalDateTime lowerBound() {
+            return month != null ? startOf(month) : null;
+        }
+
+        /**
+         * Exclusive upper bound of the timestamps the table can hold, or null when unbounded
+         */
+        public LocalDateTime upperBound() {
+            return month != null ? startOf(month.plusMonths(1)) : null;
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Status {
+        private final Mode mode;
+        private final List<String> months;
+        private final int retentionMonths;
+        private final AuditPartitionProperties.RetentionAction retentionAction;
+        private final long rolledRows;
+        private final long archivedPartitions;
+        private final long droppedPartitions;
+        private final LocalDateTime lastMaintenance;
+        private final String lastError;
+    }
+}
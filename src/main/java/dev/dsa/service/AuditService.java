@@ -1,7 +1,14 @@
 package dev.dsa.service;
 
+import dev.dsa.dto.AuditHistoryEntry;
+import dev.dsa.dto.AuditLogSearchRequest;
+import dev.dsa.dto.KeysetPage;
 import dev.dsa.entity.AuditLog;
+import dev.dsa.exception.BusinessException;
+import dev.dsa.repository.AuditLogPartitionQueries;
 import dev.dsa.repository.AuditLogRepository;
+import dev.dsa.util.ClientIpResolver;
+import dev.dsa.util.KeysetCursor;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,18 +16,39 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditService {
 
+    // Keyset cursors of audit pages seek on (timestamp, id)
+    private static final String SORT_FIELD = "timestamp";
+
+    private static final Comparator<AuditLog> OLDEST_FIRST =
+        Comparator.comparing(AuditLog::getTimestamp).thenComparing(AuditLog::getId);
+    private static final Comparator<AuditLog> NEWEST_FIRST = OLDEST_FIRST.reversed();
+
     private final AuditLogRepository auditLogRepository;
+    private final AsyncAuditWriter asyncAuditWriter;
+    private final AuditPartitionManager auditPartitionManager;
+    private final AuditLogPartitionQueries auditLogPartitionQueries;
+    private final AuditDiffer auditDiffer;
+    private final AuditCheckpoints auditCheckpoints;
 
     @Transactional
     public void logAction(String action, String entityType, Long entityId, String details, String oldValue, String newValue) {
@@ -39,7 +67,48 @@ public class AuditService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        auditLogRepository.save(auditLog);
+        persist(auditLog);
+        log.info("Audit logged - User: {}, Action: {}, Entity: {}, ID: {}", username, action, entityType, entityId);
+    }
+
+    /**
+     * Current state of an entity for logChanges; take it before modifying the entity
+     */
+    public Map<String, String> snapshot(Object entity) {
+        return auditDiffer.snapshot(entity);
+    }
+
+    /**
+     * Log an entity change as a field-level change set rather than full before/after snapshots.
+     * before is null for a CREATE and after is null for a DELETE. Every few changes of an entity the
+     * change set is a checkpoint that also keeps the unchanged values (see AuditCheckpoints).
+     */
+    @Transactional
+    public void logChanges(String action, String entityType, Long entityId, String details,
+                           Map<String, String> before, Map<String, String> after) {
+        String username = getCurrentUsername();
+        boolean checkpoint = before != null && after != null && entityId != null
+            && auditCheckpoints.isDue(entityType, entityId);
+
+        AuditLog auditLog = AuditLog.builder()
+            .username(username)
+            .action(action)
+            .entityType(entityType)
+            .entityId(entityId)
+            .details(details)
+            .changes((checkpoint ? AuditChangeSet.checkpoint(before, after) : AuditChangeSet.between(before, after)).encode())
+            .ipAddress(getClientIpAddress())
+            .timestamp(LocalDateTime.now())
+            .build();
+
+        persist(auditLog);
+        if (entityId != null) {
+            if (after == null) {
+                auditCheckpoints.forget(entityType, entityId);
+            } else {
+                auditCheckpoints.record(entityType, entityId, before == null || checkpoint);
+            }
+        }
         log.info("Audit logged - User: {}, Action: {}, Entity: {}, ID: {}", username, action, entityType, entityId);
     }
 
@@ -53,7 +122,7 @@ public class AuditService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        auditLogRepository.save(auditLog);
+        persist(auditLog);
         log.info("Login success logged for user: {}", username);
     }
 
@@ -67,10 +136,27 @@ public class AuditService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        auditLogRepository.save(auditLog);
+        persist(auditLog);
         log.info("Login failure logged for user: {}", username);
     }
 
+    /**
+     * One row for the login attempts rejected by the rate limiter for a username and address since periodStart
+     */
+    @Transactional
+    public void logLoginThrottled(String username, String ipAddress, long attempts, LocalDateTime periodStart) {
+        AuditLog auditLog = AuditLog.builder()
+            .username(username)
+            .action("LOGIN_THROTTLED")
+            .details(attempts + " login attempts rejected since " + periodStart + " (too many failures)")
+            .ipAddress(ipAddress)
+            .timestamp(LocalDateTime.now())
+            .build();
+
+        persist(auditLog);
+        log.info("Throttled logins logged for user: {} ({} attempts)", username, attempts);
+    }
+
     @Transactional
     public void logLogout(String username, String ipAddress) {
         AuditLog auditLog = AuditLog.builder()
@@ -81,23 +167,296 @@ public class AuditService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        auditLogRepository.save(auditLog);
+        persist(auditLog);
         log.info("Logout logged for user: {}", username);
     }
 
     @Transactional(readOnly = true)
     public List<AuditLog> getRecentLogs(int limit) {
-        return auditLogRepository.findTop100ByOrderByTimestampDesc();
+        return find(AuditLogPartitionQueries.Criteria.builder().build(), limit);
     }
 
+    /**
+     * Keyset (seek) paginated audit log, newest first. Each page continues from the row identified by
+     * the cursor over the composite (filter, timestamp, id) indexes, so a user with millions of audit
+     * rows is browsed a page at a time and deep pages cost the same as the first.
+     */
     @Transactional(readOnly = true)
-    public List<AuditLog> getLogsByUsername(String username) {
-        return auditLogRepository.findByUsername(username);
+    public KeysetPage<AuditLog> searchLogs(AuditLogSearchRequest searchRequest, String cursor, int size) {
+        AuditLogSearchRequest filters = searchRequest != null ? searchRequest : new AuditLogSearchRequest();
+        AuditLogPartitionQueries.Criteria criteria = AuditLogPartitionQueries.Criteria.builder()
+            .username(blankToNull(filters.getUsername()))
+            .action(blankToNull(filters.getAction()))
+            .entityType(blankToNull(filters.getEntityType()))
+            .entityId(filters.getEntityId())
+            .from(filters.getFrom())
+            .to(filters.getTo())
+            .build();
+        return findPage(criteria, cursor, size);
     }
 
+    /**
+     * A page of an entity's audit events, newest first, with its full state before and after each change
+     * set. The state is rebuilt by replaying change sets from the nearest CREATE or checkpoint at or before
+     * the oldest event of the page. Where that base is no longer online (retention dropped it), events
+     * before the next checkpoint list only their changed fields.
+     */
     @Transactional(readOnly = true)
-    public List<AuditLog> getLogsByEntity(String entityType, Long entityId) {
-        return auditLogRepository.findByEntityTypeAndEntityId(entityType, entityId);
+    public KeysetPage<AuditHistoryEntry> getEntityHistory(String entityType, Long entityId, String cursor, int size) {
+        AuditLogPartitionQueries.Criteria criteria = AuditLogPartitionQueries.Criteria.builder()
+            .entityType(entityType)
+            .entityId(entityId)
+            .build();
+        KeysetPage<AuditLog> page = findPage(criteria, cursor, size);
+        List<AuditLog> logs = page.getContent();
+
+        List<AuditHistoryEntry> history = new ArrayList<>(logs.size());
+        // Entity state before the event being rebuilt; null while unknown
+        Map<String, String> state = null;
+        AuditLog oldestChangeSet = logs.stream().filter(auditLog -> auditLog.getChanges() != null)
+            .reduce((newer, older) -> older).orElse(null);
+        if (oldestChangeSet != null && !isBase(oldestChangeSet)) {
+            state = stateBefore(criteria, oldestChangeSet);
+        }
+        for (int i = logs.size() - 1; i >= 0; i--) {
+            AuditLog auditLog = logs.get(i);
+            if (auditLog.getChanges() == null) {
+                history.add(AuditHistoryEntry.builder().log(auditLog).fields(List.of()).stateKnown(true).build());
+                continue;
+            }
+            AuditChangeSet changes = AuditChangeSet.decode(auditLog.getChanges());
+            Map<String, String> before;
+            if (changes.isCheckpoint()) {
+                before = changes.stateBefore();
+            } else if ("CREATE".equals(auditLog.getAction())) {
+                before = new TreeMap<>();
+            } else {
+                before = state;
+            }
+            Map<String, String> after = null;
+            if (before != null) {
+                after = new TreeMap<>(before);
+                changes.applyTo(after);
+                if ("DELETE".equals(auditLog.getAction())) {
+                    after.clear();
+                }
+            }
+
+            Set<String> fields = new TreeSet<>(changes.getChanges().keySet());
+            if (before != null) {
+                fields.addAll(before.keySet());
+                fields.addAll(after.keySet());
+            }
+            List<AuditHistoryEntry.FieldState> fieldStates = new ArrayList<>(fields.size());
+            for (String field : fields) {
+                String[] values = changes.getChanges().get(field);
+                fieldStates.add(AuditHistoryEntry.FieldState.builder()
+                    .field(field)
+                    .before(before != null ? before.get(field) : values[0])
+                    .after(after != null ? after.get(field) : values[1])
+                    .changed(values != null)
+                    .build());
+            }
+            history.add(AuditHistoryEntry.builder().log(auditLog).fields(fieldStates).stateKnown(before != null).build());
+            state = after;
+        }
+        Collections.reverse(history);
+
+        return KeysetPage.<AuditHistoryEntry>builder()
+            .content(history)
+            .size(page.getSize())
+            .sortField(page.getSortField())
+            .hasNext(page.isHasNext())
+            .hasPrevious(page.isHasPrevious())
+            .nextCursor(page.getNextCursor())
+            .previousCursor(page.getPreviousCursor())
+            .build();
+    }
+
+    public AsyncAuditWriter.Stats getPipelineStats() {
+        return asyncAuditWriter.getStats();
+    }
+
+    public AuditPartitionManager.Status getPartitionStatus() {
+        return auditPartitionManager.getStatus();
+    }
+
+    /**
+     * One page of matching rows, newest first. "Next" pages towards older rows, "previous" towards newer ones.
+     */
+    private KeysetPage<AuditLog> findPage(AuditLogPartitionQueries.Criteria criteria, String cursor, int size) {
+        KeysetCursor position = cursor != null && !cursor.isBlank() ? KeysetCursor.decode(cursor) : null;
+        if (position != null && (!SORT_FIELD.equals(position.getSortField()) || !(position.getSortValue() instanceof LocalDateTime))) {
+            throw new BusinessException("Invalid page cursor");
+        }
+        AuditLogPartitionQueries.Criteria pageCriteria = criteria.toBuilder().position(position).build();
+
+        // A backward page is read oldest first towards the newest rows, then flipped back;
+        // one extra row tells whether there is more beyond this page
+        boolean backward = pageCriteria.isBackward();
+        List<AuditLog> content = find(pageCriteria, size + 1);
+        boolean hasMore = content.size() > size;
+        if (hasMore) {
+            content.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(content);
+        }
+
+        boolean hasPrevious = backward ? hasMore : position != null;
+        boolean hasNext = backward || hasMore;
+
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!content.isEmpty()) {
+            AuditLog first = content.get(0);
+            AuditLog last = content.get(content.size() - 1);
+            if (hasNext) {
+                nextCursor = new KeysetCursor(KeysetCursor.Direction.FORWARD, SORT_FIELD, last.getTimestamp(), last.getId()).encode();
+            }
+            if (hasPrevious) {
+                previousCursor = new KeysetCursor(KeysetCursor.Direction.BACKWARD, SORT_FIELD, first.getTimestamp(), first.getId()).encode();
+            }
+        }
+
+        return KeysetPage.<AuditLog>builder()
+            .content(content)
+            .size(size)
+            .sortField(SORT_FIELD)
+            .hasNext(hasNext)
+            .hasPrevious(hasPrevious)
+            .nextCursor(nextCursor)
+            .previousCursor(previousCursor)
+            .build();
+    }
+
+    /**
+     * Query only the partitions that can hold rows in the criteria's time range (narrowed by its cursor),
+     * newest first, or oldest first when paging backward. With a limit, further partitions are skipped
+     * once they can no longer contribute a row to the page.
+     */
+    private List<AuditLog> find(AuditLogPartitionQueries.Criteria criteria, int limit) {
+        return find(criteria, limit, auditLogPartitionQueries::find);
+    }
+
+    private List<AuditLog> find(AuditLogPartitionQueries.Criteria criteria, int limit, PartitionReader reader) {
+        boolean backward = criteria.isBackward();
+        Comparator<AuditLog> order = backward ? OLDEST_FIRST : NEWEST_FIRST;
+        List<AuditPartitionManager.Partition> partitions = partitionsFor(criteria);
+        List<AuditLog> logs = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            logs.addAll(reader.read(partitions.get(i).table(), criteria, limit));
+            if (limit > 0 && logs.size() >= limit && i + 1 < partitions.size()) {
+                logs.sort(order);
+                logs.subList(limit, logs.size()).clear();
+                if (beyond(partitions.get(i + 1), logs.get(limit - 1).getTimestamp(), backward)) {
+                    break;
+                }
+            }
+        }
+        logs.sort(order);
+        return limit > 0 && logs.size() > limit ? new ArrayList<>(logs.subList(0, limit)) : logs;
+    }
+
+    // Whether a change set gives the entity's full state by itself: a CREATE or a checkpoint
+    private static boolean isBase(AuditLog auditLog) {
+        return "CREATE".equals(auditLog.getAction()) || AuditChangeSet.decode(auditLog.getChanges()).isCheckpoint();
+    }
+
+    /**
+     * Entity state just before the given event: the state after the newest older CREATE or checkpoint,
+     * rolled forward over the change sets after it. Checkpoints normally come every
+     * AuditCheckpoints.getInterval() change sets; all older change sets are read only when they do not.
+     * Null when no base is online.
+     */
+    private Map<String, String> stateBefore(AuditLogPartitionQueries.Criteria entityCriteria, AuditLog oldest) {
+        AuditLogPartitionQueries.Criteria criteria = entityCriteria.toBuilder()
+            .position(new KeysetCursor(KeysetCursor.Direction.FORWARD, SORT_FIELD, oldest.getTimestamp(), oldest.getId()))
+            .build();
+        int limit = auditCheckpoints.getInterval() + 1;
+        List<AuditLog> older = find(criteria, limit, auditLogPartitionQueries::findChangeSets);
+        int base = newestBase(older);
+        if (base < 0 && older.size() == limit) {
+            older = find(criteria, 0, auditLogPartitionQueries::findChangeSets);
+            base = newestBase(older);
+        }
+        if (base < 0) {
+            return null;
+        }
+
+        // Newest first: start from the base, then replay the change sets newer than it
+        AuditChangeSet baseChanges = AuditChangeSet.decode(older.get(base).getChanges());
+        Map<String, String> state = baseChanges.isCheckpoint() ? baseChanges.stateAfter() : new TreeMap<>();
+        baseChanges.applyTo(state);
+        for (int i = base - 1; i >= 0; i--) {
+            AuditChangeSet.decode(older.get(i).getChanges()).applyTo(state);
+        }
+        return state;
+    }
+
+    private static int newestBase(List<AuditLog> newestFirst) {
+        for (int i = 0; i < newestFirst.size(); i++) {
+            if (isBase(newestFirst.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<AuditPartitionManager.Partition> partitionsFor(AuditLogPartitionQueries.Criteria criteria) {
+        boolean backward = criteria.isBackward();
+        LocalDateTime from = criteria.getFrom();
+        LocalDateTime to = criteria.getTo();
+        if (criteria.getPosition() != null) {
+            LocalDateTime key = (LocalDateTime) criteria.getPosition().getSortValue();
+            if (backward && (from == null || key.isAfter(from))) {
+                from = key;
+            } else if (!backward && (to == null || key.isBefore(to))) {
+                to = key.plusNanos(1);
+            }
+        }
+        List<AuditPartitionManager.Partition> partitions = auditPartitionManager.partitionsCovering(from, to);
+        if (backward) {
+            // audit_logs stays first, the monthly tables go oldest first
+            Collections.reverse(partitions.subList(1, partitions.size()));
+        }
+        return partitions;
+    }
+
+    // True when no row of the partition can come before the given timestamp in the page order
+    private static boolean beyond(AuditPartitionManager.Partition partition, LocalDateTime last, boolean backward) {
+        if (backward) {
+            LocalDateTime lowerBound = partition.lowerBound();
+            return lowerBound != null && lowerBound.isAfter(last);
+        }
+        LocalDateTime upperBound = partition.upperBound();
+        return upperBound != null && !upperBound.isAfter(last);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Save synchronously, or hand off to the background writer in async mode.
+     * Inside a transaction the hand-off waits for commit so rolled back changes are not audited.
+     */
+    private void persist(AuditLog auditLog) {
+        if (!asyncAuditWriter.isEnabled()) {
+            auditLogRepository.save(auditLog);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    asyncAuditWriter.submit(auditLog);
+                }
+            });
+        } else {
+            asyncAuditWriter.submit(auditLog);
+        }
     }
 
     private String getCurrentUsername() {
@@ -112,21 +471,16 @@ public class AuditService {
         try {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
             HttpServletRequest request = attributes.getRequest();
-
-            String xForwardedFor = request.getHeader("X-Forwarded-For");
-            if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-                return xForwardedFor.split(",")[0].trim();
-            }
-
-            String xRealIp = request.getHeader("X-Real-IP");
-            if (xRealIp != null && !xRealIp.isEmpty()) {
-                return xRealIp;
-            }
-
-            return request.getRemoteAddr();
+            return ClientIpResolver.resolve(request);
         } catch (Exception e) {
             log.debug("Could not get IP address: {}", e.getMessage());
             return "unknown";
         }
     }
+
+    // Reads matching rows of one audit table, as AuditLogPartitionQueries.find does
+    @FunctionalInterface
+    private interface PartitionReader {
+        List<AuditLog> read(String table, AuditLogPartitionQueries.Criteria criteria, int limit);
+    }
 }
@@ -0,0 +1,19 @@
+package dev.dsa.service;
+
+/**
+ * How the total of a paged listing is obtained
+ */
+public enum CountStrategy {
+
+    // COUNT(*) on every page request
+    EXACT,
+
+    // Exact count, cached per table and normalized search criteria for the "pageCounts" cache TTL
+    CACHED,
+
+    // Row estimate from the database statistics; only used for unfiltered listings (falls back to CACHED)
+    ESTIMATE,
+
+    // No total at all: the listing is a Slice that only knows whether a next page exists
+    NONE
+}
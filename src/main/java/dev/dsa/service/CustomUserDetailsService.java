@@ -1,70 +1,99 @@
 package dev.dsa.service;
 
-import dev.dsa.entity.Permission;
+import dev.dsa.dto.UserPreferences;
 import dev.dsa.entity.User;
 import dev.dsa.repository.UserRepository;
+import dev.dsa.security.RbacUserDetails;
+import dev.dsa.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final RbacService rbacService;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.debug("Loading user by username: {}", username);
 
+        // Read the version before the user so a concurrent change makes this copy uncacheable
+        long securityVersion = userDetailsCache.currentVersion(username);
+
         User user = userRepository.findByUsernameWithRoles(username)
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        userRepository.findByIdWithRoleProfiles(user.getId());
 
-        Collection<? extends GrantedAuthority> authorities = getAuthorities(user);
+        Set<String> roleAuthorities = getRoleAuthorities(user);
+        // Permission ordinals (including permissions from profiles and inherited permissions)
+        Set<Long> roleIds = new HashSet<>();
+        user.getRoles().forEach(role -> roleIds.add(role.getId()));
+        Set<Long> profileIds = new HashSet<>();
+        user.getRoleProfiles().forEach(profile -> profileIds.add(profile.getId()));
+        PermissionIndex index = getIndexCovering(roleIds, profileIds);
+        BitSet permissions = index.resolve(roleIds, profileIds);
 
-        log.debug("User {} loaded with {} authorities", username, authorities.size());
+        log.debug("User {} loaded with {} roles and {} permissions", username, roleAuthorities.size(), permissions.cardinality());
 
-        return org.springframework.security.core.userdetails.User.builder()
-            .username(user.getUsername())
-            .password(user.getPassword())
-            .disabled(!user.getEnabled())
-            .accountExpired(!user.getAccountNonExpired())
-            .accountLocked(!user.getAccountNonLocked())
-            .credentialsExpired(!user.getCredentialsNonExpired())
-            .authorities(authorities)
-            .build();
+        return new RbacUserDetails(
+            user.getId(),
+            user.getUsername(),
+            user.getPassword(),
+            user.getEnabled(),
+            user.getAccountNonExpired(),
+            user.getAccountNonLocked(),
+            user.getCredentialsNonExpired(),
+            roleAuthorities,
+            permissions,
+            index.getOrdinals(),
+            securityVersion,
+            UserPreferences.of(user.getProfile()));
     }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        Set<GrantedAuthority> authorities = new HashSet<>();
-
-        // Add role-based authorities (from direct roles and role profiles)
-        user.getAllRoles().forEach(role -> {
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
-            log.debug("Added role: ROLE_{}", role.getName());
-        });
-
-        // Add permission-based authorities (including permissions from profiles and inherited permissions)
-        Set<Permission> allPermissions = user.getAllPermissions();
-        allPermissions.forEach(permission -> {
-            if (permission.getActive()) {
-                authorities.add(new SimpleGrantedAuthority(permission.getName()));
-                log.debug("Added permission: {}", permission.getName());
-            }
-        });
+    /**
+     * Store a password re-hashed on login with the current algorithm and cost
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (userRepository.updatePassword(user.getUsername(), newPassword) == 0) {
+            return user;
+        }
+        // Cached copies hold the old hash and would be re-hashed again on every login
+        userDetailsCache.invalidate(user.getUsername());
+        log.info("Upgraded password hash of user: {}", user.getUsername());
+        return user instanceof RbacUserDetails rbacUser ? rbacUser.withPassword(newPassword) : user;
+    }
 
+    private Set<String> getRoleAuthorities(User user) {
+        // Role-based authorities (from direct roles and role profiles)
+        Set<String> authorities = new HashSet<>();
+        user.getAllRoles().forEach(role -> authorities.add("ROLE_" + role.getName()));
         return authorities;
     }
+
+    /**
+     * Get the permission index, rebuilding it if it does not know one of the user's roles or profiles yet
+     */
+    private PermissionIndex getIndexCovering(Set<Long> roleIds, Set<Long> profileIds) {
+        PermissionIndex index = rbacService.getPermissionIndex();
+        boolean complete = roleIds.stream().allMatch(index::containsRole) &&
+                           profileIds.stream().allMatch(index::containsProfile);
+        return complete ? index : rbacService.rebuildPermissionIndex();
+    }
 }
@@ -7,10 +7,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,6 +23,8 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final AuditService auditService;
+    private final PageCountService pageCountService;
+    private final AccountSearchIndex accountSearchIndex;
 
     @Transactional
     public Customer createCustomer(Customer customer) {
@@ -27,9 +32,10 @@ public class CustomerService {
 
         // createdBy and updatedBy are set automatically by JPA auditing
         Customer savedCustomer = customerRepository.save(customer);
+        accountSearchIndex.indexCustomerAfterCommit(savedCustomer);
 
-        auditService.logAction("CREATE", "Customer", savedCustomer.getId(),
-            "Created customer: " + savedCustomer.getName(), null, savedCustomer.toString());
+        auditService.logChanges("CREATE", "Customer", savedCustomer.getId(),
+            "Created customer: " + savedCustomer.getName(), null, auditService.snapshot(savedCustomer));
 
         return savedCustomer;
     }
@@ -41,7 +47,7 @@ public class CustomerService {
         Customer customer = customerRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Customer", id));
 
-        String oldValue = customer.toString();
+        Map<String, String> before = auditService.snapshot(customer);
 
         customer.setName(customerDetails.getName());
         customer.setEmail(customerDetails.getEmail());
@@ -51,9 +57,10 @@ public class CustomerService {
         // updatedBy is set automatically by JPA auditing
 
         Customer updatedCustomer = customerRepository.save(customer);
+        accountSearchIndex.indexCustomerAfterCommit(updatedCustomer);
 
-        auditService.logAction("UPDATE", "Customer", updatedCustomer.getId(),
-            "Updated customer: " + updatedCustomer.getName(), oldValue, updatedCustomer.toString());
+        auditService.logChanges("UPDATE", "Customer", updatedCustomer.getId(),
+            "Updated customer: " + updatedCustomer.getName(), before, auditService.snapshot(updatedCustomer));
 
         return updatedCustomer;
     }
@@ -67,9 +74,10 @@ public class CustomerService {
 
         String customerName = customer.getName();
         customerRepository.delete(customer);
+        accountSearchIndex.removeCustomerAfterCommit(id);
 
-        auditService.logAction("DELETE", "Customer", id,
-            "Deleted customer: " + customerName, customer.toString(), null);
+        auditService.logChanges("DELETE", "Customer", id,
+            "Deleted customer: " + customerName, auditService.snapshot(customer), null);
     }
 
     @Transactional(readOnly = true)
@@ -93,9 +101,11 @@ public class CustomerService {
     }
 
     @Transactional(readOnly = true)
-    public Page<Customer> getAllCustomersWithPagination(Pageable pageable) {
-        log.info("Getting customers with pagination: {}", pageable);
-        return customerRepository.findAll(pageable);
+    public Slice<Customer> getAllCustomersWithPagination(Pageable pageable) {
+        CountStrategy countStrategy = pageCountService.strategyFor("customers");
+        log.info("Getting customers with pagination: {} (count: {})", pageable, countStrategy);
+        return pageCountService.findPage(customerRepository, Specification.where(null), pageable, countStrategy,
+            "customers", null);
     }
 
     @Transactional(readOnly = true)
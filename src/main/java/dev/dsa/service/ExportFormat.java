@@ -0,0 +1,27 @@
+package dev.dsa.service;
+
+import dev.dsa.exception.BusinessException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * File formats for streamed exports and bulk imports
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    public static ExportFormat from(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BusinessException("Unsupported export format: " + value);
+    }
+}
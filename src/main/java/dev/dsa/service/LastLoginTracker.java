@@ -0,0 +1,132 @@
+package dev.dsa.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescing write-behind for users.last_login.
+ *
+ * A login only records the user id and time in memory; repeated logins of a user between flushes
+ * collapse into one entry. A daemon thread writes the pending entries every flush interval with a
+ * single batched UPDATE, so the login path neither loads the User graph nor runs a dirty check.
+ * Pending entries are flushed on shutdown; with write-behind disabled each login is updated directly.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginTracker {
+
+    private static final String UPDATE_SQL = "UPDATE users SET last_login = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.security.last-login.write-behind:true}")
+    private boolean writeBehind;
+
+    @Value("${app.security.last-login.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        if (!writeBehind) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduledFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Last login write-behind started (flush interval: {}ms)", flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Last login write-behind stopped - {} logins recorded, {} rows written", recorded.get(), written.get());
+    }
+
+    /**
+     * Record a successful login; written at the next flush unless write-behind is disabled
+     */
+    public void recordLogin(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        recorded.incrementAndGet();
+        if (!writeBehind) {
+            written.addAndGet(jdbcTemplate.update(UPDATE_SQL, Timestamp.valueOf(now), userId));
+            return;
+        }
+        pending.merge(userId, now, LastLoginTracker::later);
+    }
+
+    /**
+     * Write every pending login now
+     */
+    public void flush() {
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            // Only take the entry if no newer login replaced it meanwhile; a newer one waits for the next flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(batch.size());
+        batch.forEach(entry -> args.add(new Object[]{Timestamp.valueOf(entry.getValue()), entry.getKey()}));
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+            written.addAndGet(batch.size());
+            log.debug("Wrote last login of {} users", batch.size());
+        } catch (RuntimeException e) {
+            // Put the entries back for the next attempt, keeping any newer login recorded since
+            batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), LastLoginTracker::later));
+            throw e;
+        }
+    }
+
+    private void runScheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Could not write last login times, retrying at the next flush", e);
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
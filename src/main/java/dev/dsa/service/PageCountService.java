@@ -0,0 +1,153 @@
+package dev.dsa.service;
+
+import dev.dsa.config.PaginationProperties;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs paged listings with a configurable count strategy.
+ *
+ * The page content is always fetched without a count query; the total is then exact,
+ * cached, estimated from database statistics, or skipped entirely (a Slice), depending
+ * on the strategy configured for the listing under app.pagination.count-strategies.
+ */
+@Service
+@Slf4j
+public class PageCountService {
+
+    private static final String COUNT_CACHE = "pageCounts";
+
+    private final PaginationProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache countCache;
+
+    private volatile String databaseProduct;
+
+    public PageCountService(PaginationProperties properties, JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.countCache = cacheManager.getCache(COUNT_CACHE);
+    }
+
+    /**
+     * Count strategy configured for a listing
+     */
+    public CountStrategy strategyFor(String listing) {
+        return properties.getCountStrategies().getOrDefault(listing, properties.getDefaultCountStrategy());
+    }
+
+    /**
+     * Fetch one page. Returns a Page unless the strategy is NONE, in which case only a Slice is built.
+     *
+     * @param table    table backing the listing, used for estimates and as part of the cache key
+     * @param criteria normalized search criteria (null when the listing is unfiltered)
+     */
+    public <T> Slice<T> findPage(JpaSpecificationExecutor<T> repository, Specification<T> specification,
+                                 Pageable pageable, CountStrategy strategy, String table, Object criteria) {
+        // Scrolling (rather than page()) fetches one extra row to detect a next page, and never counts
+        ScrollPosition position = ScrollPosition.offset(pageable.getOffset());
+        Window<T> window = repository.findBy(specification,
+            query -> query.sortBy(pageable.getSort()).limit(pageable.getPageSize()).scroll(position));
+        List<T> content = window.getContent();
+
+        if (strategy == CountStrategy.NONE) {
+            return new SliceImpl<>(content, pageable, window.hasNext());
+        }
+
+        // A short page tells us the total without counting
+        long total;
+        if (!window.hasNext() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            total = pageable.getOffset() + content.size();
+        } else {
+            total = count(strategy, table, criteria, () -> repository.count(specification));
+            // Estimates and cached counts may lag behind; never report fewer rows than we can see
+            total = Math.max(total, pageable.getOffset() + content.size() + (window.hasNext() ? 1 : 0));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Total for a listing using the given strategy (NONE is treated as EXACT)
+     */
+    public long count(CountStrategy strategy, String table, Object criteria, LongSupplier exactCount) {
+        switch (strategy) {
+            case ESTIMATE -> {
+                if (criteria == null) {
+                    Long estimate = estimate(table);
+                    if (estimate != null) {
+                        return estimate;
+                    }
+                }
+                return cachedCount(table, criteria, exactCount);
+            }
+            case CACHED -> {
+                return cachedCount(table, criteria, exactCount);
+            }
+            default -> {
+                return exactCount.getAsLong();
+            }
+        }
+    }
+
+    private long cachedCount(String table, Object criteria, LongSupplier exactCount) {
+        Long total = countCache.get(new CountKey(table, criteria), exactCount::getAsLong);
+        return total != null ? total : exactCount.getAsLong();
+    }
+
+    /**
+     * Row estimate from the planner statistics, or null when the database has none
+     */
+    private Long estimate(String table) {
+        try {
+            String product = getDatabaseProduct();
+            Long estimate = null;
+            if ("H2".equals(product)) {
+                estimate = jdbcTemplate.queryForObject(
+                    "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = ?",
+                    Long.class, table.toUpperCase());
+            } else if ("PostgreSQL".equals(product)) {
+                estimate = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)",
+                    Long.class, table);
+            }
+            // PostgreSQL reports -1 for tables that were never analyzed
+            return estimate != null && estimate >= 0 ? estimate : null;
+        } catch (DataAccessException e) {
+            log.warn("Could not estimate row count for {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+
+    private String getDatabaseProduct() {
+        String product = databaseProduct;
+        if (product == null) {
+            product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            databaseProduct = product;
+        }
+        return product;
+    }
+
+    @Value
+    private static class CountKey {
+        String table;
+        Object criteria;
+    }
+}
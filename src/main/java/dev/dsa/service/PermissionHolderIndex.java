@@ -0,0 +1,162 @@
+package dev.dsa.service;
+
+import dev.dsa.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inverted index answering "which users effectively hold permission X".
+ *
+ * Holds each role's and profile's directly assigned users, loaded once and then maintained
+ * incrementally (after commit) by UserService. Which roles and profiles grant a permission,
+ * inheritance included, comes from the {@link PermissionIndex} passed in, so RBAC changes need
+ * no hook here. The holders of a permission are computed into a sorted array on first use and
+ * reused until either the PermissionIndex or the assignments change, so a page is an array slice.
+ */
+@Component
+@Slf4j
+public class PermissionHolderIndex {
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Set<String>> usersByRole = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> usersByProfile = new ConcurrentHashMap<>();
+    private final AtomicLong assignmentVersion = new AtomicLong();
+    private final Map<Integer, Holders> holdersByOrdinal = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    // Guards loading against concurrent changes; not a monitor, since loading blocks on JDBC
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PermissionHolderIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Usernames holding the permission with the given ordinal in the given index, sorted
+     */
+    public List<String> getHolders(PermissionIndex index, int ordinal) {
+        if (!loaded) {
+            loadOnce();
+        }
+        Holders holders = holdersByOrdinal.get(ordinal);
+        if (holders == null || holders.source != index || holders.version != assignmentVersion.get()) {
+            holders = compute(index, ordinal);
+            holdersByOrdinal.put(ordinal, holders);
+        }
+        return Arrays.asList(holders.usernames);
+    }
+
+    /**
+     * Record a direct role assignment once the current transaction commits
+     */
+    public void roleAssigned(String username, Long roleId) {
+        afterCommit(() -> usersByRole.computeIfAbsent(roleId, k -> ConcurrentHashMap.newKeySet()).add(username));
+    }
+
+    /**
+     * Record a removed role assignment once the current transaction commits
+     */
+    public void roleRemoved(String username, Long roleId) {
+        afterCommit(() -> {
+            Set<String> users = usersByRole.get(roleId);
+            if (users != null) {
+                users.remove(username);
+            }
+        });
+    }
+
+    /**
+     * Drop a deleted user once the current transaction commits
+     */
+    public void userDeleted(String username) {
+        afterCommit(() -> {
+            usersByRole.values().forEach(users -> users.remove(username));
+            usersByProfile.values().forEach(users -> users.remove(username));
+        });
+    }
+
+    /**
+     * Reload every assignment from the database
+     */
+    public void load() {
+        lock.lock();
+        try {
+            usersByRole.clear();
+            usersByProfile.clear();
+            userRepository.findRoleAssignments().forEach(assignment ->
+                usersByRole.computeIfAbsent(assignment.getTargetId(), k -> ConcurrentHashMap.newKeySet()).add(assignment.getUsername()));
+            userRepository.findProfileAssignments().forEach(assignment ->
+                usersByProfile.computeIfAbsent(assignment.getTargetId(), k -> ConcurrentHashMap.newKeySet()).add(assignment.getUsername()));
+            assignmentVersion.incrementAndGet();
+            loaded = true;
+            log.info("Loaded permission holder index: {} roles and {} profiles with assigned users",
+                usersByRole.size(), usersByProfile.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loadOnce() {
+        lock.lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Holders compute(PermissionIndex index, int ordinal) {
+        // Read the version first: a change made while computing leaves this result already stale
+        long version = assignmentVersion.get();
+        Set<String> usernames = new HashSet<>();
+        if (index.isActive(ordinal)) {
+            index.getRolesWithPermission(ordinal).forEach(roleId -> usernames.addAll(usersByRole.getOrDefault(roleId, Set.of())));
+            index.getProfilesWithPermission(ordinal).forEach(profileId -> usernames.addAll(usersByProfile.getOrDefault(profileId, Set.of())));
+        }
+        String[] sorted = usernames.toArray(String[]::new);
+        Arrays.sort(sorted);
+        return new Holders(index, version, sorted);
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            // Not loaded yet: the first load reads the committed change from the database
+            lock.lock();
+            try {
+                if (loaded) {
+                    change.run();
+                    assignmentVersion.incrementAndGet();
+                }
+            } finally {
+                lock.unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private record Holders(PermissionIndex source, long version, String[] usernames) {
+    }
+}
@@ -0,0 +1,380 @@
+package dev.dsa.service;
+
+import dev.dsa.entity.Permission;
+import dev.dsa.entity.Role;
+import dev.dsa.entity.RoleProfile;
+import dev.dsa.security.PermissionOrdinals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, precomputed closure of the RBAC hierarchy.
+ *
+ * Every permission gets a dense ordinal, and each role and role profile maps to a
+ * BitSet of effective permission ordinals (including inherited permissions).
+ * Resolving a user's permissions is then a few BitSet ORs instead of a walk over
+ * the role tree. Mutations return a new index; instances are never modified.
+ *
+ * Ordinals are stable for the lifetime of the JVM (a rebuild keeps existing ordinals),
+ * so permission bitsets held by authenticated sessions stay valid. Principals map their
+ * bitsets back to names through the index's {@link PermissionOrdinals}.
+ */
+public final class PermissionIndex {
+
+    private static final PermissionIndex EMPTY = new PermissionIndex(
+        Map.of(), PermissionOrdinals.empty(), new BitSet(), Map.of(), Map.of(), Map.of(), Map.of(), Map.of());
+
+    private final Map<Long, Integer> ordinalByPermissionId;
+    private final PermissionOrdinals ordinals;
+    private final BitSet activePermissions;
+
+    private final Map<Long, Long> parentByRole;
+    private final Map<Long, BitSet> directByRole;
+    private final Map<Long, BitSet> effectiveByRole;
+
+    private final Map<Long, Set<Long>> rolesByProfile;
+    private final Map<Long, BitSet> effectiveByProfile;
+
+    private PermissionIndex(Map<Long, Integer> ordinalByPermissionId,
+                            PermissionOrdinals ordinals,
+                            BitSet activePermissions,
+                            Map<Long, Long> parentByRole,
+                            Map<Long, BitSet> directByRole,
+                            Map<Long, BitSet> effectiveByRole,
+                            Map<Long, Set<Long>> rolesByProfile,
+                            Map<Long, BitSet> effectiveByProfile) {
+        this.ordinalByPermissionId = ordinalByPermissionId;
+        this.ordinals = ordinals;
+        this.activePermissions = activePermissions;
+        this.parentByRole = parentByRole;
+        this.directByRole = directByRole;
+        this.effectiveByRole = effectiveByRole;
+        this.rolesByProfile = rolesByProfile;
+        this.effectiveByProfile = effectiveByProfile;
+    }
+
+    public static PermissionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a full index from the current permissions, roles and profiles, keeping the ordinals
+     * already assigned by this index
+     */
+    public PermissionIndex rebuild(Collection<Permission> permissions,
+                                   Collection<Role> roles,
+                                   Collection<RoleProfile> profiles) {
+        Builder builder = new Builder(this);
+        builder.parentByRole.clear();
+        builder.directByRole.clear();
+        builder.effectiveByRole.clear();
+        builder.rolesByProfile.clear();
+        builder.effectiveByProfile.clear();
+        permissions.forEach(builder::putPermission);
+        roles.forEach(builder::putRole);
+        builder.recomputeRoles(builder.parentByRole.keySet());
+        profiles.forEach(builder::putProfile);
+        return builder.build();
+    }
+
+    /**
+     * Add or update a single permission (name and active flag)
+     */
+    public PermissionIndex withPermission(Permission permission) {
+        Builder builder = new Builder(this);
+        builder.putPermission(permission);
+        return builder.build();
+    }
+
+    /**
+     * Add or update roles, recomputing their descendants and every profile that contains them
+     */
+    public PermissionIndex withRoles(Collection<Role> roles) {
+        Builder builder = new Builder(this);
+        Set<Long> changed = new HashSet<>();
+        for (Role role : roles) {
+            builder.putRole(role);
+            changed.add(role.getId());
+        }
+        Set<Long> affected = builder.withDescendants(changed);
+        builder.recomputeRoles(affected);
+        builder.recomputeProfilesContaining(affected);
+        return builder.build();
+    }
+
+    /**
+     * Add or update a role profile
+     */
+    public PermissionIndex withProfile(RoleProfile profile) {
+        Builder builder = new Builder(this);
+        builder.putProfile(profile);
+        return builder.build();
+    }
+
+    /**
+     * Drop a deleted role profile
+     */
+    public PermissionIndex withoutProfile(Long profileId) {
+        Builder builder = new Builder(this);
+        builder.rolesByProfile.remove(profileId);
+        builder.effectiveByProfile.remove(profileId);
+        return builder.build();
+    }
+
+    /**
+     * OR together the effective permissions of the given roles and profiles, keeping only active permissions
+     */
+    public BitSet resolve(Collection<Long> roleIds, Collection<Long> profileIds) {
+        BitSet result = new BitSet(ordinals.size());
+        for (Long roleId : roleIds) {
+            BitSet bits = effectiveByRole.get(roleId);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        for (Long profileId : profileIds) {
+            BitSet bits = effectiveByProfile.get(profileId);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        result.and(activePermissions);
+        return result;
+    }
+
+    /**
+     * The given roles plus every role that inherits from them
+     */
+    public Set<Long> getRolesWithDescendants(Collection<Long> roleIds) {
+        return withDescendants(parentByRole, roleIds);
+    }
+
+    /**
+     * Roles whose effective permissions include the given permission
+     */
+    public Set<Long> getRolesGranting(Long permissionId) {
+        int ordinal = getOrdinal(permissionId);
+        return ordinal >= 0 ? getRolesWithPermission(ordinal) : new HashSet<>();
+    }
+
+    /**
+     * Roles whose effective permissions include the permission with the given ordinal
+     */
+    public Set<Long> getRolesWithPermission(int ordinal) {
+        return holdersOf(effectiveByRole, ordinal);
+    }
+
+    /**
+     * Role profiles whose effective permissions include the permission with the given ordinal
+     */
+    public Set<Long> getProfilesWithPermission(int ordinal) {
+        return holdersOf(effectiveByProfile, ordinal);
+    }
+
+    public boolean isActive(int ordinal) {
+        return ordinal >= 0 && activePermissions.get(ordinal);
+    }
+
+    public boolean containsRole(Long roleId) {
+        return effectiveByRole.containsKey(roleId);
+    }
+
+    public boolean containsProfile(Long profileId) {
+        return effectiveByProfile.containsKey(profileId);
+    }
+
+    public int getOrdinal(Long permissionId) {
+        Integer ordinal = ordinalByPermissionId.get(permissionId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public int getOrdinal(String permissionName) {
+        return ordinals.ordinalOf(permissionName);
+    }
+
+    public String getPermissionName(int ordinal) {
+        return ordinals.nameOf(ordinal);
+    }
+
+    public int getPermissionCount() {
+        return ordinals.size();
+    }
+
+    public PermissionOrdinals getOrdinals() {
+        return ordinals;
+    }
+
+    private static Set<Long> holdersOf(Map<Long, BitSet> effective, int ordinal) {
+        Set<Long> ids = new HashSet<>();
+        effective.forEach((id, bits) -> {
+            if (bits.get(ordinal)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private static Set<Long> withDescendants(Map<Long, Long> parentByRole, Collection<Long> roleIds) {
+        Map<Long, List<Long>> children = new HashMap<>();
+        parentByRole.forEach((child, parent) -> {
+            if (parent != null) {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(child);
+            }
+        });
+
+        Set<Long> result = new HashSet<>(roleIds);
+        List<Long> pending = new ArrayList<>(roleIds);
+        while (!pending.isEmpty()) {
+            Long roleId = pending.remove(pending.size() - 1);
+            for (Long child : children.getOrDefault(roleId, List.of())) {
+                if (result.add(child)) {
+                    pending.add(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Mutable working copy used to derive a new index
+     */
+    private static final class Builder {
+        private final PermissionIndex source;
+        private final Map<Long, Integer> ordinalByPermissionId;
+        private final Map<String, Integer> ordinalByName;
+        private final List<String> permissionNames;
+        private final BitSet activePermissions;
+        private final Map<Long, Long> parentByRole;
+        private final Map<Long, BitSet> directByRole;
+        private final Map<Long, BitSet> effectiveByRole;
+        private final Map<Long, Set<Long>> rolesByProfile;
+        private final Map<Long, BitSet> effectiveByProfile;
+        private boolean ordinalsChanged;
+
+        // BitSets in the source index are shared, so only newly computed ones are written here
+        Builder(PermissionIndex source) {
+            this.source = source;
+            this.ordinalByPermissionId = new HashMap<>(source.ordinalByPermissionId);
+            this.ordinalByName = new HashMap<>();
+            this.permissionNames = new ArrayList<>(source.ordinals.size());
+            for (int ordinal = 0; ordinal < source.ordinals.size(); ordinal++) {
+                String name = source.ordinals.nameOf(ordinal);
+                permissionNames.add(name);
+                ordinalByName.put(name, ordinal);
+            }
+            this.activePermissions = (BitSet) source.activePermissions.clone();
+            this.parentByRole = new HashMap<>(source.parentByRole);
+            this.directByRole = new HashMap<>(source.directByRole);
+            this.effectiveByRole = new HashMap<>(source.effectiveByRole);
+            this.rolesByProfile = new HashMap<>(source.rolesByProfile);
+            this.effectiveByProfile = new HashMap<>(source.effectiveByProfile);
+        }
+
+        int putPermission(Permission permission) {
+            Integer ordinal = ordinalByPermissionId.get(permission.getId());
+            if (ordinal == null) {
+                ordinal = permissionNames.size();
+                ordinalByPermissionId.put(permission.getId(), ordinal);
+                permissionNames.add(permission.getName());
+                ordinalByName.put(permission.getName(), ordinal);
+                ordinalsChanged = true;
+            } else if (!permissionNames.get(ordinal).equals(permission.getName())) {
+                ordinalByName.remove(permissionNames.get(ordinal), ordinal);
+                permissionNames.set(ordinal, permission.getName());
+                ordinalByName.put(permission.getName(), ordinal);
+                ordinalsChanged = true;
+            }
+            activePermissions.set(ordinal, Boolean.TRUE.equals(permission.getActive()));
+            return ordinal;
+        }
+
+        void putRole(Role role) {
+            BitSet direct = new BitSet();
+            // Roles created through the builder have no permission set until one is added
+            if (role.getPermissions() != null) {
+                for (Permission permission : role.getPermissions()) {
+                    direct.set(putPermission(permission));
+                }
+            }
+            directByRole.put(role.getId(), direct);
+            parentByRole.put(role.getId(), role.getParentRole() != null ? role.getParentRole().getId() : null);
+        }
+
+        void putProfile(RoleProfile profile) {
+            Set<Long> roleIds = new HashSet<>();
+            if (profile.getRoles() != null) {
+                for (Role role : profile.getRoles()) {
+                    roleIds.add(role.getId());
+                }
+            }
+            rolesByProfile.put(profile.getId(), Collections.unmodifiableSet(roleIds));
+            effectiveByProfile.put(profile.getId(), computeProfile(roleIds));
+        }
+
+        Set<Long> withDescendants(Set<Long> roleIds) {
+            return PermissionIndex.withDescendants(parentByRole, roleIds);
+        }
+
+        void recomputeRoles(Set<Long> roleIds) {
+            roleIds.forEach(effectiveByRole::remove);
+            for (Long roleId : roleIds) {
+                computeRole(roleId, new HashSet<>());
+            }
+        }
+
+        void recomputeProfilesContaining(Set<Long> roleIds) {
+            rolesByProfile.forEach((profileId, profileRoles) -> {
+                if (!Collections.disjoint(profileRoles, roleIds)) {
+                    effectiveByProfile.put(profileId, computeProfile(profileRoles));
+                }
+            });
+        }
+
+        private BitSet computeRole(Long roleId, Set<Long> visiting) {
+            BitSet cached = effectiveByRole.get(roleId);
+            if (cached != null) {
+                return cached;
+            }
+            BitSet effective = (BitSet) directByRole.getOrDefault(roleId, new BitSet()).clone();
+            Long parentId = parentByRole.get(roleId);
+            // Circular inheritance is rejected by RbacService; guard anyway so a bad row cannot loop forever
+            if (parentId != null && visiting.add(roleId)) {
+                effective.or(computeRole(parentId, visiting));
+            }
+            effectiveByRole.put(roleId, effective);
+            return effective;
+        }
+
+        private BitSet computeProfile(Set<Long> roleIds) {
+            BitSet effective = new BitSet();
+            for (Long roleId : roleIds) {
+                BitSet bits = effectiveByRole.get(roleId);
+                if (bits != null) {
+                    effective.or(bits);
+                }
+            }
+            return effective;
+        }
+
+        PermissionIndex build() {
+            return new PermissionIndex(
+                Collections.unmodifiableMap(ordinalByPermissionId),
+                // Unchanged names keep the existing instance, shared by the principals resolved against it
+                ordinalsChanged ? new PermissionOrdinals(permissionNames, ordinalByName) : source.ordinals,
+                activePermissions,
+                Collections.unmodifiableMap(parentByRole),
+                Collections.unmodifiableMap(directByRole),
+                Collections.unmodifiableMap(effectiveByRole),
+                Collections.unmodifiableMap(rolesByProfile),
+                Collections.unmodifiableMap(effectiveByProfile));
+        }
+    }
+}
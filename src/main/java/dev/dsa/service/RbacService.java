@@ -2,18 +2,41 @@ package dev.dsa.service;
 
 import dev.dsa.entity.Permission;
 import dev.dsa.entity.Role;
+import dev.dsa.entity.RoleProfile;
+import dev.dsa.exception.ResourceNotFoundException;
 import dev.dsa.repository.PermissionRepository;
+import dev.dsa.repository.RoleClosureRepository;
+import dev.dsa.repository.RoleProfileRepository;
 import dev.dsa.repository.RoleRepository;
+import dev.dsa.repository.UserRepository;
+import dev.dsa.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 
 @Service
 @RequiredArgsConstructor
@@ -22,10 +45,23 @@ public class RbacService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final RoleProfileRepository roleProfileRepository;
+    private final RoleClosureRepository roleClosureRepository;
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final PermissionHolderIndex permissionHolderIndex;
+    private final PlatformTransactionManager transactionManager;
+
+    // Serializes index rebuilds and patches; a lock rather than a monitor, so a request waiting on a
+    // rebuild (which reads the database) does not pin a virtual thread's carrier
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    // Current permission index, replaced (never modified) on every rebuild or patch
+    private volatile PermissionIndex permissionIndex;
 
     // Permission Management
     @Transactional
-    @CacheEvict(value = "permissions", allEntries = true)
+    @CacheEvict(value = "permissions", key = "'all'")
     public Permission createPermission(String name, String description) {
         log.info("Creating permission: {}", name);
         Permission permission = Permission.builder()
@@ -33,11 +69,16 @@ public class RbacService {
             .description(description)
             .active(true)
             .build();
-        return permissionRepository.save(permission);
+        Permission savedPermission = permissionRepository.save(permission);
+        refreshPermissionAfterCommit(savedPermission.getId());
+        return savedPermission;
     }
 
     @Transactional
-    @CacheEvict(value = "permissions", allEntries = true)
+    @Caching(evict = {
+        @CacheEvict(value = "permissions", key = "'all'"),
+        @CacheEvict(value = "permissions", key = "#id")
+    })
     public Permission updatePermission(Long id, String name, String description, Boolean active) {
         log.info("Updating permission: {}", id);
         Permission permission = permissionRepository.findById(id)
@@ -47,23 +88,27 @@ public class RbacService {
         if (description != null) permission.setDescription(description);
         if (active != null) permission.setActive(active);
 
-        return permissionRepository.save(permission);
+        Permission savedPermission = permissionRepository.save(permission);
+        invalidateUsersWithRoles(getPermissionIndex().getRolesGranting(id));
+        refreshPermissionAfterCommit(id);
+        return savedPermission;
     }
 
     @Transactional(readOnly = true)
-    @Cacheable("permissions")
+    @Cacheable(value = "permissions", key = "'all'", sync = true)
     public List<Permission> getAllPermissions() {
         return permissionRepository.findAll();
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(value = "permissions", key = "#id", unless = "#result == null")
     public Optional<Permission> getPermissionById(Long id) {
         return permissionRepository.findById(id);
     }
 
     // Role Management
     @Transactional
-    @CacheEvict(value = {"roles", "permissions"}, allEntries = true)
+    @CacheEvict(value = "roles", key = "'all'")
     public Role createRole(String name, String description, Long parentRoleId) {
         log.info("Creating role: {} with parent: {}", name, parentRoleId);
 
@@ -79,36 +124,53 @@ public class RbacService {
             role.setParentRole(parentRole);
         }
 
-        return roleRepository.save(role);
+        // Pooled ids let save() defer the INSERT, and the closure statements below do not trigger an
+        // auto-flush (they do not touch roles), so write the row before role_closure references it
+        Role savedRole = roleRepository.saveAndFlush(role);
+        roleClosureRepository.insertSelf(savedRole.getId());
+        if (parentRoleId != null) {
+            roleClosureRepository.attachSubtree(savedRole.getId(), parentRoleId);
+        }
+        refreshRolesAfterCommit(savedRole.getId());
+        return savedRole;
     }
 
     @Transactional
-    @CacheEvict(value = {"roles", "permissions"}, allEntries = true)
+    @CacheEvict(value = "roles", key = "'all'")
     public Role updateRole(Long id, String name, String description, Boolean active, Long parentRoleId) {
         log.info("Updating role: {}", id);
-        Role role = roleRepository.findById(id)
+        Role role = roleRepository.findByIdWithPermissions(id)
             .orElseThrow(() -> new RuntimeException("Role not found: " + id));
 
         if (name != null) role.setName(name);
         if (description != null) role.setDescription(description);
         if (active != null) role.setActive(active);
 
+        Long previousParentId = role.getParentRole() != null ? role.getParentRole().getId() : null;
         if (parentRoleId != null) {
             Role parentRole = roleRepository.findById(parentRoleId)
                 .orElseThrow(() -> new RuntimeException("Parent role not found: " + parentRoleId));
 
-            // Prevent circular inheritance
-            if (isCircularInheritance(role, parentRole)) {
+            // Prevent circular inheritance: the new parent cannot be the role itself or inherit from it
+            if (roleClosureRepository.existsByAncestorIdAndDescendantId(id, parentRoleId)) {
                 throw new RuntimeException("Circular role inheritance detected");
             }
             role.setParentRole(parentRole);
         }
 
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        if (parentRoleId != null && !parentRoleId.equals(previousParentId)) {
+            // Move the role and everything inheriting from it under the new parent
+            roleClosureRepository.detachSubtree(id);
+            roleClosureRepository.attachSubtree(id, parentRoleId);
+        }
+        invalidateUsersWithRoles(subtreeOf(id));
+        refreshRolesAfterCommit(savedRole.getId());
+        return savedRole;
     }
 
     @Transactional
-    @CacheEvict(value = {"roles", "permissions"}, allEntries = true)
+    @CacheEvict(value = "roles", key = "'all'")
     public void addPermissionToRole(Long roleId, Long permissionId) {
         log.info("Adding permission {} to role {}", permissionId, roleId);
         Role role = roleRepository.findByIdWithPermissions(roleId)
@@ -119,10 +181,12 @@ public class RbacService {
 
         role.getPermissions().add(permission);
         roleRepository.save(role);
+        invalidateUsersWithRoles(subtreeOf(roleId));
+        refreshRolesAfterCommit(roleId);
     }
 
     @Transactional
-    @CacheEvict(value = {"roles", "permissions"}, allEntries = true)
+    @CacheEvict(value = "roles", key = "'all'")
     public void removePermissionFromRole(Long roleId, Long permissionId) {
         log.info("Removing permission {} from role {}", permissionId, roleId);
         Role role = roleRepository.findByIdWithPermissions(roleId)
@@ -130,12 +194,14 @@ public class RbacService {
 
         role.getPermissions().removeIf(p -> p.getId().equals(permissionId));
         roleRepository.save(role);
+        invalidateUsersWithRoles(subtreeOf(roleId));
+        refreshRolesAfterCommit(roleId);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable("roles")
+    @Cacheable(value = "roles", key = "'all'", sync = true)
     public List<Role> getAllRoles() {
-        return roleRepository.findAll();
+        return roleRepository.findAllWithPermissions();
     }
 
     @Transactional(readOnly = true)
@@ -145,19 +211,196 @@ public class RbacService {
 
     @Transactional(readOnly = true)
     public Set<Permission> getRoleEffectivePermissions(Long roleId) {
-        Role role = roleRepository.findByIdWithPermissions(roleId)
-            .orElseThrow(() -> new RuntimeException("Role not found: " + roleId));
-        return role.getAllPermissions();
+        if (!roleRepository.existsById(roleId)) {
+            throw new RuntimeException("Role not found: " + roleId);
+        }
+        return new HashSet<>(roleClosureRepository.findEffectivePermissions(roleId));
+    }
+
+    // Role Hierarchy (role_closure)
+    /**
+     * Every role inheriting from the given role, directly or indirectly
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getDescendantRoleIds(Long roleId) {
+        return roleClosureRepository.findDescendantIds(roleId);
+    }
+
+    /**
+     * Usernames of everyone effectively holding an active permission, through direct roles,
+     * profiles or inheritance, in username order. Read from the database; getPermissionHolders
+     * answers the same question from memory, a page at a time.
+     */
+    @Transactional(readOnly = true)
+    public List<String> getUsernamesWithPermission(String permissionName) {
+        return userRepository.findUsernamesWithPermission(permissionName);
+    }
+
+    /**
+     * One page of the users effectively holding a permission, in username order. Answered from
+     * the in-memory inverted index, so every permission can be reviewed without touching the database.
+     */
+    public Page<String> getPermissionHolders(String permissionName, Pageable pageable) {
+        PermissionIndex index = getPermissionIndex();
+        int ordinal = index.getOrdinal(permissionName);
+        if (ordinal < 0) {
+            throw new ResourceNotFoundException("Permission not found: " + permissionName);
+        }
+        List<String> holders = permissionHolderIndex.getHolders(index, ordinal);
+        int from = (int) Math.min(pageable.getOffset(), holders.size());
+        int to = Math.min(from + pageable.getPageSize(), holders.size());
+        return new PageImpl<>(holders.subList(from, to), pageable, holders.size());
+    }
+
+    /**
+     * Recompute the role_closure table from parent_role_id (after seeding or a bulk change to roles)
+     */
+    @Transactional
+    public void rebuildRoleClosure() {
+        roleClosureRepository.deleteAllRows();
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> pending = new ArrayList<>();
+        List<Role> roles = roleRepository.findAll();
+        for (Role role : roles) {
+            if (role.getParentRole() != null) {
+                children.computeIfAbsent(role.getParentRole().getId(), k -> new ArrayList<>()).add(role.getId());
+            } else {
+                roleClosureRepository.insertSelf(role.getId());
+                pending.add(role.getId());
+            }
+        }
+
+        // Parents before children, so attaching a role copies its parent's complete ancestry
+        int linked = pending.size();
+        while (!pending.isEmpty()) {
+            Long parentId = pending.remove(pending.size() - 1);
+            for (Long childId : children.getOrDefault(parentId, List.of())) {
+                roleClosureRepository.insertSelf(childId);
+                roleClosureRepository.attachSubtree(childId, parentId);
+                pending.add(childId);
+                linked++;
+            }
+        }
+        if (linked < roles.size()) {
+            log.warn("{} roles are part of an inheritance cycle and were left out of role_closure", roles.size() - linked);
+        }
+        log.info("Rebuilt role_closure for {} roles", linked);
+    }
+
+    // Effective Permission Index
+    /**
+     * Get the current permission index, building it on first use
+     */
+    public PermissionIndex getPermissionIndex() {
+        PermissionIndex index = permissionIndex;
+        if (index == null) {
+            index = rebuildPermissionIndex();
+        }
+        return index;
+    }
+
+    /**
+     * Rebuild the permission index from the database (on startup, after data initialization).
+     * Reads in its own transaction rather than through @Transactional: getPermissionIndex calls
+     * this on the same bean, which bypasses the transactional proxy.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public PermissionIndex rebuildPermissionIndex() {
+        indexLock.lock();
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            PermissionIndex current = permissionIndex != null ? permissionIndex : PermissionIndex.empty();
+            PermissionIndex index = readOnly.execute(status -> current.rebuild(
+                permissionRepository.findAll(),
+                roleRepository.findAllWithPermissions(),
+                roleProfileRepository.findAllWithRoles()));
+            permissionIndex = index;
+            log.info("Built permission index with {} permissions", index.getPermissionCount());
+            return index;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Refresh a role profile in the permission index once the current transaction commits
+     */
+    public void refreshProfileInIndex(RoleProfile profile) {
+        Long profileId = profile.getId();
+        updateIndexAfterCommit(index -> roleProfileRepository.findByIdWithRoles(profileId)
+            .map(index::withProfile)
+            .orElseGet(() -> index.withoutProfile(profileId)));
+    }
+
+    /**
+     * Remove a role profile from the permission index once the current transaction commits
+     */
+    public void removeProfileFromIndex(Long profileId) {
+        updateIndexAfterCommit(index -> index.withoutProfile(profileId));
+    }
+
+    /**
+     * Invalidate cached user details of everyone assigned the profile, once the current transaction commits
+     */
+    public void invalidateUsersWithProfile(Long profileId) {
+        userDetailsCache.invalidate(userRepository.findUsernamesWithProfile(profileId));
+    }
+
+    private Set<Long> subtreeOf(Long roleId) {
+        return new HashSet<>(roleClosureRepository.findSubtreeIds(roleId));
+    }
+
+    private void invalidateUsersWithRoles(Set<Long> roleIds) {
+        if (!roleIds.isEmpty()) {
+            userDetailsCache.invalidate(userRepository.findUsernamesWithAnyRole(roleIds));
+        }
+    }
+
+    private void refreshPermissionAfterCommit(Long permissionId) {
+        updateIndexAfterCommit(index -> permissionRepository.findById(permissionId)
+            .map(index::withPermission)
+            .orElse(index));
+    }
+
+    // The role and its descendants, whose effective permissions inherit from it
+    private void refreshRolesAfterCommit(Long roleId) {
+        updateIndexAfterCommit(index -> index.withRoles(roleRepository.findAllByIdWithPermissions(subtreeOf(roleId))));
+    }
+
+    /**
+     * Patch the index once the current transaction commits. The update re-reads what it patches from the
+     * database under indexLock rather than reusing the entities of the transaction: two transactions editing
+     * the same role both saw its state from before either committed, and their hooks may run in any order.
+     */
+    private void updateIndexAfterCommit(UnaryOperator<PermissionIndex> update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    updateIndex(update);
+                }
+            });
+        } else {
+            updateIndex(update);
+        }
     }
 
-    private boolean isCircularInheritance(Role role, Role potentialParent) {
-        Role current = potentialParent;
-        while (current != null) {
-            if (current.getId().equals(role.getId())) {
-                return true;
+    private void updateIndex(UnaryOperator<PermissionIndex> update) {
+        indexLock.lock();
+        try {
+            // Nothing to patch yet; the first reader builds the full index
+            PermissionIndex index = permissionIndex;
+            if (index != null) {
+                // A new transaction: in afterCommit the finished one is still bound, with its stale entities
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                permissionIndex = readOnly.execute(status -> update.apply(index));
             }
-            current = current.getParentRole();
+        } finally {
+            indexLock.unlock();
         }
-        return false;
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -23,6 +24,7 @@ public class RoleProfileService {
     private final RoleProfileRepository roleProfileRepository;
     private final RoleRepository roleRepository;
     private final AuditService auditService;
+    private final RbacService rbacService;
 
     @Transactional
     public RoleProfile createProfile(RoleProfile profile, Set<Long> roleIds) {
@@ -45,9 +47,10 @@ public class RoleProfileService {
         }
 
         RoleProfile savedProfile = roleProfileRepository.save(profile);
+        rbacService.refreshProfileInIndex(savedProfile);
 
-        auditService.logAction("CREATE", "RoleProfile", savedProfile.getId(),
-            "Created role profile: " + savedProfile.getName(), null, savedProfile.toString());
+        auditService.logChanges("CREATE", "RoleProfile", savedProfile.getId(),
+            "Created role profile: " + savedProfile.getName(), null, auditService.snapshot(savedProfile));
 
         return savedProfile;
     }
@@ -59,7 +62,7 @@ public class RoleProfileService {
         RoleProfile profile = roleProfileRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("RoleProfile", id));
 
-        String oldValue = profile.toString();
+        Map<String, String> before = auditService.snapshot(profile);
 
         // Check if new name conflicts with existing profile
         if (!profile.getName().equals(profileDetails.getName()) &&
@@ -83,9 +86,11 @@ public class RoleProfileService {
         }
 
         RoleProfile updatedProfile = roleProfileRepository.save(profile);
+        rbacService.refreshProfileInIndex(updatedProfile);
+        rbacService.invalidateUsersWithProfile(updatedProfile.getId());
 
-        auditService.logAction("UPDATE", "RoleProfile", updatedProfile.getId(),
-            "Updated role profile: " + updatedProfile.getName(), oldValue, updatedProfile.toString());
+        auditService.logChanges("UPDATE", "RoleProfile", updatedProfile.getId(),
+            "Updated role profile: " + updatedProfile.getName(), before, auditService.snapshot(updatedProfile));
 
         return updatedProfile;
     }
@@ -98,15 +103,18 @@ public class RoleProfileService {
             .orElseThrow(() -> new ResourceNotFoundException("RoleProfile", id));
 
         String profileName = profile.getName();
+        Map<String, String> before = auditService.snapshot(profile);
+        rbacService.invalidateUsersWithProfile(id);
         roleProfileRepository.delete(profile);
+        rbacService.removeProfileFromIndex(id);
 
-        auditService.logAction("DELETE", "RoleProfile", id,
-            "Deleted role profile: " + profileName, profile.toString(), null);
+        auditService.logChanges("DELETE", "RoleProfile", id,
+            "Deleted role profile: " + profileName, before, null);
     }
 
     @Transactional(readOnly = true)
     public List<RoleProfile> getAllProfiles() {
-        return roleProfileRepository.findAll();
+        return roleProfileRepository.findAllWithRoles();
     }
 
     @Transactional(readOnly = true)
@@ -139,11 +147,14 @@ public class RoleProfileService {
         Role role = roleRepository.findById(roleId)
             .orElseThrow(() -> new ResourceNotFoundException("Role", roleId));
 
+        Map<String, String> before = auditService.snapshot(profile);
         profile.addRole(role);
         RoleProfile updatedProfile = roleProfileRepository.save(profile);
+        rbacService.refreshProfileInIndex(updatedProfile);
+        rbacService.invalidateUsersWithProfile(updatedProfile.getId());
 
-        auditService.logAction("UPDATE", "RoleProfile", profileId,
-            "Added role " + role.getName() + " to profile " + profile.getName(), null, null);
+        auditService.logChanges("UPDATE", "RoleProfile", profileId,
+            "Added role " + role.getName() + " to profile " + profile.getName(), before, auditService.snapshot(updatedProfile));
 
         return updatedProfile;
     }
@@ -158,11 +169,14 @@ public class RoleProfileService {
         Role role = roleRepository.findById(roleId)
             .orElseThrow(() -> new ResourceNotFoundException("Role", roleId));
 
+        Map<String, String> before = auditService.snapshot(profile);
         profile.removeRole(role);
         RoleProfile updatedProfile = roleProfileRepository.save(profile);
+        rbacService.refreshProfileInIndex(updatedProfile);
+        rbacService.invalidateUsersWithProfile(updatedProfile.getId());
 
-        auditService.logAction("UPDATE", "RoleProfile", profileId,
-            "Removed role " + role.getName() + " from profile " + profile.getName(), null, null);
+        auditService.logChanges("UPDATE", "RoleProfile", profileId,
+            "Removed role " + role.getName() + " from profile " + profile.getName(), before, auditService.snapshot(updatedProfile));
 
         return updatedProfile;
     }
@@ -0,0 +1,89 @@
+package dev.dsa.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.NoopOptimizer;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates entity ids for rows written with plain JDBC (audit writer, bulk import).
+ *
+ * Follows the pooled-lo scheme Hibernate uses for the same sequences: one nextval reserves
+ * as many ids as the entity's generator allocates (app.id.allocation-size, see IdGeneration),
+ * starting at the returned value, so ids handed out here never collide with ids Hibernate assigns.
+ * The block size is read from the generators Hibernate actually built rather than assumed. The
+ * sequence call is rendered by the Hibernate dialect, which keeps this working on both H2 and PostgreSQL.
+ */
+@Component
+public class SequenceIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionFactoryImplementor sessionFactory;
+    private final Map<String, Integer> blockSizes = new ConcurrentHashMap<>();
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public SequenceIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(entity -> {
+            if (entity.getGenerator() instanceof SequenceStyleGenerator generator) {
+                String sequence = generator.getDatabaseStructure().getPhysicalName().getObjectName().getText();
+                blockSizes.put(sequence, blockSize(sequence, generator.getOptimizer()));
+            }
+        });
+    }
+
+    // Any optimizer other than pooled-lo interprets sequence values differently and would hand out overlapping ids
+    private static int blockSize(String sequence, Optimizer optimizer) {
+        if (optimizer instanceof PooledLoOptimizer || optimizer instanceof NoopOptimizer) {
+            return Math.max(1, optimizer.getIncrementSize());
+        }
+        throw new IllegalStateException("JDBC id allocation requires the pooled-lo optimizer, but " + sequence +
+            " uses " + optimizer.getClass().getSimpleName());
+    }
+
+    public long nextId(String sequence) {
+        return blocks.computeIfAbsent(sequence, Block::new).next();
+    }
+
+    private final class Block {
+        private final String nextValueSql;
+        private final int size;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long limit;
+
+        Block(String sequence) {
+            Integer blockSize = blockSizes.get(sequence);
+            if (blockSize == null) {
+                throw new IllegalArgumentException("No entity generates its ids from sequence " + sequence);
+            }
+            this.size = blockSize;
+            this.nextValueSql = sessionFactory.getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString(sequence);
+        }
+
+        long next() {
+            lock.lock();
+            try {
+                if (next >= limit) {
+                    Long low = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                    next = low;
+                    limit = low + size;
+                }
+                return next++;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
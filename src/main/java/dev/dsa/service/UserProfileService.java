@@ -1,12 +1,17 @@
 package dev.dsa.service;
 
+import dev.dsa.dto.UserPreferences;
 import dev.dsa.entity.User;
 import dev.dsa.entity.UserProfile;
 import dev.dsa.exception.ResourceNotFoundException;
 import dev.dsa.repository.UserProfileRepository;
 import dev.dsa.repository.UserRepository;
+import dev.dsa.security.RbacUserDetails;
+import dev.dsa.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -15,12 +20,24 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserProfileService {
 
+    private static final String PREFERENCES_CACHE = "preferences";
+
     private final UserProfileRepository userProfileRepository;
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    // Preferences of users whose principal predates their current security version, keyed by username
+    private final Cache preferencesCache;
+
+    public UserProfileService(UserProfileRepository userProfileRepository, UserRepository userRepository,
+                              UserDetailsCache userDetailsCache, CacheManager cacheManager) {
+        this.userProfileRepository = userProfileRepository;
+        this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.preferencesCache = cacheManager.getCache(PREFERENCES_CACHE);
+    }
 
     @Transactional
     public UserProfile createDefaultProfile(User user) {
@@ -49,7 +66,8 @@ public class UserProfileService {
         return userProfileRepository.findByUser_Username(username);
     }
 
-    @Transactional(readOnly = true)
+    // Not read-only: the first call for a user without a profile creates it
+    @Transactional
     public UserProfile getCurrentUserProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -66,17 +84,43 @@ public class UserProfileService {
             });
     }
 
-    @Transactional(readOnly = true)
-    public int getCurrentUserPageSize() {
+    /**
+     * Current user's preferences, so list pages do not query the profile on every request.
+     *
+     * The snapshot on the principal is used while the user is still at the security version it was
+     * loaded at. updateProfile bumps that version, which makes the snapshot on every session of the
+     * user stale at once; those sessions then share a snapshot loaded at the new version.
+     */
+    public UserPreferences getCurrentUserPreferences() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return UserPreferences.DEFAULTS;
+        }
+        String username = authentication.getName();
+        // Read before loading, so a change committed meanwhile leaves the loaded snapshot at an old version
+        long version = userDetailsCache.currentVersion(username);
+        if (authentication.getPrincipal() instanceof RbacUserDetails user && user.getPreferences() != null
+                && user.getSecurityVersion() == version) {
+            return user.getPreferences();
+        }
+        VersionedPreferences cached = preferencesCache.get(username, VersionedPreferences.class);
+        if (cached != null && cached.version() == version) {
+            return cached.preferences();
+        }
         try {
-            UserProfile profile = getCurrentUserProfile();
-            return profile.getPageSize() != null ? profile.getPageSize() : 11;
+            UserPreferences preferences = UserPreferences.of(userProfileRepository.findByUser_Username(username).orElse(null));
+            preferencesCache.put(username, new VersionedPreferences(version, preferences));
+            return preferences;
         } catch (Exception e) {
-            log.warn("Could not retrieve user profile, using default page size", e);
-            return 11;
+            log.warn("Could not retrieve user profile, using default preferences", e);
+            return UserPreferences.DEFAULTS;
         }
     }
 
+    public int getCurrentUserPageSize() {
+        return getCurrentUserPreferences().getPageSize();
+    }
+
     @Transactional
     public UserProfile updateProfile(Long userId, UserProfile profileDetails) {
         log.info("Updating profile for user ID: {}", userId);
@@ -103,6 +147,13 @@ public class UserProfileService {
             profile.setTheme(profileDetails.getTheme());
         }
 
-        return userProfileRepository.save(profile);
+        UserProfile saved = userProfileRepository.save(profile);
+        // Bumps the user's version after commit: cached login details and the preferences snapshot
+        // on each of the user's sessions go stale together
+        userDetailsCache.invalidate(saved.getUser().getUsername());
+        return saved;
+    }
+
+    private record VersionedPreferences(long version, UserPreferences preferences) {
     }
 }
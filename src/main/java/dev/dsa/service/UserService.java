@@ -4,13 +4,13 @@ import dev.dsa.entity.Role;
 import dev.dsa.entity.User;
 import dev.dsa.repository.RoleRepository;
 import dev.dsa.repository.UserRepository;
+import dev.dsa.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,6 +24,8 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuditService auditService;
+    private final UserDetailsCache userDetailsCache;
+    private final PermissionHolderIndex permissionHolderIndex;
 
     @Transactional
     public User createUser(String username, String password, String email, String firstName, String lastName) {
@@ -71,6 +73,7 @@ public class UserService {
         if (enabled != null) user.setEnabled(enabled);
 
         User updatedUser = userRepository.save(user);
+        userDetailsCache.invalidate(user.getUsername());
 
         String newValue = String.format("Email: %s, Name: %s %s, Enabled: %s",
             updatedUser.getEmail(), updatedUser.getFirstName(), updatedUser.getLastName(), updatedUser.getEnabled());
@@ -90,6 +93,7 @@ public class UserService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getUsername());
 
         auditService.logAction("UPDATE", "User", userId, "Password changed for user: " + user.getUsername(), null, null);
     }
@@ -106,6 +110,8 @@ public class UserService {
 
         user.getRoles().add(role);
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getUsername());
+        permissionHolderIndex.roleAssigned(user.getUsername(), roleId);
 
         auditService.logAction("UPDATE", "User", userId,
             "Added role " + role.getName() + " to user " + user.getUsername(), null, null);
@@ -120,6 +126,8 @@ public class UserService {
 
         user.getRoles().removeIf(r -> r.getId().equals(roleId));
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getUsername());
+        permissionHolderIndex.roleRemoved(user.getUsername(), roleId);
 
         auditService.logAction("UPDATE", "User", userId,
             "Removed role from user " + user.getUsername(), null, null);
@@ -134,21 +142,15 @@ public class UserService {
 
         String username = user.getUsername();
         userRepository.delete(user);
+        userDetailsCache.invalidate(username);
+        permissionHolderIndex.userDeleted(username);
 
         auditService.logAction("DELETE", "User", userId, "Deleted user: " + username, username, null);
     }
 
-    @Transactional
-    public void updateLastLogin(String username) {
-        userRepository.findByUsername(username).ifPresent(user -> {
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-        });
-    }
-
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        return userRepository.findAllWithRoles();
     }
 
     @Transactional(readOnly = true)
@@ -156,6 +158,14 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    /**
+     * User with direct roles loaded, for pages that render the assignments
+     */
+    @Transactional(readOnly = true)
+    public Optional<User> getUserWithRoles(Long id) {
+        return userRepository.findByIdWithRoles(id);
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
@@ -12,12 +12,23 @@ import java.util.List;
 public class AccountSpecification {
 
     public static Specification<Account> withSearchCriteria(AccountSearchRequest searchRequest) {
+        return withSearchCriteria(searchRequest, AccountTextMatch.none());
+    }
+
+    /**
+     * Build the search specification, replacing the LIKE predicates of text filters that
+     * were already resolved to id sets (see AccountSearchIndex)
+     */
+    public static Specification<Account> withSearchCriteria(AccountSearchRequest searchRequest, AccountTextMatch textMatch) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
+            boolean customerNameFilter = searchRequest.getCustomerName() != null &&
+                !searchRequest.getCustomerName().trim().isEmpty() && !textMatch.isResolved("customerName");
+
             // Determine if we need a customer join
             boolean needsCustomerJoin =
-                (searchRequest.getCustomerName() != null && !searchRequest.getCustomerName().trim().isEmpty()) ||
+                customerNameFilter ||
                 searchRequest.getCustomerIdFrom() != null ||
                 searchRequest.getCustomerIdTo() != null;
 
@@ -28,35 +39,40 @@ public class AccountSpecification {
             }
 
             // Text search with LIKE (case-insensitive)
-            if (searchRequest.getAccountRef() != null && !searchRequest.getAccountRef().trim().isEmpty()) {
+            if (searchRequest.getAccountRef() != null && !searchRequest.getAccountRef().trim().isEmpty() &&
+                !textMatch.isResolved("accountRef")) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(root.get("accountRef")),
                     "%" + searchRequest.getAccountRef().toLowerCase() + "%"
                 ));
             }
 
-            if (searchRequest.getAccountName() != null && !searchRequest.getAccountName().trim().isEmpty()) {
+            if (searchRequest.getAccountName() != null && !searchRequest.getAccountName().trim().isEmpty() &&
+                !textMatch.isResolved("accountName")) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(root.get("accountName")),
                     "%" + searchRequest.getAccountName().toLowerCase() + "%"
                 ));
             }
 
-            if (searchRequest.getCurrency() != null && !searchRequest.getCurrency().trim().isEmpty()) {
+            if (searchRequest.getCurrency() != null && !searchRequest.getCurrency().trim().isEmpty() &&
+                !textMatch.isResolved("currency")) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(root.get("currency")),
                     "%" + searchRequest.getCurrency().toLowerCase() + "%"
                 ));
             }
 
-            if (searchRequest.getCreatedBy() != null && !searchRequest.getCreatedBy().trim().isEmpty()) {
+            if (searchRequest.getCreatedBy() != null && !searchRequest.getCreatedBy().trim().isEmpty() &&
+                !textMatch.isResolved("createdBy")) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(root.get("createdBy")),
                     "%" + searchRequest.getCreatedBy().toLowerCase() + "%"
                 ));
             }
 
-            if (searchRequest.getUpdatedBy() != null && !searchRequest.getUpdatedBy().trim().isEmpty()) {
+            if (searchRequest.getUpdatedBy() != null && !searchRequest.getUpdatedBy().trim().isEmpty() &&
+                !textMatch.isResolved("updatedBy")) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(root.get("updatedBy")),
                     "%" + searchRequest.getUpdatedBy().toLowerCase() + "%"
@@ -64,13 +80,26 @@ public class AccountSpecification {
             }
 
             // Customer name search (using shared join)
-            if (searchRequest.getCustomerName() != null && !searchRequest.getCustomerName().trim().isEmpty()) {
+            if (customerNameFilter) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(customerJoin.get("name")),
                     "%" + searchRequest.getCustomerName().toLowerCase() + "%"
                 ));
             }
 
+            // Text filters resolved by the search index (the customer id is the FK column, so no join)
+            if (textMatch.getAccountIds() != null) {
+                predicates.add(textMatch.getAccountIds().isEmpty()
+                    ? criteriaBuilder.disjunction()
+                    : root.get("id").in(textMatch.getAccountIds()));
+            }
+
+            if (textMatch.getCustomerIds() != null) {
+                predicates.add(textMatch.getCustomerIds().isEmpty()
+                    ? criteriaBuilder.disjunction()
+                    : root.get("customer").get("id").in(textMatch.getCustomerIds()));
+            }
+
             // Status exact match
             if (searchRequest.getStatus() != null) {
                 predicates.add(criteriaBuilder.equal(root.get("status"), searchRequest.getStatus()));
@@ -0,0 +1,41 @@
+package dev.dsa.specification;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Text filters of an account search that were already resolved outside the database.
+ *
+ * Resolved fields contribute an id restriction instead of a LIKE predicate. Account
+ * fields resolve to account ids; the customer name resolves to customer ids.
+ */
+@Getter
+public class AccountTextMatch {
+
+    private static final AccountTextMatch NONE = new AccountTextMatch(Set.of(), null, null);
+
+    // AccountSearchRequest property names whose LIKE predicate is replaced by the id sets below
+    private final Set<String> resolvedFields;
+
+    // Null when no account field was resolved
+    private final Collection<Long> accountIds;
+
+    // Null when the customer name was not resolved
+    private final Collection<Long> customerIds;
+
+    public AccountTextMatch(Set<String> resolvedFields, Collection<Long> accountIds, Collection<Long> customerIds) {
+        this.resolvedFields = resolvedFields;
+        this.accountIds = accountIds;
+        this.customerIds = customerIds;
+    }
+
+    public static AccountTextMatch none() {
+        return NONE;
+    }
+
+    public boolean isResolved(String field) {
+        return resolvedFields.contains(field);
+    }
+}
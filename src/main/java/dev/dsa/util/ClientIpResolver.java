@@ -0,0 +1,15 @@
+package dev.dsa.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public class ClientIpResolver {
+
+    /**
+     * Client address of a request. Forwarded headers are not read here, since any client can send them:
+     * with server.forward-headers-strategy=native the server replaces the peer address by the
+     * X-Forwarded-For client only when the peer is a trusted proxy (server.tomcat.remoteip.internal-proxies).
+     */
+    public static String resolve(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,140 @@
+package dev.dsa.util;
+
+import dev.dsa.exception.BusinessException;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset (seek) pagination.
+ *
+ * A cursor holds the sort key and id of the last (or first, when paging backward) row a
+ * client has seen, so the next page is a range scan from that row instead of an OFFSET.
+ * The token is URL-safe Base64 and should be treated as opaque by clients.
+ *
+ * Rows are ordered by (sortField ascending, nulls last; id ascending), see {@link #sort(String, boolean)}.
+ * A null sort key is encoded explicitly, so a page may end on a row whose key is null.
+ */
+@Getter
+public class KeysetCursor {
+
+    public enum Direction {
+        FORWARD,
+        BACKWARD
+    }
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Direction direction;
+    private final String sortField;
+    private final Object sortValue;
+    private final Long id;
+
+    public KeysetCursor(Direction direction, String sortField, Object sortValue, Long id) {
+        this.direction = direction;
+        this.sortField = sortField;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * Decode a cursor token produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String decoded = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", -1);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            Direction direction = "B".equals(parts[0]) ? Direction.BACKWARD : Direction.FORWARD;
+            Object sortValue = decodeValue(parts[2], new String(DECODER.decode(parts[3]), StandardCharsets.UTF_8));
+            return new KeysetCursor(direction, parts[1], sortValue, Long.valueOf(parts[4]));
+        } catch (RuntimeException e) {
+            throw new BusinessException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * The order keyset pages are read in: sortField ascending with nulls last, then id. Backward pages
+     * read the exact reverse (sortField descending with nulls first) and are flipped back by the caller.
+     */
+    public static Sort sort(String sortField, boolean backward) {
+        Sort.Direction direction = backward ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort byId = Sort.by(direction, "id");
+        if ("id".equals(sortField)) {
+            return byId;
+        }
+        Sort.Order byKey = new Sort.Order(direction, sortField, backward ? Sort.NullHandling.NULLS_FIRST : Sort.NullHandling.NULLS_LAST);
+        return Sort.by(byKey).and(byId);
+    }
+
+    public String encode() {
+        String rawValue = ENCODER.encodeToString((sortValue == null ? "" : String.valueOf(sortValue)).getBytes(StandardCharsets.UTF_8));
+        String token = (direction == Direction.BACKWARD ? "B" : "F") + "|" + sortField + "|" + typeOf(sortValue)
+            + "|" + rawValue + "|" + id;
+        return ENCODER.encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Key values are tagged with their type so they bind with the right JDBC type when decoded
+    private static String typeOf(Object value) {
+        if (value == null) {
+            return "N";
+        }
+        if (value instanceof Long) {
+            return "L";
+        }
+        if (value instanceof LocalDateTime) {
+            return "T";
+        }
+        if (value instanceof String) {
+            return "S";
+        }
+        throw new IllegalArgumentException("Unsupported keyset value type: " + value.getClass().getName());
+    }
+
+    private static Object decodeValue(String type, String value) {
+        return switch (type) {
+            case "L" -> Long.valueOf(value);
+            case "T" -> LocalDateTime.parse(value);
+            case "S" -> value;
+            case "N" -> null;
+            default -> throw new IllegalArgumentException("Unknown keyset value type: " + type);
+        };
+    }
+
+    /**
+     * Rows strictly after this cursor in {@link #sort(String, boolean)} order, or strictly before it when paging backward.
+     * Null keys sort after every value, so they are only reachable forward from a non-null key and
+     * a backward page from a null key takes in all the non-null rows.
+     */
+    public <T> Specification<T> toSpecification() {
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            boolean backward = direction == Direction.BACKWARD;
+            Predicate idBeyond = backward ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            if ("id".equals(sortField)) {
+                return idBeyond;
+            }
+
+            Path<Comparable<Object>> keyPath = root.get(sortField);
+            if (sortValue == null) {
+                Predicate nullBeyond = cb.and(cb.isNull(keyPath), idBeyond);
+                return backward ? cb.or(cb.isNotNull(keyPath), nullBeyond) : nullBeyond;
+            }
+
+            @SuppressWarnings("unchecked")
+            Comparable<Object> key = (Comparable<Object>) sortValue;
+            Predicate keyBeyond = backward ? cb.lessThan(keyPath, key) : cb.greaterThan(keyPath, key);
+            Predicate sameKey = cb.and(cb.equal(keyPath, key), idBeyond);
+            return backward ? cb.or(keyBeyond, sameKey) : cb.or(keyBeyond, sameKey, cb.isNull(keyPath));
+        };
+    }
+}
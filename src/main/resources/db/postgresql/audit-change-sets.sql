@@ -0,0 +1,5 @@
+-- Adds the audit_logs.changes column holding field-level change sets (AuditChangeSet). Run once
+-- against an existing database before starting the new release; works on the plain and on the
+-- partitioned audit_logs table. Existing rows keep their old_value/new_value snapshots.
+
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS changes TEXT;
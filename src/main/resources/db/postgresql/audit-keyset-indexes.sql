@@ -0,0 +1,24 @@
+-- Replaces the single-column audit_logs indexes with composite ones matching the keyset queries the
+-- audit screens run: WHERE <filter> AND (timestamp, id) < (?, ?) ORDER BY timestamp DESC, id DESC.
+-- With the filter columns leading and (timestamp, id) trailing, each page is an index range scan that
+-- stops after the page size, however many rows the user or entity has.
+--
+-- Run after audit-partitioning.sql. Indexes created on the partitioned parent are created on every
+-- partition, including ones AuditPartitionManager adds later.
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_audit_username_ts ON audit_logs (username, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_audit_entity_ts ON audit_logs (entity_type, entity_id, timestamp, id);
+
+-- Both are prefixes of the composite indexes above
+DROP INDEX IF EXISTS idx_username;
+DROP INDEX IF EXISTS idx_entity_type;
+
+-- Unfiltered browsing seeks on (timestamp, id) alone
+DROP INDEX IF EXISTS idx_timestamp;
+CREATE INDEX idx_timestamp ON audit_logs (timestamp, id);
+
+COMMIT;
+
+ANALYZE audit_logs;
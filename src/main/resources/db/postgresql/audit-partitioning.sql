@@ -0,0 +1,66 @@
+-- Converts audit_logs into a table range partitioned by month on timestamp, with one partition per
+-- month that holds data plus the current and next two months, and a default partition for anything
+-- outside them. Run once against an existing database before starting the new release; after that
+-- AuditPartitionManager creates upcoming partitions and archives and drops expired ones.
+--
+-- Rows are copied, so this needs roughly the table's size in free disk space and should run while
+-- the application is stopped. The primary key becomes (id, timestamp): PostgreSQL requires the
+-- partition key to be part of every unique constraint on a partitioned table.
+
+BEGIN;
+
+-- Also added by audit-change-sets.sql; here so the copy below carries it over either way
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS changes TEXT;
+
+ALTER TABLE audit_logs RENAME TO audit_logs_unpartitioned;
+DROP INDEX IF EXISTS idx_entity_type;
+DROP INDEX IF EXISTS idx_username;
+DROP INDEX IF EXISTS idx_timestamp;
+ALTER TABLE audit_logs_unpartitioned DROP CONSTRAINT IF EXISTS audit_logs_pkey;
+
+CREATE TABLE audit_logs (
+    id          BIGINT        NOT NULL,
+    username    VARCHAR(50)   NOT NULL,
+    action      VARCHAR(50)   NOT NULL,
+    entity_type VARCHAR(100),
+    entity_id   BIGINT,
+    details     VARCHAR(2000),
+    old_value   TEXT,
+    new_value   TEXT,
+    changes     TEXT,
+    ip_address  VARCHAR(45),
+    timestamp   TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN
+        SELECT generate_series(
+            date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM audit_logs_unpartitioned), now())),
+            date_trunc('month', now()) + INTERVAL '2 months',
+            INTERVAL '1 month')::date
+    LOOP
+        EXECUTE format('CREATE TABLE audit_logs_%s PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+            to_char(month, 'YYYYMM'), month, month + INTERVAL '1 month');
+    END LOOP;
+END $$;
+
+-- Created on the parent, so every partition gets them
+CREATE INDEX idx_entity_type ON audit_logs (entity_type);
+CREATE INDEX idx_username ON audit_logs (username);
+CREATE INDEX idx_timestamp ON audit_logs (timestamp);
+
+INSERT INTO audit_logs (id, username, action, entity_type, entity_id, details, old_value, new_value, changes, ip_address, timestamp)
+SELECT id, username, action, entity_type, entity_id, details, old_value, new_value, changes, ip_address, timestamp
+FROM audit_logs_unpartitioned;
+
+DROP TABLE audit_logs_unpartitioned;
+
+COMMIT;
+
+ANALYZE audit_logs;
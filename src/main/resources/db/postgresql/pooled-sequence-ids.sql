@@ -0,0 +1,38 @@
+-- Moves entity ids from IDENTITY columns to the pooled-lo sequences used since the switch to sequence ids.
+-- Run once against an existing database before starting the new release (spring.jpa.hibernate.ddl-auto=validate
+-- fails until the sequences exist). Safe to re-run.
+--
+-- Each sequence continues above the table's current maximum id. INCREMENT BY must equal
+-- spring.jpa.properties.app.id.allocation-size (50 by default): every nextval reserves that many ids starting at the returned value.
+
+ALTER TABLE accounts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS accounts_seq INCREMENT BY 50;
+SELECT setval('accounts_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM accounts), false);
+
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS customers_seq INCREMENT BY 50;
+SELECT setval('customers_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM customers), false);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false);
+
+ALTER TABLE roles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS roles_seq INCREMENT BY 50;
+SELECT setval('roles_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM roles), false);
+
+ALTER TABLE permissions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS permissions_seq INCREMENT BY 50;
+SELECT setval('permissions_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM permissions), false);
+
+ALTER TABLE role_profiles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS role_profiles_seq INCREMENT BY 50;
+SELECT setval('role_profiles_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM role_profiles), false);
+
+ALTER TABLE user_profiles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS user_profiles_seq INCREMENT BY 50;
+SELECT setval('user_profiles_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM user_profiles), false);
+
+ALTER TABLE audit_logs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS audit_logs_seq INCREMENT BY 50;
+SELECT setval('audit_logs_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM audit_logs), false);
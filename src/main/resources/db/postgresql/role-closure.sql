@@ -0,0 +1,32 @@
+-- Creates and backfills the role_closure table (one row per ancestor/descendant pair of the role
+-- hierarchy, each role paired with itself at depth 0) and the join-table indexes the hierarchy
+-- queries use. Run once against an existing database before starting the new release; after that
+-- RbacService keeps the table up to date. Safe to re-run: the closure is recomputed from
+-- roles.parent_role_id.
+
+CREATE TABLE IF NOT EXISTS role_closure (
+    ancestor_id   BIGINT  NOT NULL REFERENCES roles (id) ON DELETE CASCADE,
+    descendant_id BIGINT  NOT NULL REFERENCES roles (id) ON DELETE CASCADE,
+    depth         INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_role_closure_descendant ON role_closure (descendant_id, ancestor_id);
+CREATE INDEX IF NOT EXISTS idx_role_permissions_permission ON role_permissions (permission_id);
+CREATE INDEX IF NOT EXISTS idx_user_roles_role ON user_roles (role_id);
+CREATE INDEX IF NOT EXISTS idx_user_role_profiles_profile ON user_role_profiles (role_profile_id);
+CREATE INDEX IF NOT EXISTS idx_profile_roles_role ON profile_roles (role_id);
+
+BEGIN;
+DELETE FROM role_closure;
+INSERT INTO role_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM roles
+    UNION ALL
+    SELECT r.parent_role_id, c.descendant_id, c.depth + 1
+    FROM chain c
+    JOIN roles r ON r.id = c.ancestor_id
+    WHERE r.parent_role_id IS NOT NULL
+)
+SELECT ancestor_id, descendant_id, depth FROM chain;
+COMMIT;
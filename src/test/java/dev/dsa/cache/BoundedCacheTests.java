@@ -0,0 +1,133 @@
+package dev.dsa.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTests {
+
+	private static final Duration TTL = Duration.ofMinutes(10);
+
+	@Test
+	void sizeIsBoundedAcrossSegments() {
+		BoundedCache cache = new BoundedCache("test", 100, TTL, null, Runnable::run);
+
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, "value-" + i);
+		}
+
+		BoundedCache.Stats stats = cache.getStats();
+		assertThat(stats.getSize()).isEqualTo(100);
+		assertThat(stats.getEvictions()).isEqualTo(900);
+	}
+
+	@Test
+	void leastRecentlyUsedEntryIsEvicted() {
+		BoundedCache cache = new BoundedCache("test", 3, TTL, null, Runnable::run);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 3);
+
+		cache.get("a");
+		cache.put("d", 4);
+
+		assertThat(cache.get("a")).isNotNull();
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("d")).isNotNull();
+	}
+
+	@Test
+	void expiredEntriesAreMisses() throws InterruptedException {
+		BoundedCache cache = new BoundedCache("test", 10, Duration.ofMillis(20), null, Runnable::run);
+		cache.put("a", 1);
+
+		Thread.sleep(50);
+
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.getStats().getExpirations()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentMissesOnOneKeyShareOneLoad() throws Exception {
+		BoundedCache cache = new BoundedCache("test", 100, TTL, null, Runnable::run);
+		AtomicInteger loads = new AtomicInteger();
+		int threads = 16;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return cache.get("key", () -> {
+						loads.incrementAndGet();
+						Thread.sleep(100);
+						return "loaded";
+					});
+				}));
+			}
+			start.countDown();
+			for (Future<String> result : results) {
+				assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("loaded");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentReadsAndWritesKeepTheBoundAndCounters() throws Exception {
+		int maxSize = 500;
+		int threads = 16;
+		int operations = 20_000;
+		BoundedCache cache = new BoundedCache("test", maxSize, TTL, null, Runnable::run);
+		AtomicInteger lookups = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < operations; i++) {
+						int key = random.nextInt(2_000);
+						switch (random.nextInt(4)) {
+							case 0 -> cache.put(key, key);
+							case 1 -> cache.evict(key);
+							default -> {
+								lookups.incrementAndGet();
+								Object value = cache.get(key, () -> key);
+								assertThat(value).isEqualTo(key);
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		BoundedCache.Stats stats = cache.getStats();
+		assertThat(stats.getSize()).isLessThanOrEqualTo(maxSize);
+		assertThat(stats.getHits() + stats.getMisses()).isEqualTo(lookups.get());
+	}
+}
@@ -0,0 +1,53 @@
+package dev.dsa.entity;
+
+import dev.dsa.repository.CustomerRepository;
+import dev.dsa.service.SequenceIdAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Own database: the shared one already has its sequences at the default increment
+@SpringBootTest(properties = {
+	"spring.jpa.properties.app.id.allocation-size=7",
+	"spring.datasource.url=jdbc:h2:mem:idgeneration"
+})
+class IdGenerationTests {
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private SequenceIdAllocator sequenceIdAllocator;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void deleteCustomers() {
+		jdbcTemplate.update("DELETE FROM customers WHERE email LIKE 'id-generation-%'");
+	}
+
+	@Test
+	void sequencesAndJdbcAllocationFollowTheConfiguredAllocationSize() {
+		Long increment = jdbcTemplate.queryForObject(
+			"SELECT increment FROM information_schema.sequences WHERE LOWER(sequence_name) = ?", Long.class, Customer.ID_SEQUENCE);
+		assertThat(increment).isEqualTo(7);
+
+		// Hibernate and the JDBC allocator interleave on one sequence without handing out an id twice
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < 20; i++) {
+			Customer customer = new Customer();
+			customer.setName("Id generation " + i);
+			customer.setEmail("id-generation-" + i + "@example.com");
+			assertThat(ids.add(customerRepository.save(customer).getId())).isTrue();
+			assertThat(ids.add(sequenceIdAllocator.nextId(Customer.ID_SEQUENCE))).isTrue();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package dev.dsa.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginRateLimitFilterTests {
+
+	private final LoginRateLimiter rateLimiter = mock(LoginRateLimiter.class);
+	private final LoginRateLimitFilter filter = new LoginRateLimitFilter(rateLimiter);
+
+	@BeforeEach
+	void setUp() {
+		when(rateLimiter.isEnabled()).thenReturn(true);
+	}
+
+	@Test
+	void blockedLoginIsRedirectedWithoutReachingAuthentication() throws Exception {
+		when(rateLimiter.isBlocked("alice", "10.0.0.1")).thenReturn(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = mock(FilterChain.class);
+
+		filter.doFilter(loginPost("alice", "10.0.0.1"), response, chain);
+
+		assertThat(response.getRedirectedUrl()).isEqualTo("/login?throttled");
+		verify(rateLimiter).recordRejected("alice", "10.0.0.1");
+		verify(chain, never()).doFilter(any(), any());
+	}
+
+	@Test
+	void loginUnderTheLimitContinues() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(loginPost("alice", "10.0.0.1"), response, chain);
+
+		assertThat(chain.getRequest()).isNotNull();
+		assertThat(response.getRedirectedUrl()).isNull();
+	}
+
+	@Test
+	void forwardedForHeaderDoesNotChangeTheCountedAddress() throws Exception {
+		when(rateLimiter.isBlocked("alice", "10.0.0.1")).thenReturn(true);
+		MockHttpServletRequest request = loginPost("alice", "10.0.0.1");
+		// Sent by the client itself, not resolved by a trusted proxy
+		request.addHeader("X-Forwarded-For", "203.0.113.7");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain());
+
+		assertThat(response.getRedirectedUrl()).isEqualTo("/login?throttled");
+	}
+
+	@Test
+	void otherRequestsAreNotChecked() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/login");
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertThat(chain.getRequest()).isNotNull();
+		verify(rateLimiter, never()).isBlocked(any(), any());
+	}
+
+	private static MockHttpServletRequest loginPost(String username, String remoteAddress) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+		request.setServletPath("/login");
+		request.setParameter("username", username);
+		request.setRemoteAddr(remoteAddress);
+		return request;
+	}
+}
@@ -0,0 +1,106 @@
+package dev.dsa.security;
+
+import dev.dsa.config.LoginRateLimitProperties;
+import dev.dsa.service.AuditService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LoginRateLimiterTests {
+
+	private final LoginRateLimitProperties properties = new LoginRateLimitProperties();
+	private final AuditService auditService = mock(AuditService.class);
+
+	private LoginRateLimiter limiter;
+
+	@BeforeEach
+	void setUp() {
+		properties.setMaxFailuresPerUsername(3);
+		properties.setMaxFailuresPerIp(5);
+		properties.setWidth(256);
+		properties.setSummaryInterval(Duration.ofHours(1));
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (limiter != null) {
+			limiter.stop();
+		}
+	}
+
+	@Test
+	void usernameIsBlockedAtItsLimitWhateverTheCase() {
+		start();
+		for (int i = 0; i < 2; i++) {
+			limiter.recordFailure("Alice", "10.0.0." + i);
+		}
+		assertThat(limiter.isBlocked("alice", "10.0.0.99")).isFalse();
+
+		limiter.recordFailure("ALICE ", "10.0.0.2");
+
+		assertThat(limiter.isBlocked("alice", "10.0.0.99")).isTrue();
+		assertThat(limiter.isBlocked("bob", "10.0.0.99")).isFalse();
+	}
+
+	@Test
+	void addressIsBlockedAtItsLimitForEveryUsername() {
+		start();
+		for (int i = 0; i < 4; i++) {
+			limiter.recordFailure("user-" + i, "10.0.0.1");
+		}
+		assertThat(limiter.isBlocked("someone", "10.0.0.1")).isFalse();
+
+		limiter.recordFailure("user-4", "10.0.0.1");
+
+		assertThat(limiter.isBlocked("someone", "10.0.0.1")).isTrue();
+		assertThat(limiter.isBlocked("someone", "10.0.0.2")).isFalse();
+	}
+
+	@Test
+	void saturatedUsernameCounterFailsOpen() {
+		start();
+		// A spray of distinct usernames from many addresses, far beyond the counter width
+		for (int i = 0; i < 10_000; i++) {
+			limiter.recordFailure("sprayed-" + i, "10.1." + (i / 256) + "." + (i % 256));
+		}
+
+		assertThat(limiter.isBlocked("innocent", "192.168.0.1")).isFalse();
+		assertThat(limiter.getStats().getFailedOpen()).isPositive();
+	}
+
+	@Test
+	void disabledLimiterNeverBlocks() {
+		properties.setEnabled(false);
+		start();
+		for (int i = 0; i < 10; i++) {
+			limiter.recordFailure("alice", "10.0.0.1");
+		}
+
+		assertThat(limiter.isBlocked("alice", "10.0.0.1")).isFalse();
+	}
+
+	@Test
+	void rejectedAttemptsAreAuditedAsOneSummary() {
+		start();
+		limiter.recordRejected("alice", "10.0.0.1");
+		limiter.recordRejected("alice", "10.0.0.1");
+
+		limiter.writeSummaries();
+
+		verify(auditService).logLoginThrottled(eq("alice"), eq("10.0.0.1"), eq(2L), any());
+		assertThat(limiter.getStats().getSummariesWritten()).isEqualTo(1);
+	}
+
+	private void start() {
+		limiter = new LoginRateLimiter(properties, auditService);
+		limiter.start();
+	}
+}
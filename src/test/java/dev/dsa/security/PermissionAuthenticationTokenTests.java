@@ -0,0 +1,55 @@
+package dev.dsa.security;
+
+import dev.dsa.dto.UserPreferences;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tokens are compared and resolved from their own principal only, never from global state.
+ */
+class PermissionAuthenticationTokenTests {
+
+	private static final PermissionOrdinals ORDINALS = new PermissionOrdinals(
+		List.of("ACCOUNT_READ", "ACCOUNT_WRITE"), Map.of("ACCOUNT_READ", 0, "ACCOUNT_WRITE", 1));
+
+	@Test
+	void tokensOfTheSameUserAndPermissionsAreEqual() {
+		PermissionAuthenticationToken first = token("alice", 0);
+		PermissionAuthenticationToken second = token("alice", 0);
+
+		assertThat(first).isEqualTo(second);
+		assertThat(first.hashCode()).isEqualTo(second.hashCode());
+	}
+
+	@Test
+	void tokensWithDifferentPermissionsAreNotEqual() {
+		assertThat(token("alice", 0)).isNotEqualTo(token("alice", 1));
+		assertThat(token("alice", 0)).isNotEqualTo(token("bob", 0));
+	}
+
+	@Test
+	void authoritiesResolveThroughThePrincipalsOwnOrdinals() {
+		PermissionAuthenticationToken token = token("alice", 1);
+
+		assertThat(token.hasAuthority("ACCOUNT_WRITE")).isTrue();
+		assertThat(token.hasAuthority("ACCOUNT_READ")).isFalse();
+		assertThat(token.hasAuthority("ROLE_USER")).isTrue();
+		assertThat(token.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+			.containsExactlyInAnyOrder("ROLE_USER", "ACCOUNT_WRITE");
+	}
+
+	private static PermissionAuthenticationToken token(String username, int permission) {
+		BitSet permissions = new BitSet();
+		permissions.set(permission);
+		RbacUserDetails user = new RbacUserDetails(1L, username, null, true, true, true, true,
+			Set.of("ROLE_USER"), permissions, ORDINALS, 0, UserPreferences.DEFAULTS);
+		return new PermissionAuthenticationToken(user, null);
+	}
+}
@@ -0,0 +1,87 @@
+package dev.dsa.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTests {
+
+	private static final long SLOT_NANOS = Duration.ofMinutes(1).toNanos();
+
+	private final AtomicLong now = new AtomicLong(1_000);
+
+	@Test
+	void countsAreSummedOverTheLiveSlots() {
+		SlidingWindowCounter counter = counter(1024);
+
+		counter.increment("alice");
+		advanceSlots(1);
+		counter.increment("alice");
+		counter.increment("bob");
+
+		assertThat(counter.estimate("alice")).isEqualTo(2);
+		assertThat(counter.estimate("bob")).isEqualTo(1);
+		assertThat(counter.estimate("carol")).isZero();
+	}
+
+	@Test
+	void countsSlideOutOfTheWindow() {
+		SlidingWindowCounter counter = counter(1024);
+
+		counter.increment("alice");
+		advanceSlots(1);
+		counter.increment("alice");
+
+		// The window is 3 slots: the first increment ages out after 3 slots, the second one slot later
+		advanceSlots(2);
+		assertThat(counter.estimate("alice")).isEqualTo(1);
+		advanceSlots(1);
+		assertThat(counter.estimate("alice")).isZero();
+	}
+
+	@Test
+	void recycledSlotIsClearedBeforeCounting() {
+		SlidingWindowCounter counter = counter(1024);
+		for (int i = 0; i < 4; i++) {
+			counter.increment("alice");
+		}
+
+		// Same slot index one window later: the old counts must not come back with the new increment
+		advanceSlots(3);
+		counter.increment("alice");
+
+		assertThat(counter.estimate("alice")).isEqualTo(1);
+	}
+
+	@Test
+	void sprayOfDistinctKeysSaturatesTheCounter() {
+		SlidingWindowCounter counter = counter(64);
+		for (int i = 0; i < 64; i++) {
+			counter.increment("user-" + i);
+		}
+		assertThat(counter.isSaturated()).isFalse();
+
+		for (int i = 64; i < 10_000; i++) {
+			counter.increment("user-" + i);
+		}
+
+		// Every key now looks busy; the counter says so rather than being trusted
+		assertThat(counter.estimate("innocent")).isGreaterThanOrEqualTo(5);
+		assertThat(counter.isSaturated()).isTrue();
+
+		advanceSlots(3);
+		assertThat(counter.isSaturated()).isFalse();
+		assertThat(counter.estimate("innocent")).isZero();
+	}
+
+	private SlidingWindowCounter counter(int width) {
+		return new SlidingWindowCounter(Duration.ofMinutes(3), 3, 4, width, 1.0, now::get);
+	}
+
+	private void advanceSlots(int slots) {
+		now.addAndGet(slots * SLOT_NANOS);
+	}
+}
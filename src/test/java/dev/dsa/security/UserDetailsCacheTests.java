@@ -0,0 +1,74 @@
+package dev.dsa.security;
+
+import dev.dsa.dto.UserPreferences;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.BitSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDetailsCacheTests {
+
+	private static final int MAX_TRACKED = 10;
+
+	private UserDetailsCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new UserDetailsCache(new ConcurrentMapCacheManager("users"), true, MAX_TRACKED);
+	}
+
+	@Test
+	void invalidatedUserIsNotServedFromCache() {
+		cache.putUserInCache(user("alice", cache.currentVersion("alice")));
+		assertThat(cache.getUserFromCache("alice")).isNotNull();
+
+		cache.invalidate("alice");
+
+		assertThat(cache.getUserFromCache("alice")).isNull();
+	}
+
+	@Test
+	void loadRacingWithAnInvalidationIsNotCached() {
+		long versionAtLoad = cache.currentVersion("alice");
+		cache.invalidate("alice");
+
+		cache.putUserInCache(user("alice", versionAtLoad));
+
+		assertThat(cache.getUserFromCache("alice")).isNull();
+	}
+
+	@Test
+	void trackedVersionsAreBounded() {
+		for (int i = 0; i < MAX_TRACKED * 5; i++) {
+			cache.invalidate("user-" + i);
+		}
+
+		assertThat(cache.getTrackedVersionCount()).isLessThanOrEqualTo(MAX_TRACKED);
+	}
+
+	@Test
+	void loadStartedBeforeAResetIsNotCachedAfterIt() {
+		long versionAtLoad = cache.currentVersion("alice");
+		cache.invalidate("alice");
+		// Push alice's version out of the tracked set
+		for (int i = 0; i < MAX_TRACKED; i++) {
+			cache.invalidate("user-" + i);
+		}
+		assertThat(cache.getTrackedVersionCount()).isLessThanOrEqualTo(MAX_TRACKED);
+
+		cache.putUserInCache(user("alice", versionAtLoad));
+
+		assertThat(cache.getUserFromCache("alice")).isNull();
+		cache.putUserInCache(user("alice", cache.currentVersion("alice")));
+		assertThat(cache.getUserFromCache("alice")).isNotNull();
+	}
+
+	private static RbacUserDetails user(String username, long version) {
+		return new RbacUserDetails(1L, username, "{noop}secret", true, true, true, true,
+			Set.of(), new BitSet(), PermissionOrdinals.empty(), version, UserPreferences.DEFAULTS);
+	}
+}
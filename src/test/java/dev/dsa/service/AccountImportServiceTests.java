@@ -0,0 +1,144 @@
+package dev.dsa.service;
+
+import dev.dsa.dto.AccountImportResult;
+import dev.dsa.dto.AuditHistoryEntry;
+import dev.dsa.entity.Account;
+import dev.dsa.entity.AuditLog;
+import dev.dsa.entity.Customer;
+import dev.dsa.repository.AccountRepository;
+import dev.dsa.repository.AuditLogRepository;
+import dev.dsa.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = "app.audit.mode=sync")
+class AccountImportServiceTests {
+
+	private static final String PREFIX = "IMP-";
+
+	@Autowired
+	private AccountImportService accountImportService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private AuditLogRepository auditLogRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@SpyBean
+	private AuditService auditService;
+
+	private Long customerId;
+
+	@BeforeEach
+	void setUp() {
+		Customer customer = new Customer();
+		customer.setName("Import");
+		customer.setEmail("import-tests@example.com");
+		customerId = customerRepository.save(customer).getId();
+		ReflectionTestUtils.setField(accountImportService, "batchSize", 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReflectionTestUtils.setField(accountImportService, "batchSize", 1000);
+		jdbcTemplate.update("DELETE FROM audit_logs WHERE entity_type = 'Account'");
+		jdbcTemplate.update("DELETE FROM accounts WHERE account_ref LIKE ?", PREFIX + "%");
+		jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+	}
+
+	@Test
+	void referencesOfARolledBackBatchCanBeImportedLater() {
+		// The first batch fails after its insert, when its summary audit row is written
+		AtomicBoolean failed = new AtomicBoolean();
+		doAnswer(invocation -> {
+			if (failed.compareAndSet(false, true)) {
+				throw new IllegalStateException("audit unavailable");
+			}
+			return invocation.callRealMethod();
+		}).when(auditService).logAction(eq("IMPORT"), eq("Account"), isNull(), any(), isNull(), isNull());
+
+		AccountImportResult result = importCsv(
+			row(1), row(2),
+			row(1), row(3),
+			row(3));
+
+		assertThat(result.getFailedBatches()).isEqualTo(1);
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getRejected()).isEqualTo(3);
+		assertThat(accountRepository.findByAccountRef(PREFIX + 1)).isPresent();
+		assertThat(accountRepository.findByAccountRef(PREFIX + 2)).isEmpty();
+		assertThat(accountRepository.findByAccountRef(PREFIX + 3)).isPresent();
+		assertThat(result.getErrors())
+			.extracting(AccountImportResult.RowError::getMessage)
+			.anyMatch(message -> message.contains("was rolled back"))
+			.contains("Duplicate account reference in file");
+	}
+
+	@Test
+	void eachBatchIsAuditedAsOneSummaryRow() {
+		AccountImportResult result = importCsv(row(1), row(2), row(3));
+
+		assertThat(result.getImported()).isEqualTo(3);
+		List<AuditLog> auditLogs = auditLogRepository.findAll().stream()
+			.filter(auditLog -> "Account".equals(auditLog.getEntityType()))
+			.toList();
+		assertThat(auditLogs).extracting(AuditLog::getAction).containsExactly("IMPORT", "IMPORT");
+		Account first = accountRepository.findByAccountRef(PREFIX + 1).orElseThrow();
+		Account second = accountRepository.findByAccountRef(PREFIX + 2).orElseThrow();
+		assertThat(auditLogs.get(0).getDetails()).endsWith("ids " + first.getId() + "-" + second.getId());
+	}
+
+	@Test
+	void firstChangeOfAnImportedAccountIsACheckpoint() {
+		importCsv(row(1));
+		Account account = accountRepository.findByAccountRef(PREFIX + 1).orElseThrow();
+
+		accountService.updateAccount(account.getId(), Account.builder()
+			.accountName("Renamed")
+			.currency(account.getCurrency())
+			.status(account.getStatus())
+			.build());
+
+		AuditHistoryEntry entry = auditService.getEntityHistory("Account", account.getId(), null, 10).getContent().get(0);
+		assertThat(entry.isStateKnown()).isTrue();
+		assertThat(entry.getFields()).extracting(AuditHistoryEntry.FieldState::getField).contains("accountRef", "currency");
+		assertThat(AuditChangeSet.decode(entry.getLog().getChanges()).isCheckpoint()).isTrue();
+	}
+
+	private AccountImportResult importCsv(String... rows) {
+		String csv = "accountRef,accountName,currency,customerId\n" + String.join("\n", rows) + "\n";
+		return accountImportService.importAccounts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+			"accounts.csv", ExportFormat.CSV);
+	}
+
+	private String row(int n) {
+		return PREFIX + n + ",Imported " + n + ",EUR," + customerId;
+	}
+}
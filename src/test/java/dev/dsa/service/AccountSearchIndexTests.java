@@ -0,0 +1,90 @@
+package dev.dsa.service;
+
+import dev.dsa.dto.AccountSearchRequest;
+import dev.dsa.entity.Account;
+import dev.dsa.entity.Customer;
+import dev.dsa.specification.AccountTextMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountSearchIndexTests {
+
+	// Past Integer.MAX_VALUE, as pooled ids reach after enough restarts
+	private static final long LARGE_ID = 5_000_000_000L;
+
+	private AccountSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new AccountSearchIndex(null);
+		ReflectionTestUtils.setField(index, "enabled", true);
+		ReflectionTestUtils.setField(index, "maxCandidates", 1000);
+		ReflectionTestUtils.setField(index, "ready", true);
+	}
+
+	@Test
+	void idsBeyondTheIntRangeAreIndexed() {
+		index.indexCustomerAfterCommit(customer(LARGE_ID + 7, "Globex Corporation"));
+		index.indexAfterCommit(account(LARGE_ID, "Payroll account", LARGE_ID + 7));
+		index.indexAfterCommit(account(12L, "Savings account", LARGE_ID + 7));
+
+		AccountTextMatch match = index.resolve(AccountSearchRequest.builder()
+			.accountName("payroll")
+			.customerName("globex")
+			.build());
+
+		assertThat(match.getAccountIds()).containsExactly(LARGE_ID);
+		assertThat(match.getCustomerIds()).containsExactly(LARGE_ID + 7);
+		assertThat(match.isResolved("accountName")).isTrue();
+		assertThat(match.isResolved("customerName")).isTrue();
+	}
+
+	@Test
+	void reusedOrdinalDoesNotMatchTheRemovedAccount() {
+		index.indexAfterCommit(account(100L, "Payroll account", 1L));
+		index.indexAfterCommit(account(200L, "Payroll reserve", 1L));
+		index.removeAfterCommit(100L);
+		index.indexAfterCommit(account(LARGE_ID, "Travel account", 1L));
+
+		assertThat(index.resolve(AccountSearchRequest.builder().accountName("payroll").build()).getAccountIds())
+			.containsExactly(200L);
+		assertThat(index.resolve(AccountSearchRequest.builder().accountName("account").build()).getAccountIds())
+			.containsExactly(LARGE_ID);
+	}
+
+	@Test
+	void removedCustomerTakesItsAccountsAlong() {
+		index.indexCustomerAfterCommit(customer(1L, "Initech"));
+		index.indexAfterCommit(account(10L, "Operating account", 1L));
+		index.indexAfterCommit(account(20L, "Operating reserve", 2L));
+
+		index.removeCustomerAfterCommit(1L);
+
+		AccountTextMatch match = index.resolve(AccountSearchRequest.builder()
+			.accountName("operating")
+			.customerName("initech")
+			.build());
+		assertThat(match.getAccountIds()).containsExactly(20L);
+		assertThat(match.getCustomerIds()).isEmpty();
+	}
+
+	private static Account account(Long id, String name, Long customerId) {
+		Account account = Account.builder()
+			.accountRef("REF-" + id)
+			.accountName(name)
+			.currency("EUR")
+			.customer(customer(customerId, null))
+			.build();
+		account.setId(id);
+		return account;
+	}
+
+	private static Customer customer(Long id, String name) {
+		Customer customer = Customer.builder().name(name).build();
+		customer.setId(id);
+		return customer;
+	}
+}
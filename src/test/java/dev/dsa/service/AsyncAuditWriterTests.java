@@ -0,0 +1,99 @@
+package dev.dsa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dsa.entity.AuditLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Spill file replay must not lose events: neither to an unreadable line nor to a replay
+ * file left behind by an earlier, interrupted replay.
+ */
+class AsyncAuditWriterTests {
+
+	@TempDir
+	Path directory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final List<String> writtenActions = new ArrayList<>();
+
+	private Path spillPath;
+	private AsyncAuditWriter writer;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+			.thenAnswer(invocation -> {
+				Collection<AuditLog> batch = invocation.getArgument(1);
+				batch.forEach(auditLog -> writtenActions.add(auditLog.getAction()));
+				return new int[0][];
+			});
+
+		spillPath = directory.resolve("audit-spill.ndjson");
+		writer = new AsyncAuditWriter(jdbcTemplate, objectMapper, mock(SequenceIdAllocator.class));
+		ReflectionTestUtils.setField(writer, "mode", "async");
+		ReflectionTestUtils.setField(writer, "batchSize", 2);
+		ReflectionTestUtils.setField(writer, "spillFile", spillPath.toString());
+	}
+
+	@Test
+	void unreadableLinesAreQuarantinedAndTheRestReplayed() throws IOException {
+		String torn = event("C").substring(0, 20);
+		Files.writeString(spillPath, String.join("\n", event("A"), torn, event("B"), "") + "\n" + torn, StandardCharsets.UTF_8);
+
+		writer.replaySpillFile();
+
+		assertThat(writtenActions).containsExactly("A", "B");
+		assertThat(writer.getStats().getRejected()).isEqualTo(2);
+		assertThat(Files.readAllLines(Path.of(spillPath + ".rejected"))).containsExactly(torn, torn);
+		assertThat(Path.of(spillPath + ".replay")).doesNotExist();
+		assertThat(spillPath).doesNotExist();
+	}
+
+	@Test
+	void leftoverReplayFileIsReplayedBeforeTheSpillFileIsRotated() throws IOException {
+		Path replayPath = Path.of(spillPath + ".replay");
+		Files.writeString(replayPath, event("LEFTOVER") + "\n", StandardCharsets.UTF_8);
+		Files.writeString(spillPath, event("NEW") + "\n", StandardCharsets.UTF_8);
+
+		writer.replaySpillFile();
+		assertThat(writtenActions).containsExactly("LEFTOVER");
+		assertThat(spillPath).exists();
+
+		writer.replaySpillFile();
+		assertThat(writtenActions).containsExactly("LEFTOVER", "NEW");
+		assertThat(replayPath).doesNotExist();
+		assertThat(spillPath).doesNotExist();
+	}
+
+	private String event(String action) throws IOException {
+		return objectMapper.writeValueAsString(AuditLog.builder()
+			.username("tester")
+			.action(action)
+			.timestamp(LocalDateTime.now())
+			.build());
+	}
+}
@@ -0,0 +1,181 @@
+package dev.dsa.service;
+
+import dev.dsa.dto.AuditHistoryEntry;
+import dev.dsa.entity.AuditLog;
+import dev.dsa.repository.AuditLogPartitionQueries;
+import dev.dsa.repository.AuditLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {"app.audit.mode=sync", "app.audit.checkpoint-interval=3"})
+class AuditHistoryTests {
+
+	private static final String ENTITY_TYPE = "HistoryTest";
+	private static final long ENTITY_ID = 1L;
+
+	@Autowired
+	private AuditService auditService;
+
+	@Autowired
+	private AuditLogRepository auditLogRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@SpyBean
+	private AuditLogPartitionQueries auditLogPartitionQueries;
+
+	// State of the test entity after its last logged change
+	private Map<String, String> current;
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM audit_logs WHERE entity_type = ?", ENTITY_TYPE);
+		cacheManager.getCache("auditCheckpoints").clear();
+	}
+
+	@Test
+	void updatesStoreChangedFieldsWithACheckpointEveryInterval() {
+		create(state("name", "A", "status", "ACTIVE"));
+		for (String name : List.of("B", "C", "D", "E")) {
+			update(state("name", name, "status", "ACTIVE"));
+		}
+
+		List<AuditChangeSet> changeSets = jdbcTemplate.queryForList(
+				"SELECT changes FROM audit_logs WHERE entity_type = ? AND action = 'UPDATE' ORDER BY id", String.class, ENTITY_TYPE)
+			.stream().map(AuditChangeSet::decode).toList();
+
+		assertThat(changeSets).extracting(AuditChangeSet::isCheckpoint).containsExactly(false, false, true, false);
+		assertThat(changeSets.get(0).getChanges()).containsOnlyKeys("name");
+		assertThat(changeSets.get(2).stateAfter()).isEqualTo(state("name", "D", "status", "ACTIVE"));
+	}
+
+	@Test
+	void historyIsReplayedFromTheCreate() {
+		create(state("name", "Alice", "status", "ACTIVE"));
+		update(state("name", "Bob", "status", "ACTIVE"));
+		update(state("name", "Bob", "status", "CLOSED"));
+
+		AuditHistoryEntry entry = auditService.getEntityHistory(ENTITY_TYPE, ENTITY_ID, null, 1).getContent().get(0);
+
+		assertThat(entry.isStateKnown()).isTrue();
+		Map<String, AuditHistoryEntry.FieldState> fields = byField(entry);
+		assertThat(fields.get("name").getBefore()).isEqualTo("Bob");
+		assertThat(fields.get("name").getAfter()).isEqualTo("Bob");
+		assertThat(fields.get("name").isChanged()).isFalse();
+		assertThat(fields.get("status").getBefore()).isEqualTo("ACTIVE");
+		assertThat(fields.get("status").getAfter()).isEqualTo("CLOSED");
+		assertThat(fields.get("status").isChanged()).isTrue();
+	}
+
+	@Test
+	void historyIsReplayedFromTheNearestCheckpoint() {
+		create(state("name", "A", "status", "ACTIVE"));
+		// Interval 3: the third update is a checkpoint
+		for (String name : List.of("B", "C", "D", "E")) {
+			update(state("name", name, "status", "ACTIVE"));
+		}
+		update(state("name", "E", "status", "CLOSED"));
+		// Retention expired the CREATE
+		jdbcTemplate.update("DELETE FROM audit_logs WHERE entity_type = ? AND action = 'CREATE'", ENTITY_TYPE);
+
+		AuditHistoryEntry entry = auditService.getEntityHistory(ENTITY_TYPE, ENTITY_ID, null, 1).getContent().get(0);
+
+		assertThat(entry.isStateKnown()).isTrue();
+		Map<String, AuditHistoryEntry.FieldState> fields = byField(entry);
+		assertThat(fields.get("name").getAfter()).isEqualTo("E");
+		assertThat(fields.get("status").getBefore()).isEqualTo("ACTIVE");
+		assertThat(fields.get("status").getAfter()).isEqualTo("CLOSED");
+		// The checkpoint was within the interval, so older change sets were not all read
+		verify(auditLogPartitionQueries, never()).findChangeSets(anyString(), any(), eq(0));
+	}
+
+	@Test
+	void changesWithoutAnOnlineBaseListTheirChangedFieldsOnly() {
+		save("UPDATE", AuditChangeSet.between(state("status", "ACTIVE"), state("status", "CLOSED")).encode());
+
+		AuditHistoryEntry entry = auditService.getEntityHistory(ENTITY_TYPE, ENTITY_ID, null, 10).getContent().get(0);
+
+		assertThat(entry.isStateKnown()).isFalse();
+		assertThat(entry.getFields()).hasSize(1);
+		assertThat(entry.getFields().get(0).getField()).isEqualTo("status");
+		assertThat(entry.getFields().get(0).getBefore()).isEqualTo("ACTIVE");
+		assertThat(entry.getFields().get(0).getAfter()).isEqualTo("CLOSED");
+	}
+
+	@Test
+	void onlyCheckpointsCarryTheUnchangedValues() {
+		Map<String, String> before = state("name", "Alice", "status", "ACTIVE");
+		Map<String, String> after = state("name", "Alice", "status", "CLOSED");
+
+		AuditChangeSet changes = AuditChangeSet.decode(AuditChangeSet.between(before, after).encode());
+		AuditChangeSet checkpoint = AuditChangeSet.decode(AuditChangeSet.checkpoint(before, after).encode());
+
+		assertThat(changes.isCheckpoint()).isFalse();
+		assertThat(changes.getChanges()).containsOnlyKeys("status");
+		assertThat(changes.stateAfter()).isNull();
+		assertThat(checkpoint.isCheckpoint()).isTrue();
+		assertThat(checkpoint.getChanges()).containsOnlyKeys("status");
+		assertThat(checkpoint.stateBefore()).isEqualTo(before);
+		assertThat(checkpoint.stateAfter()).isEqualTo(after);
+		assertThatThrownBy(() -> AuditChangeSet.decode("{\"status\":[\"ACTIVE\",\"CLOSED\"]}"))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private void create(Map<String, String> state) {
+		auditService.logChanges("CREATE", ENTITY_TYPE, ENTITY_ID, "created", null, state);
+		current = state;
+	}
+
+	private void update(Map<String, String> state) {
+		auditService.logChanges("UPDATE", ENTITY_TYPE, ENTITY_ID, "updated", current, state);
+		current = state;
+	}
+
+	private void save(String action, String changes) {
+		auditLogRepository.save(AuditLog.builder()
+			.username("tests")
+			.action(action)
+			.entityType(ENTITY_TYPE)
+			.entityId(ENTITY_ID)
+			.changes(changes)
+			.timestamp(LocalDateTime.now())
+			.build());
+	}
+
+	private static Map<String, String> state(String... fieldsAndValues) {
+		Map<String, String> state = new TreeMap<>();
+		for (int i = 0; i < fieldsAndValues.length; i += 2) {
+			state.put(fieldsAndValues[i], fieldsAndValues[i + 1]);
+		}
+		return state;
+	}
+
+	private static Map<String, AuditHistoryEntry.FieldState> byField(AuditHistoryEntry entry) {
+		List<AuditHistoryEntry.FieldState> fields = entry.getFields();
+		return fields.stream().collect(Collectors.toMap(AuditHistoryEntry.FieldState::getField, Function.identity()));
+	}
+}
@@ -0,0 +1,176 @@
+package dev.dsa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dsa.config.AuditPartitionProperties;
+import dev.dsa.repository.AuditLogPartitionQueries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Rolling, archiving and dropping of monthly audit tables on H2, driven by a manager of its own
+ * so the application's scheduled maintenance does not interfere.
+ */
+@SpringBootTest
+class AuditPartitionManagerTests {
+
+	private static final long FIRST_ID = 900_000_000L;
+	private static final YearMonth EXPIRED = YearMonth.now().minusMonths(5);
+	private static final YearMonth KEPT = YearMonth.now().minusMonths(1);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@TempDir
+	private Path archiveDirectory;
+
+	private final AuditPartitionProperties properties = new AuditPartitionProperties();
+	private AuditLogPartitionQueries partitionQueries;
+	private AuditPartitionManager manager;
+	private long nextId = FIRST_ID;
+
+	@BeforeEach
+	void setUp() {
+		properties.setRetentionMonths(3);
+		properties.setArchiveDirectory(archiveDirectory.toString());
+		partitionQueries = spy(new AuditLogPartitionQueries(jdbcTemplate));
+		manager = new AuditPartitionManager(properties, jdbcTemplate, transactionTemplate, partitionQueries, objectMapper);
+		ReflectionTestUtils.setField(manager, "mode", AuditPartitionManager.Mode.ROLLING);
+
+		insert(EXPIRED.atDay(3).atTime(10, 0));
+		insert(EXPIRED.atDay(20).atTime(10, 0));
+		insert(KEPT.atDay(5).atTime(10, 0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP TABLE IF EXISTS " + table(EXPIRED));
+		jdbcTemplate.execute("DROP TABLE IF EXISTS " + table(KEPT));
+		jdbcTemplate.update("DELETE FROM audit_logs WHERE id >= ?", FIRST_ID);
+	}
+
+	@Test
+	void expiredMonthsAreArchivedAndDropped() throws IOException {
+		manager.runMaintenance();
+
+		assertThat(tableExists(table(EXPIRED))).isFalse();
+		assertThat(archivedRows(table(EXPIRED))).hasSize(2).allMatch(line -> line.contains("\"username\":\"partition-test\""));
+		assertThat(count(table(KEPT))).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs WHERE id >= ?", Long.class, FIRST_ID)).isZero();
+		assertThat(manager.getStatus().getMonths()).containsExactly(KEPT.format(DateTimeFormatter.ofPattern("yyyyMM")));
+		assertThat(manager.getStatus().getDroppedPartitions()).isEqualTo(1);
+	}
+
+	@Test
+	void dropActionWritesNoArchive() throws IOException {
+		properties.setRetentionAction(AuditPartitionProperties.RetentionAction.DROP);
+
+		manager.runMaintenance();
+
+		assertThat(tableExists(table(EXPIRED))).isFalse();
+		try (var files = Files.list(archiveDirectory)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void monthIsKeptWhenItCannotBeArchived() throws IOException {
+		Path notADirectory = Files.createFile(archiveDirectory.resolve("occupied"));
+		properties.setArchiveDirectory(notADirectory.toString());
+
+		manager.runMaintenance();
+
+		assertThat(count(table(EXPIRED))).isEqualTo(2);
+		assertThat(manager.getStatus().getLastError()).contains("Could not archive");
+		assertThat(manager.partitionsCovering(EXPIRED.atDay(1).atStartOfDay(), EXPIRED.atEndOfMonth().atStartOfDay()))
+			.extracting(AuditPartitionManager.Partition::table)
+			.contains(table(EXPIRED));
+	}
+
+	@Test
+	void lateRowsAddedWhileArchivingKeepTheMonthUntilTheNextRun() throws IOException {
+		// A row for the expired month arrives after the archive has read the table
+		AtomicBoolean late = new AtomicBoolean(true);
+		doAnswer(invocation -> {
+			invocation.callRealMethod();
+			if (late.getAndSet(false)) {
+				jdbcTemplate.update("INSERT INTO " + table(EXPIRED) + " (id, username, action, timestamp) VALUES (?, ?, ?, ?)",
+					nextId++, "partition-test", "LATE", Timestamp.valueOf(EXPIRED.atDay(25).atTime(10, 0)));
+			}
+			return null;
+		}).when(partitionQueries).forEach(eq(table(EXPIRED)), isNull(), any());
+
+		manager.runMaintenance();
+
+		assertThat(count(table(EXPIRED))).isEqualTo(3);
+		assertThat(manager.getStatus().getLastError()).contains("while it was archived");
+		try (var files = Files.list(archiveDirectory)) {
+			assertThat(files).as("incomplete archive removed").isEmpty();
+		}
+
+		manager.runMaintenance();
+
+		assertThat(tableExists(table(EXPIRED))).isFalse();
+		assertThat(archivedRows(table(EXPIRED))).hasSize(3);
+	}
+
+	private void insert(LocalDateTime timestamp) {
+		jdbcTemplate.update("INSERT INTO audit_logs (id, username, action, timestamp) VALUES (?, ?, ?, ?)",
+			nextId++, "partition-test", "TEST", Timestamp.valueOf(timestamp));
+	}
+
+	private long count(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+	}
+
+	private boolean tableExists(String table) {
+		return jdbcTemplate.queryForObject(
+			"SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = ?",
+			Long.class, table.toUpperCase()) > 0;
+	}
+
+	private List<String> archivedRows(String table) throws IOException {
+		Path archive = archiveDirectory.resolve(table + ".ndjson.gz");
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+			return reader.lines().toList();
+		}
+	}
+
+	private static String table(YearMonth month) {
+		return "audit_logs_" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+	}
+}
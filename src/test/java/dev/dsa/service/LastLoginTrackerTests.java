@@ -0,0 +1,70 @@
+package dev.dsa.service;
+
+import dev.dsa.entity.User;
+import dev.dsa.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class LastLoginTrackerTests {
+
+	private static final String USERNAME = "last-login-test";
+
+	@Autowired
+	private LastLoginTracker lastLoginTracker;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long userId;
+
+	@BeforeEach
+	void setUp() {
+		userId = userRepository.save(User.builder()
+			.username(USERNAME)
+			.password("{noop}secret")
+			.email(USERNAME + "@example.com")
+			.enabled(true)
+			.accountNonExpired(true)
+			.accountNonLocked(true)
+			.credentialsNonExpired(true)
+			.build()).getId();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+
+	@Test
+	void savingAUserLoadedBeforeALoginKeepsTheLastLogin() {
+		User stale = userRepository.findById(userId).orElseThrow();
+
+		lastLoginTracker.recordLogin(userId);
+		lastLoginTracker.flush();
+		LocalDateTime lastLogin = lastLogin();
+		assertThat(lastLogin).isNotNull();
+
+		stale.setEmail("changed-" + USERNAME + "@example.com");
+		userRepository.save(stale);
+
+		assertThat(lastLogin()).isEqualTo(lastLogin);
+		assertThat(jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, userId))
+			.isEqualTo("changed-" + USERNAME + "@example.com");
+	}
+
+	private LocalDateTime lastLogin() {
+		return jdbcTemplate.queryForObject("SELECT last_login FROM users WHERE id = ?", LocalDateTime.class, userId);
+	}
+}
@@ -0,0 +1,124 @@
+package dev.dsa.service;
+
+import dev.dsa.entity.Permission;
+import dev.dsa.entity.Role;
+import dev.dsa.entity.User;
+import dev.dsa.repository.RoleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-memory permission holders must always agree with the database query they replace.
+ */
+@SpringBootTest
+class PermissionHolderIndexTests {
+
+	private static final String USERNAME = "holder-test";
+
+	@Autowired
+	private RbacService rbacService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Role role;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		// Inherits AUDIT_VIEW (and what MANAGER inherits in turn) but not the ADMIN permissions
+		Long managerId = roleRepository.findByName("MANAGER").orElseThrow().getId();
+		role = rbacService.createRole("HOLDER_TEST_ROLE", "Holder index test", managerId);
+		user = userService.createUser(USERNAME, "secret", "holder-test@example.com", "Holder", "Test");
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (userService.getUserById(user.getId()).isPresent()) {
+			userService.deleteUser(user.getId());
+		}
+		jdbcTemplate.update("DELETE FROM role_closure WHERE ancestor_id = ? OR descendant_id = ?", role.getId(), role.getId());
+		jdbcTemplate.update("DELETE FROM roles WHERE id = ?", role.getId());
+		RbacService target = AopTestUtils.getTargetObject(rbacService);
+		ReflectionTestUtils.setField(target, "permissionIndex", null);
+	}
+
+	@Test
+	void holdersMatchTheDatabaseForEveryPermission() {
+		userService.addRoleToUser(user.getId(), role.getId());
+
+		for (Permission permission : rbacService.getAllPermissions()) {
+			assertThat(holders(permission.getName()))
+				.as(permission.getName())
+				.containsExactlyElementsOf(rbacService.getUsernamesWithPermission(permission.getName()));
+		}
+	}
+
+	@Test
+	void inheritedAssignmentsAreIndexedOnCommitOnly() {
+		assertThat(holders("AUDIT_VIEW")).doesNotContain(USERNAME);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			userService.addRoleToUser(user.getId(), role.getId());
+			status.setRollbackOnly();
+		});
+		assertThat(holders("AUDIT_VIEW")).doesNotContain(USERNAME);
+
+		userService.addRoleToUser(user.getId(), role.getId());
+		assertThat(holders("AUDIT_VIEW")).contains(USERNAME);
+		assertThat(holders("CUSTOMER_READ")).contains(USERNAME);
+		assertThat(holders("USER_MANAGE")).doesNotContain(USERNAME);
+
+		userService.removeRoleFromUser(user.getId(), role.getId());
+		assertThat(holders("AUDIT_VIEW")).doesNotContain(USERNAME);
+
+		userService.addRoleToUser(user.getId(), role.getId());
+		userService.deleteUser(user.getId());
+		assertThat(holders("AUDIT_VIEW")).doesNotContain(USERNAME);
+	}
+
+	@Test
+	void pagesAreSlicesOfTheSortedHolders() {
+		userService.addRoleToUser(user.getId(), role.getId());
+		List<String> all = holders("CUSTOMER_READ");
+		assertThat(all).isSorted().hasSizeGreaterThan(1);
+
+		List<String> paged = new ArrayList<>();
+		for (int page = 0; ; page++) {
+			Page<String> holders = rbacService.getPermissionHolders("CUSTOMER_READ", PageRequest.of(page, 1));
+			assertThat(holders.getTotalElements()).isEqualTo(all.size());
+			if (holders.isEmpty()) {
+				break;
+			}
+			paged.addAll(holders.getContent());
+		}
+		assertThat(paged).containsExactlyElementsOf(all);
+	}
+
+	private List<String> holders(String permissionName) {
+		return rbacService.getPermissionHolders(permissionName, PageRequest.of(0, 10_000)).getContent();
+	}
+}
@@ -0,0 +1,79 @@
+package dev.dsa.service;
+
+import dev.dsa.entity.Permission;
+import dev.dsa.entity.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Index patches after concurrent edits of the same role, whose transactions each saw the role's
+ * permissions from before the other committed
+ */
+@SpringBootTest
+class PermissionIndexConcurrencyTests {
+
+	@Autowired
+	private RbacService rbacService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Role role;
+	private Permission first;
+	private Permission second;
+
+	@BeforeEach
+	void setUp() {
+		role = rbacService.createRole("INDEX_RACE_TEST", "Concurrent edits", null);
+		first = rbacService.createPermission("INDEX_RACE_FIRST", "First");
+		second = rbacService.createPermission("INDEX_RACE_SECOND", "Second");
+		rbacService.rebuildPermissionIndex();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM role_permissions WHERE role_id = ?", role.getId());
+		jdbcTemplate.update("DELETE FROM role_closure WHERE descendant_id = ?", role.getId());
+		jdbcTemplate.update("DELETE FROM roles WHERE id = ?", role.getId());
+		jdbcTemplate.update("DELETE FROM permissions WHERE name LIKE 'INDEX_RACE_%'");
+		RbacService target = AopTestUtils.getTargetObject(rbacService);
+		ReflectionTestUtils.setField(target, "permissionIndex", null);
+	}
+
+	@Test
+	void concurrentPermissionGrantsBothReachTheIndex() throws Exception {
+		// The first grant's transaction reads the role, then the second grant runs and commits in full
+		// before the first commits; the first one's hook runs last
+		transactionTemplate.executeWithoutResult(status -> {
+			rbacService.addPermissionToRole(role.getId(), first.getId());
+			try {
+				CompletableFuture.runAsync(() -> rbacService.addPermissionToRole(role.getId(), second.getId()))
+					.get(30, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		PermissionIndex index = rbacService.getPermissionIndex();
+		BitSet granted = index.resolve(List.of(role.getId()), List.of());
+		assertThat(granted.get(index.getOrdinal(first.getId()))).isTrue();
+		assertThat(granted.get(index.getOrdinal(second.getId()))).isTrue();
+	}
+}
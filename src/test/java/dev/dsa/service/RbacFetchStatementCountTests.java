@@ -0,0 +1,173 @@
+package dev.dsa.service;
+
+import dev.dsa.entity.Role;
+import dev.dsa.entity.RoleProfile;
+import dev.dsa.entity.User;
+import dev.dsa.repository.RoleProfileRepository;
+import dev.dsa.repository.RoleRepository;
+import dev.dsa.repository.UserRepository;
+import dev.dsa.security.RbacUserDetails;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts for the RBAC graph: the admin views and authentication must not grow
+ * with the number of users, roles or permissions.
+ */
+@SpringBootTest
+class RbacFetchStatementCountTests {
+
+	private static final int EXTRA_USERS = 25;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RbacService rbacService;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private RoleProfileRepository roleProfileRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Role> roles = roleRepository.findAll();
+			RoleProfile profile = roleProfileRepository.findByName("SALES_MANAGER").orElseThrow();
+			for (int i = 0; i < EXTRA_USERS; i++) {
+				User user = User.builder()
+					.username("fetch-test-" + i)
+					.password("{noop}secret")
+					.email("fetch-test-" + i + "@example.com")
+					.enabled(true)
+					.accountNonExpired(true)
+					.accountNonLocked(true)
+					.credentialsNonExpired(true)
+					.roles(new HashSet<>(List.of(roles.get(i % roles.size()), roles.get((i + 1) % roles.size()))))
+					.roleProfiles(new HashSet<>(Set.of(profile)))
+					.build();
+				userRepository.save(user);
+			}
+		});
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		statistics.setStatisticsEnabled(false);
+		transactionTemplate.executeWithoutResult(status -> userRepository.findAll().stream()
+			.filter(user -> user.getUsername().startsWith("fetch-test-"))
+			.forEach(userRepository::delete));
+	}
+
+	@Test
+	void adminUserListIsOneStatement() {
+		List<User> users = userService.getAllUsers();
+
+		// Everything the users page renders, read after the transaction has ended
+		users.forEach(user -> user.getRoles().forEach(Role::getName));
+
+		assertThat(users).hasSizeGreaterThan(EXTRA_USERS);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void authenticationIsTwoStatements() {
+		rbacService.getPermissionIndex();
+		RoleProfile profile = transactionTemplate.execute(status -> {
+			RoleProfile salesManager = roleProfileRepository.findByName("SALES_MANAGER").orElseThrow();
+			salesManager.getRoles().size();
+			return salesManager;
+		});
+		statistics.clear();
+
+		// Direct roles and profile roles are read by separate statements rather than one cartesian join
+		RbacUserDetails user = (RbacUserDetails) userDetailsService.loadUserByUsername("fetch-test-0");
+
+		assertThat(user.getRoleAuthorities()).hasSizeGreaterThanOrEqualTo(2);
+		profile.getRoles().forEach(role -> assertThat(user.getRoleAuthorities()).contains("ROLE_" + role.getName()));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+		statistics.clear();
+		RbacUserDetails manager = (RbacUserDetails) userDetailsService.loadUserByUsername("manager");
+
+		assertThat(manager.getRoleAuthorities()).contains("ROLE_MANAGER");
+		assertThat(manager.hasAuthority("ACCOUNT_DELETE")).isTrue();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void cachedRolesAreLoadedOnceAndUsableDetached() {
+		cacheManager.getCache("roles").clear();
+
+		List<Role> roles = rbacService.getAllRoles();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		// The roles page and profile form read permissions and parents of the cached, detached roles
+		roles.forEach(role -> {
+			role.getAllPermissions().forEach(permission -> permission.getName());
+			if (role.getParentRole() != null) {
+				role.getParentRole().getName();
+			}
+		});
+		rbacService.getAllRoles();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void lazyPermissionIndexBuildRunsInOneTransaction() {
+		PermissionIndex built = rbacService.getPermissionIndex();
+		RbacService target = AopTestUtils.getTargetObject(rbacService);
+		ReflectionTestUtils.setField(target, "permissionIndex", null);
+		statistics.clear();
+
+		try {
+			// Called without a surrounding transaction, as the web layer does
+			PermissionIndex index = rbacService.getPermissionIndex();
+
+			assertThat(index.getPermissionCount()).isEqualTo(built.getPermissionCount());
+			// One transaction, hence one session; each repository call opens its own without it
+			assertThat(statistics.getSessionOpenCount()).isEqualTo(1);
+		} finally {
+			ReflectionTestUtils.setField(target, "permissionIndex", built);
+		}
+	}
+}
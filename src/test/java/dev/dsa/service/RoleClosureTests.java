@@ -0,0 +1,62 @@
+package dev.dsa.service;
+
+import dev.dsa.entity.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Role hierarchy maintenance against role_closure with the foreign keys of db/postgresql/role-closure.sql,
+ * which the schema Hibernate generates for H2 does not have.
+ */
+@SpringBootTest
+class RoleClosureTests {
+
+	@Autowired
+	private RbacService rbacService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void addForeignKeys() {
+		jdbcTemplate.execute("ALTER TABLE role_closure ADD CONSTRAINT fk_role_closure_ancestor " +
+			"FOREIGN KEY (ancestor_id) REFERENCES roles (id) ON DELETE CASCADE");
+		jdbcTemplate.execute("ALTER TABLE role_closure ADD CONSTRAINT fk_role_closure_descendant " +
+			"FOREIGN KEY (descendant_id) REFERENCES roles (id) ON DELETE CASCADE");
+	}
+
+	@AfterEach
+	void removeRolesAndForeignKeys() {
+		jdbcTemplate.update("UPDATE roles SET parent_role_id = NULL WHERE name LIKE 'CLOSURE_TEST_%'");
+		jdbcTemplate.update("DELETE FROM roles WHERE name LIKE 'CLOSURE_TEST_%'");
+		jdbcTemplate.execute("ALTER TABLE role_closure DROP CONSTRAINT fk_role_closure_ancestor");
+		jdbcTemplate.execute("ALTER TABLE role_closure DROP CONSTRAINT fk_role_closure_descendant");
+		// The permission index still knows the deleted roles; let the next use rebuild it
+		RbacService target = AopTestUtils.getTargetObject(rbacService);
+		ReflectionTestUtils.setField(target, "permissionIndex", null);
+	}
+
+	@Test
+	void createAndMoveRolesWithForeignKeys() {
+		Role root = rbacService.createRole("CLOSURE_TEST_ROOT", "Root", null);
+		Role child = rbacService.createRole("CLOSURE_TEST_CHILD", "Child", root.getId());
+		Role grandchild = rbacService.createRole("CLOSURE_TEST_GRANDCHILD", "Grandchild", child.getId());
+		Role otherRoot = rbacService.createRole("CLOSURE_TEST_OTHER", "Other root", null);
+
+		assertThat(rbacService.getDescendantRoleIds(root.getId())).containsExactlyInAnyOrder(child.getId(), grandchild.getId());
+
+		rbacService.updateRole(child.getId(), null, null, null, otherRoot.getId());
+
+		assertThat(rbacService.getDescendantRoleIds(root.getId())).isEmpty();
+		assertThat(rbacService.getDescendantRoleIds(otherRoot.getId())).containsExactlyInAnyOrder(child.getId(), grandchild.getId());
+		assertThat(rbacService.getDescendantRoleIds(child.getId())).containsExactly(grandchild.getId());
+	}
+}
@@ -0,0 +1,108 @@
+package dev.dsa.service;
+
+import dev.dsa.entity.User;
+import dev.dsa.entity.UserProfile;
+import dev.dsa.repository.UserProfileRepository;
+import dev.dsa.repository.UserRepository;
+import dev.dsa.security.RbacUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class UserProfileServiceTests {
+
+	private static final String USERNAME = "prefs-test";
+
+	@Autowired
+	private UserProfileService userProfileService;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@SpyBean
+	private UserProfileRepository userProfileRepository;
+
+	private Long userId;
+
+	@BeforeEach
+	void setUp() {
+		User user = userRepository.save(User.builder()
+			.username(USERNAME)
+			.password("{noop}secret")
+			.email(USERNAME + "@example.com")
+			.enabled(true)
+			.accountNonExpired(true)
+			.accountNonLocked(true)
+			.credentialsNonExpired(true)
+			.build());
+		userId = user.getId();
+		userProfileService.createDefaultProfile(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		jdbcTemplate.update("DELETE FROM user_profiles WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+
+	@Test
+	void preferencesComeFromThePrincipalWhileItIsCurrent() {
+		signIn(login());
+		clearInvocations(userProfileRepository);
+
+		assertThat(userProfileService.getCurrentUserPageSize()).isEqualTo(11);
+		verify(userProfileRepository, never()).findByUser_Username(anyString());
+	}
+
+	@Test
+	void profileUpdateReachesEverySessionOfTheUser() {
+		RbacUserDetails firstSession = login();
+		RbacUserDetails secondSession = login();
+
+		userProfileService.updateProfile(userId, UserProfile.builder().pageSize(25).build());
+		clearInvocations(userProfileRepository);
+
+		// Neither principal was touched; both are stale and resolve to one snapshot loaded at the new version
+		signIn(firstSession);
+		assertThat(userProfileService.getCurrentUserPageSize()).isEqualTo(25);
+		signIn(secondSession);
+		assertThat(userProfileService.getCurrentUserPageSize()).isEqualTo(25);
+		assertThat(secondSession.getPreferences().getPageSize()).isEqualTo(11);
+		verify(userProfileRepository, times(1)).findByUser_Username(USERNAME);
+
+		// A login after the update carries the new snapshot itself
+		signIn(login());
+		assertThat(userProfileService.getCurrentUserPageSize()).isEqualTo(25);
+		verify(userProfileRepository, times(1)).findByUser_Username(USERNAME);
+	}
+
+	private RbacUserDetails login() {
+		return (RbacUserDetails) userDetailsService.loadUserByUsername(USERNAME);
+	}
+
+	private static void signIn(RbacUserDetails user) {
+		SecurityContextHolder.getContext().setAuthentication(
+			UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+	}
+}
@@ -0,0 +1,131 @@
+package dev.dsa.util;
+
+import dev.dsa.dto.AccountListRow;
+import dev.dsa.entity.Account;
+import dev.dsa.entity.Customer;
+import dev.dsa.repository.AccountRepository;
+import dev.dsa.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset paging over a nullable sort key: every row is seen exactly once, nulls last, in both directions.
+ */
+@SpringBootTest
+class KeysetCursorTests {
+
+	private static final String PREFIX = "KSC-";
+	private static final String SORT_FIELD = "createdBy";
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final Specification<Account> onlyTestAccounts = (root, query, cb) -> cb.like(root.get("accountRef"), PREFIX + "%");
+
+	@BeforeEach
+	void createAccounts() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Customer customer = new Customer();
+			customer.setName("Keyset cursor");
+			customer.setEmail("keyset-cursor@example.com");
+			customer = customerRepository.save(customer);
+			for (int i = 0; i < 7; i++) {
+				Account account = new Account();
+				account.setAccountRef(PREFIX + i);
+				account.setAccountName("Keyset " + i);
+				account.setCurrency("EUR");
+				account.setCustomer(customer);
+				accountRepository.save(account);
+			}
+		});
+		// Three distinct keys, a tie on one of them and three rows without a key
+		jdbcTemplate.update("UPDATE accounts SET created_by = NULL WHERE account_ref IN (?, ?, ?)", PREFIX + 1, PREFIX + 4, PREFIX + 6);
+		jdbcTemplate.update("UPDATE accounts SET created_by = 'b' WHERE account_ref IN (?, ?)", PREFIX + 0, PREFIX + 5);
+		jdbcTemplate.update("UPDATE accounts SET created_by = 'a' WHERE account_ref = ?", PREFIX + 2);
+		jdbcTemplate.update("UPDATE accounts SET created_by = 'c' WHERE account_ref = ?", PREFIX + 3);
+	}
+
+	@AfterEach
+	void deleteAccounts() {
+		jdbcTemplate.update("DELETE FROM accounts WHERE account_ref LIKE ?", PREFIX + "%");
+		jdbcTemplate.update("DELETE FROM customers WHERE email = ?", "keyset-cursor@example.com");
+	}
+
+	@Test
+	void nullKeyRoundTripsThroughTheToken() {
+		KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor(KeysetCursor.Direction.BACKWARD, SORT_FIELD, null, 42L).encode());
+
+		assertThat(cursor.getDirection()).isEqualTo(KeysetCursor.Direction.BACKWARD);
+		assertThat(cursor.getSortValue()).isNull();
+		assertThat(cursor.getId()).isEqualTo(42L);
+
+		KeysetCursor dated = KeysetCursor.decode(
+			new KeysetCursor(KeysetCursor.Direction.FORWARD, "createdAt", LocalDateTime.of(2024, 1, 2, 3, 4), 7L).encode());
+		assertThat(dated.getSortValue()).isEqualTo(LocalDateTime.of(2024, 1, 2, 3, 4));
+	}
+
+	@Test
+	void pagesForwardAndBackwardThroughNullKeys() {
+		List<String> expected = List.of(PREFIX + 2, PREFIX + 0, PREFIX + 5, PREFIX + 3, PREFIX + 1, PREFIX + 4, PREFIX + 6);
+
+		List<AccountListRow> forward = new ArrayList<>();
+		KeysetCursor cursor = null;
+		for (int page = 0; page < 10; page++) {
+			List<AccountListRow> rows = readPage(cursor, 2);
+			if (rows.isEmpty()) {
+				break;
+			}
+			forward.addAll(rows);
+			AccountListRow last = rows.get(rows.size() - 1);
+			cursor = new KeysetCursor(KeysetCursor.Direction.FORWARD, SORT_FIELD, last.getCreatedBy(), last.getId());
+		}
+		assertThat(forward).extracting(AccountListRow::getAccountRef).containsExactlyElementsOf(expected);
+
+		// Backward from one past the end, i.e. from the last row, walks the same rows in reverse
+		AccountListRow end = forward.get(forward.size() - 1);
+		List<AccountListRow> backward = new ArrayList<>(List.of(end));
+		cursor = new KeysetCursor(KeysetCursor.Direction.BACKWARD, SORT_FIELD, end.getCreatedBy(), end.getId());
+		for (int page = 0; page < 10; page++) {
+			List<AccountListRow> rows = readPage(cursor, 2);
+			if (rows.isEmpty()) {
+				break;
+			}
+			backward.addAll(0, rows);
+			AccountListRow first = rows.get(0);
+			cursor = new KeysetCursor(KeysetCursor.Direction.BACKWARD, SORT_FIELD, first.getCreatedBy(), first.getId());
+		}
+		assertThat(backward).extracting(AccountListRow::getAccountRef).containsExactlyElementsOf(expected);
+	}
+
+	private List<AccountListRow> readPage(KeysetCursor cursor, int size) {
+		boolean backward = cursor != null && cursor.getDirection() == KeysetCursor.Direction.BACKWARD;
+		Specification<Account> specification = cursor != null ? onlyTestAccounts.and(cursor.toSpecification()) : onlyTestAccounts;
+		List<AccountListRow> rows = new ArrayList<>(accountRepository.findListRows(specification, KeysetCursor.sort(SORT_FIELD, backward), size));
+		if (backward) {
+			Collections.reverse(rows);
+		}
+		return rows;
+	}
+}